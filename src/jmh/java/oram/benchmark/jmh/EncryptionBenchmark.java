@@ -0,0 +1,99 @@
+package oram.benchmark.jmh;
+
+import oram.client.structure.Bucket;
+import oram.client.structure.StashesAndPaths;
+import oram.security.CipherMode;
+import oram.security.EncryptionManager;
+import oram.server.structure.EncryptedBucket;
+import oram.utils.EncryptionGranularity;
+import oram.utils.ORAMContext;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the encryption of an evicted path and the decryption of the stashes and paths a client receives while
+ * other clients have outstanding versions.
+ * Run with: gradle jmh -PjmhArgs="EncryptionBenchmark"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EncryptionBenchmark {
+	@Param({"17"})
+	private int treeHeight;
+
+	@Param({"4"})
+	private int bucketSize;
+
+	@Param({"8"})
+	private int blockSize;
+
+	@Param({"1", "5", "10"})
+	private int outstandingVersions;
+
+	@Param({"AES_CBC", "AES_GCM"})
+	private CipherMode cipherMode;
+
+	@Param({"BLOCK", "BUCKET"})
+	private EncryptionGranularity encryptionGranularity;
+
+	/**
+	 * Number of threads decrypting the stashes and paths in parallel (0 decrypts them in the calling thread).
+	 */
+	@Param({"0"})
+	private int decryptionThreads;
+
+	private ForkJoinPool decryptionPool;
+
+	private EncryptionManager encryptionManager;
+	private ORAMContext oramContext;
+	private byte[] serializedStashesAndPaths;
+	private Map<Integer, Bucket> path;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		ORAMAccessSnapshot snapshot = ORAMAccessSnapshot.create(treeHeight, bucketSize, blockSize,
+				outstandingVersions, cipherMode,
+				encryptionGranularity, 1);
+		encryptionManager = snapshot.getEncryptionManager();
+		oramContext = snapshot.getOramContext();
+		serializedStashesAndPaths = snapshot.getStashesAndPathsResponse();
+		if (decryptionThreads > 0) {
+			decryptionPool = new ForkJoinPool(decryptionThreads);
+			encryptionManager.setDecryptionExecutor(decryptionPool);
+		}
+
+		StashesAndPaths stashesAndPaths = encryptionManager.decryptStashesAndPaths(oramContext,
+				serializedStashesAndPaths);
+		path = new HashMap<>(oramContext.getTreeLevels());
+		for (Bucket bucket : stashesAndPaths.getPaths()) {
+			if (bucket != null) {
+				path.putIfAbsent(bucket.getLocation(), bucket);
+			}
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		if (decryptionPool != null) {
+			decryptionPool.shutdown();
+		}
+	}
+
+	@Benchmark
+	public StashesAndPaths decryptStashesAndPaths() {
+		return encryptionManager.decryptStashesAndPaths(oramContext, serializedStashesAndPaths);
+	}
+
+	@Benchmark
+	public Map<Integer, EncryptedBucket> encryptPath() {
+		return encryptionManager.encryptPath(oramContext, path);
+	}
+}
@@ -0,0 +1,119 @@
+package oram.benchmark.jmh;
+
+import oram.client.ORAMServiceProxy;
+import oram.messages.*;
+import oram.server.ORAM;
+import oram.server.structure.EncryptedPathMaps;
+import oram.server.structure.EncryptedStashesAndPaths;
+import oram.utils.RawCustomExternalizable;
+import oram.utils.Status;
+
+/**
+ * Service proxy that executes the requests of an ORAMObject directly on an ORAM of the same process. The last
+ * responses are kept so that benchmarks can replay them. When detached, eviction requests are acknowledged without
+ * reaching the ORAM, allowing the client side of an access to be repeated over the same server state.
+ */
+public class InProcessServiceProxy implements ORAMServiceProxy {
+	private static final byte[] SUCCESS = new byte[]{(byte) Status.SUCCESS.ordinal()};
+	private static final byte[] FAILED = new byte[]{(byte) Status.FAILED.ordinal()};
+	private final ORAM oram;
+	private final int clientId;
+	private EvictionORAMMessage evictionPayload;
+	private byte[] lastPathMapsResponse;
+	private byte[] lastStashesAndPathsResponse;
+	private int lastPathId;
+	private boolean detached;
+
+	public InProcessServiceProxy(ORAM oram, int clientId) {
+		this.oram = oram;
+		this.clientId = clientId;
+	}
+
+	public void setDetached(boolean detached) {
+		this.detached = detached;
+	}
+
+	public byte[] getLastPathMapsResponse() {
+		return lastPathMapsResponse;
+	}
+
+	public byte[] getLastStashesAndPathsResponse() {
+		return lastStashesAndPathsResponse;
+	}
+
+	public int getLastPathId() {
+		return lastPathId;
+	}
+
+	@Override
+	public int getProcessId() {
+		return clientId;
+	}
+
+	@Override
+	public byte[] getDebugSnapshot(byte[] request) {
+		return null;
+	}
+
+	@Override
+	public byte[] getPathMaps(byte[] request) {
+		GetPathMaps getPathMaps = new GetPathMaps();
+		getPathMaps.readExternal(request, 1);
+		EncryptedPathMaps encryptedPathMaps = oram.getPositionMaps(clientId, getPathMaps);
+		lastPathMapsResponse = serialize(encryptedPathMaps);
+		return lastPathMapsResponse;
+	}
+
+	@Override
+	public byte[] getStashesAndPaths(byte[] request) {
+		StashPathORAMMessage stashPathRequest = new StashPathORAMMessage();
+		stashPathRequest.readExternal(request, 1);
+		EncryptedStashesAndPaths encryptedStashesAndPaths = oram.getStashesAndPaths(stashPathRequest.getPathIds(),
+				clientId);
+		if (encryptedStashesAndPaths == null) {
+			return null;
+		}
+		lastPathId = stashPathRequest.getPathIds()[0];
+		lastStashesAndPathsResponse = serialize(encryptedStashesAndPaths);
+		return lastStashesAndPathsResponse;
+	}
+
+	@Override
+	public byte[] sendEvictionPayload(byte[] request) {
+		if (detached) {
+			return SUCCESS;
+		}
+		evictionPayload = new EvictionORAMMessage();
+		evictionPayload.readExternal(request, 1);
+		return SUCCESS;
+	}
+
+	@Override
+	public byte[] evict(byte[] request) {
+		if (detached) {
+			return SUCCESS;
+		}
+		boolean isEvicted = oram.performEviction(evictionPayload.getEncryptedStash(),
+				evictionPayload.getEncryptedPathMap(), evictionPayload.getEncryptedPath(), clientId);
+		evictionPayload = null;
+		return isEvicted ? SUCCESS : FAILED;
+	}
+
+	@Override
+	public byte[] uploadPositionMapCheckpoint(byte[] request) {
+		if (detached) {
+			return SUCCESS;
+		}
+		PositionMapCheckpointMessage checkpointMessage = new PositionMapCheckpointMessage();
+		checkpointMessage.readExternal(request, 1);
+		boolean isStored = oram.storePositionMapCheckpoint(clientId, checkpointMessage.getCheckpointVersion(),
+				checkpointMessage.getEncryptedPositionMap());
+		return isStored ? SUCCESS : FAILED;
+	}
+
+	private static byte[] serialize(RawCustomExternalizable data) {
+		byte[] serializedData = new byte[data.getSerializedSize()];
+		data.writeExternal(serializedData, 0);
+		return serializedData;
+	}
+}
@@ -0,0 +1,119 @@
+package oram.benchmark.jmh;
+
+import oram.benchmark.direct.DirectORAMObject;
+import oram.client.ORAMObject;
+import oram.client.structure.PathMap;
+import oram.client.structure.Stash;
+import oram.security.CipherMode;
+import oram.security.EncryptionManager;
+import oram.server.ORAM;
+import oram.utils.EncryptionGranularity;
+import oram.utils.ORAMContext;
+import oram.utils.Operation;
+
+import java.util.Random;
+
+/**
+ * State of an ORAM right before a client accesses it while other clients have concurrently evicted, i.e., with
+ * the requested number of outstanding versions. The responses received by the reading client are recorded so that
+ * benchmarks can repeat each step of the access over the same data.
+ */
+public class ORAMAccessSnapshot {
+	private static final int N_WARMUP_ACCESSES = 1000;
+	private final ORAMContext oramContext;
+	private final EncryptionManager encryptionManager;
+	private final ORAM oram;
+	private final ORAMObject reader;
+	private final InProcessServiceProxy readerProxy;
+
+	private ORAMAccessSnapshot(ORAMContext oramContext, EncryptionManager encryptionManager, ORAM oram,
+							   ORAMObject reader, InProcessServiceProxy readerProxy) {
+		this.oramContext = oramContext;
+		this.encryptionManager = encryptionManager;
+		this.oram = oram;
+		this.reader = reader;
+		this.readerProxy = readerProxy;
+	}
+
+	/**
+	 * Creates an ORAM, writes random blocks to it and lets nOutstandingVersions clients access it concurrently
+	 * before the reader accesses it. The reader is detached from the ORAM afterward.
+	 */
+	public static ORAMAccessSnapshot create(int treeHeight, int bucketSize, int blockSize, int nOutstandingVersions,
+											long seed) {
+		return create(treeHeight, bucketSize, blockSize, nOutstandingVersions, CipherMode.AES_GCM,
+				EncryptionGranularity.BLOCK, seed);
+	}
+
+	public static ORAMAccessSnapshot create(int treeHeight, int bucketSize, int blockSize, int nOutstandingVersions,
+											CipherMode cipherMode, EncryptionGranularity encryptionGranularity,
+											long seed) {
+		Random random = new Random(seed);
+		EncryptionManager encryptionManager = new EncryptionManager(cipherMode);
+		encryptionManager.createSecretKey("benchmark");
+		ORAM oram = new ORAM(0, treeHeight, bucketSize, blockSize, encryptionGranularity,
+				encryptionManager.encryptPathMap(new PathMap(1)),
+				encryptionManager.encryptStash(new Stash(blockSize)));
+		ORAMContext oramContext = oram.getOramContext();
+		int treeSize = oramContext.getTreeSize();
+
+		InProcessServiceProxy readerProxy = new InProcessServiceProxy(oram, 0);
+		ORAMObject reader = new ORAMObject(readerProxy, 0, oramContext, encryptionManager);
+		DirectORAMObject[] writers = new DirectORAMObject[nOutstandingVersions];
+		for (int i = 0; i < nOutstandingVersions; i++) {
+			writers[i] = new DirectORAMObject(oram, 0, i + 1, encryptionManager);
+			writers[i].writeMemory(random.nextInt(treeSize), randomContent(random, blockSize));
+		}
+
+		int lastWrittenAddress = 0;
+		for (int i = 0; i < N_WARMUP_ACCESSES; i++) {
+			lastWrittenAddress = random.nextInt(treeSize);
+			reader.writeMemory(lastWrittenAddress, randomContent(random, blockSize));
+		}
+
+		for (DirectORAMObject writer : writers) {
+			writer.accessStepOneAndTwo(Operation.WRITE, random.nextInt(treeSize), randomContent(random, blockSize));
+		}
+		for (DirectORAMObject writer : writers) {
+			writer.accessStepThree();
+		}
+
+		reader.readMemory(lastWrittenAddress);
+		readerProxy.setDetached(true);
+		return new ORAMAccessSnapshot(oramContext, encryptionManager, oram, reader, readerProxy);
+	}
+
+	private static byte[] randomContent(Random random, int blockSize) {
+		byte[] content = new byte[blockSize];
+		random.nextBytes(content);
+		return content;
+	}
+
+	public ORAMContext getOramContext() {
+		return oramContext;
+	}
+
+	public EncryptionManager getEncryptionManager() {
+		return encryptionManager;
+	}
+
+	public ORAM getOram() {
+		return oram;
+	}
+
+	public ORAMObject getReader() {
+		return reader;
+	}
+
+	public byte[] getPathMapsResponse() {
+		return readerProxy.getLastPathMapsResponse();
+	}
+
+	public byte[] getStashesAndPathsResponse() {
+		return readerProxy.getLastStashesAndPathsResponse();
+	}
+
+	public int getPathId() {
+		return readerProxy.getLastPathId();
+	}
+}
@@ -0,0 +1,175 @@
+package oram.benchmark.jmh;
+
+import oram.client.structure.Block;
+import oram.client.structure.PathMap;
+import oram.client.structure.Stash;
+import oram.utils.ORAMUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of the raw serialization used by the ORAM structures on path and stash sizes similar to
+ * the ones exchanged in each access. The legacy benchmarks reproduce the integer encoding through temporary arrays
+ * (ORAMUtils.toBytes/toNumber) to compare it with the in-place encoding.
+ * Run with: gradle jmh -PjmhArgs="SerializationBenchmark"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+	@Param({"17"})
+	private int treeHeight;
+
+	@Param({"4"})
+	private int bucketSize;
+
+	@Param({"8", "4096"})
+	private int blockSize;
+
+	@Param({"100"})
+	private int stashSize;
+
+	private Block[] path;
+	private byte[] serializedPath;
+	private Stash stash;
+	private byte[] serializedStash;
+	private PathMap pathMap;
+	private byte[] serializedPathMap;
+	private int[] integers;
+	private byte[] serializedIntegers;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(1);
+		int pathLength = ORAMUtils.computePathLength(treeHeight, bucketSize);
+		int treeSize = ORAMUtils.computeNumberOfNodes(treeHeight);
+
+		path = new Block[pathLength];
+		pathMap = new PathMap(pathLength);
+		int pathSize = 0;
+		for (int i = 0; i < pathLength; i++) {
+			path[i] = createBlock(random, treeSize);
+			pathSize += path[i].getSerializedSize();
+			pathMap.setLocation(path[i].getAddress(), i, path[i].getVersion(), path[i].getAccess());
+		}
+		serializedPath = new byte[pathSize];
+		writePath();
+
+		stash = new Stash(blockSize);
+		while (stash.size() < stashSize) {
+			stash.putBlock(createBlock(random, treeSize));
+		}
+		serializedStash = new byte[stash.getSerializedSize()];
+		stash.writeExternal(serializedStash, 0);
+
+		serializedPathMap = new byte[pathMap.getSerializedSize()];
+		pathMap.writeExternal(serializedPathMap, 0);
+
+		integers = new int[pathLength * 4];
+		for (int i = 0; i < integers.length; i++) {
+			integers[i] = random.nextInt();
+		}
+		serializedIntegers = new byte[integers.length * Integer.BYTES];
+	}
+
+	private Block createBlock(Random random, int treeSize) {
+		byte[] content = new byte[blockSize];
+		random.nextBytes(content);
+		int version = random.nextInt(1_000_000);
+		return new Block(blockSize, random.nextInt(treeSize), version, content);
+	}
+
+	private int writePath() {
+		int offset = 0;
+		for (Block block : path) {
+			offset = block.writeExternal(serializedPath, offset);
+		}
+		return offset;
+	}
+
+	@Benchmark
+	public int serializePath() {
+		return writePath();
+	}
+
+	@Benchmark
+	public void deserializePath(Blackhole blackhole) {
+		int offset = 0;
+		for (int i = 0; i < path.length; i++) {
+			Block block = new Block(blockSize);
+			offset = block.readExternal(serializedPath, offset);
+			blackhole.consume(block);
+		}
+	}
+
+	@Benchmark
+	public int serializeStash() {
+		return stash.writeExternal(serializedStash, 0);
+	}
+
+	@Benchmark
+	public Stash deserializeStash() {
+		Stash deserializedStash = new Stash(blockSize);
+		deserializedStash.readExternal(serializedStash, 0);
+		return deserializedStash;
+	}
+
+	@Benchmark
+	public int serializePathMap() {
+		return pathMap.writeExternal(serializedPathMap, 0);
+	}
+
+	@Benchmark
+	public PathMap deserializePathMap() {
+		PathMap deserializedPathMap = new PathMap();
+		deserializedPathMap.readExternal(serializedPathMap, 0);
+		return deserializedPathMap;
+	}
+
+	@Benchmark
+	public int serializeIntegers() {
+		int offset = 0;
+		for (int value : integers) {
+			ORAMUtils.serializeInteger(value, serializedIntegers, offset);
+			offset += Integer.BYTES;
+		}
+		return offset;
+	}
+
+	@Benchmark
+	public int legacySerializeIntegers() {
+		int offset = 0;
+		for (int value : integers) {
+			byte[] valueBytes = ORAMUtils.toBytes(value);
+			System.arraycopy(valueBytes, 0, serializedIntegers, offset, 4);
+			offset += Integer.BYTES;
+		}
+		return offset;
+	}
+
+	@Benchmark
+	public int deserializeIntegers() {
+		int sum = 0;
+		for (int offset = 0; offset < serializedIntegers.length; offset += Integer.BYTES) {
+			sum += ORAMUtils.deserializeInteger(serializedIntegers, offset);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public int legacyDeserializeIntegers() {
+		int sum = 0;
+		for (int offset = 0; offset < serializedIntegers.length; offset += Integer.BYTES) {
+			byte[] valueBytes = new byte[4];
+			System.arraycopy(serializedIntegers, offset, valueBytes, 0, 4);
+			sum += ORAMUtils.toNumber(valueBytes);
+		}
+		return sum;
+	}
+}
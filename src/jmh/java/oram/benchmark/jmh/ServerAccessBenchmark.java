@@ -0,0 +1,153 @@
+package oram.benchmark.jmh;
+
+import oram.server.ORAMTreeManager;
+import oram.server.structure.*;
+import oram.utils.ORAMContext;
+import oram.utils.ORAMUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the server-side steps of an access: reading a path from the outstanding tree, storing the evicted path,
+ * and (de)serializing the stashes and paths sent to a client. The tree manager keeps outstandingVersions accesses
+ * in-flight at all times, i.e., each stored path comes from an access that started outstandingVersions accesses
+ * before.
+ * Run with: gradle jmh -PjmhArgs="ServerAccessBenchmark"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServerAccessBenchmark {
+	private static final int N_WARMUP_ACCESSES = 1000;
+	private static final int CIPHERTEXT_OVERHEAD = 32;
+
+	@Param({"17"})
+	private int treeHeight;
+
+	@Param({"4"})
+	private int bucketSize;
+
+	@Param({"8"})
+	private int blockSize;
+
+	@Param({"1", "5", "10"})
+	private int outstandingVersions;
+
+	private Random random;
+	private ORAMContext oramContext;
+	private ORAMTreeManager treeManager;
+	private Deque<InFlightAccess> inFlightAccesses;
+	private int sequenceNumber;
+	private EncryptedStash encryptedStash;
+	private int[] readPathLocations;
+	private byte[] serializedStashesAndPaths;
+	private EncryptedStashesAndPaths encryptedStashesAndPaths;
+
+	private static class InFlightAccess {
+		private final int versionId;
+		private final int[] pathLocations;
+		private final int[] outstandingVersions;
+		private final OutstandingPath outstandingPath;
+
+		private InFlightAccess(int versionId, int[] pathLocations, int[] outstandingVersions,
+							   OutstandingPath outstandingPath) {
+			this.versionId = versionId;
+			this.pathLocations = pathLocations;
+			this.outstandingVersions = outstandingVersions;
+			this.outstandingPath = outstandingPath;
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setup() {
+		random = new Random(1);
+		oramContext = new ORAMContext(treeHeight, bucketSize, blockSize);
+		byte[] stash = new byte[blockSize + CIPHERTEXT_OVERHEAD];
+		random.nextBytes(stash);
+		encryptedStash = new EncryptedStash(stash);
+		sequenceNumber = 1;
+		treeManager = new ORAMTreeManager(oramContext, sequenceNumber, encryptedStash);
+		inFlightAccesses = new ArrayDeque<>(outstandingVersions);
+		for (int i = 0; i < N_WARMUP_ACCESSES; i++) {
+			inFlightAccesses.addLast(startAccess());
+			if (inFlightAccesses.size() > outstandingVersions) {
+				finishAccess(inFlightAccesses.pollFirst());
+			}
+		}
+		readPathLocations = randomPathLocations();
+
+		ORAMAccessSnapshot snapshot = ORAMAccessSnapshot.create(treeHeight, bucketSize, blockSize,
+				outstandingVersions, 1);
+		serializedStashesAndPaths = snapshot.getStashesAndPathsResponse();
+		encryptedStashesAndPaths = new EncryptedStashesAndPaths(snapshot.getOramContext());
+		encryptedStashesAndPaths.readExternal(serializedStashesAndPaths, 0);
+	}
+
+	private int[] randomPathLocations() {
+		int pathId = random.nextInt(1 << treeHeight);
+		return ORAMUtils.computePathLocations(pathId, treeHeight);
+	}
+
+	private InFlightAccess startAccess() {
+		OutstandingTree outstandingTree = treeManager.getOutstandingTree();
+		Set<Integer> outstandingVersionsSet = outstandingTree.getOutstandingVersions();
+		int[] currentOutstandingVersions = new int[outstandingVersionsSet.size()];
+		int i = 0;
+		for (int outstandingVersion : outstandingVersionsSet) {
+			currentOutstandingVersions[i++] = outstandingVersion;
+		}
+		int[] pathLocations = randomPathLocations();
+		OutstandingPath outstandingPath = treeManager.getPath(outstandingTree, pathLocations);
+		return new InFlightAccess(++sequenceNumber, pathLocations, currentOutstandingVersions, outstandingPath);
+	}
+
+	private void finishAccess(InFlightAccess access) {
+		Map<Integer, BucketSnapshot> newBucketSnapshots = new HashMap<>(access.pathLocations.length);
+		for (int pathLocation : access.pathLocations) {
+			byte[][] blocks = new byte[bucketSize][blockSize + CIPHERTEXT_OVERHEAD];
+			newBucketSnapshots.put(pathLocation,
+					new BucketSnapshot(access.versionId, new EncryptedBucket(blocks, pathLocation)));
+		}
+		treeManager.storeBuckets(access.versionId, newBucketSnapshots, access.outstandingPath,
+				access.outstandingVersions, encryptedStash);
+	}
+
+	@Benchmark
+	public OutstandingPath getPath() {
+		return treeManager.getPath(treeManager.getOutstandingTree(), readPathLocations);
+	}
+
+	/**
+	 * Stores the path evicted by the oldest in-flight access and starts a new access, keeping the number of
+	 * outstanding versions constant.
+	 */
+	@Benchmark
+	public void storeBuckets() {
+		finishAccess(inFlightAccesses.pollFirst());
+		inFlightAccesses.addLast(startAccess());
+	}
+
+	@Benchmark
+	public byte[] serializeStashesAndPaths() {
+		byte[] output = new byte[encryptedStashesAndPaths.getSerializedSize()];
+		encryptedStashesAndPaths.writeExternal(output, 0);
+		return output;
+	}
+
+	@Benchmark
+	public EncryptedStashesAndPaths deserializeStashesAndPaths() {
+		EncryptedStashesAndPaths deserialized = new EncryptedStashesAndPaths(oramContext);
+		deserialized.readExternal(serializedStashesAndPaths, 0);
+		return deserialized;
+	}
+}
@@ -0,0 +1,115 @@
+package oram.client;
+
+import oram.benchmark.jmh.ORAMAccessSnapshot;
+import oram.client.structure.Block;
+import oram.client.structure.PathMaps;
+import oram.client.structure.Stash;
+import oram.client.structure.StashesAndPaths;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the client-side steps of an access over the path maps, stashes and paths received while other clients
+ * have outstanding versions. It lives in the client package to reach the steps of ORAMObject.access.
+ * Run with: gradle jmh -PjmhArgs="ClientAccessBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClientAccessBenchmark {
+
+	/**
+	 * Responses received by the reading client.
+	 */
+	@State(Scope.Thread)
+	public static class AccessState {
+		@Param({"17"})
+		private int treeHeight;
+
+		@Param({"4"})
+		private int bucketSize;
+
+		@Param({"8"})
+		private int blockSize;
+
+		@Param({"1", "5", "10"})
+		private int outstandingVersions;
+
+		private ORAMObject client;
+		private PathMaps pathMaps;
+		private StashesAndPaths stashesAndPaths;
+		private int pathId;
+		private int accessedAddress;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			ORAMAccessSnapshot snapshot = ORAMAccessSnapshot.create(treeHeight, bucketSize, blockSize,
+					outstandingVersions, 1);
+			client = snapshot.getReader();
+			pathMaps = snapshot.getEncryptionManager().decryptPositionMaps(snapshot.getPathMapsResponse());
+			stashesAndPaths = snapshot.getEncryptionManager().decryptStashesAndPaths(snapshot.getOramContext(),
+					snapshot.getStashesAndPathsResponse());
+			pathId = snapshot.getPathId();
+			Stash stash = client.mergeStashesAndPaths(stashesAndPaths.getStashes(), stashesAndPaths.getPaths());
+			for (Block block : stash.getBlocks().values()) {
+				accessedAddress = block.getAddress();
+				break;
+			}
+		}
+
+		ORAMObject getClient() {
+			return client;
+		}
+
+		StashesAndPaths getStashesAndPaths() {
+			return stashesAndPaths;
+		}
+
+		int getPathId() {
+			return pathId;
+		}
+
+		int getAccessedAddress() {
+			return accessedAddress;
+		}
+	}
+
+	/**
+	 * Eviction consumes the merged stash, so a new one is prepared before each invocation. It extends the access
+	 * state, instead of depending on it, so that the stash is merged by the same client that evicts it.
+	 */
+	@State(Scope.Thread)
+	public static class EvictionState extends AccessState {
+		private Stash mergedStash;
+
+		@Setup(Level.Invocation)
+		public void prepare() {
+			mergedStash = getClient().mergeStashesAndPaths(getStashesAndPaths().getStashes(),
+					getStashesAndPaths().getPaths());
+		}
+	}
+
+	@Benchmark
+	public void consolidatePathMaps(AccessState accessState) {
+		accessState.client.consolidatePathMaps(accessState.pathMaps);
+	}
+
+	@Benchmark
+	public Stash mergeStashesAndPaths(AccessState accessState) {
+		return accessState.client.mergeStashesAndPaths(accessState.stashesAndPaths.getStashes(),
+				accessState.stashesAndPaths.getPaths());
+	}
+
+	/**
+	 * Reorders the path, encrypts the new stash, path map and path, and serializes the eviction requests.
+	 */
+	@Benchmark
+	public boolean evict(EvictionState evictionState) {
+		ORAMObject client = evictionState.getClient();
+		return client.evict(evictionState.getPathId(), evictionState.getAccessedAddress(),
+				evictionState.mergedStash, client.getPositionMap());
+	}
+}
@@ -23,6 +23,45 @@ import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 public class MeasurementBenchmarkStrategy implements IBenchmarkStrategy, IWorkerStatusListener {
+	/**
+	 * Server measurements saved in the global file with their units. The first ones keep the columns of earlier
+	 * files.
+	 */
+	private static final String[][] SERVER_GLOBAL_COLUMNS = {
+			{"clients", "#"},
+			{"delta", "ns"},
+			{"getPMRequests", "#"},
+			{"getPMAvgLatency", "ns"},
+			{"getPMBandwidth", "Bytes/s"},
+			{"getPSRequests", "#"},
+			{"getPSAvgLatency", "ns"},
+			{"getPSBandwidth", "Bytes/s"},
+			{"evictionRequests", "#"},
+			{"evictionAvgLatency", "ns"},
+			{"evictionBandwidth", "Bytes/s"},
+			{"outstanding", "#"},
+			{"pathMaps", "#"},
+			{"pathMapsBytes", "Bytes"},
+			{"getPMLatency-p50", "ns"},
+			{"getPMLatency-p90", "ns"},
+			{"getPMLatency-p99", "ns"},
+			{"getPMLatency-p999", "ns"},
+			{"getPMLatency-max", "ns"},
+			{"getPSLatency-p50", "ns"},
+			{"getPSLatency-p90", "ns"},
+			{"getPSLatency-p99", "ns"},
+			{"getPSLatency-p999", "ns"},
+			{"getPSLatency-max", "ns"},
+			{"evictionLatency-p50", "ns"},
+			{"evictionLatency-p90", "ns"},
+			{"evictionLatency-p99", "ns"},
+			{"evictionLatency-p999", "ns"},
+			{"evictionLatency-max", "ns"},
+			{"queueDepth", "#"},
+			{"activeClients", "#"},
+			{"concurrencyLimit", "#"},
+			{"pendingEvictions", "#"}
+	};
 	private final Logger logger = LoggerFactory.getLogger("benchmarking");
 	private final Lock lock;
 	private final Condition sleepCondition;
@@ -716,6 +755,8 @@ public class MeasurementBenchmarkStrategy implements IBenchmarkStrategy, IWorker
 		long[] getPSLatencies = serverMeasurements.getMeasurements("getPSAvgLatency");
 		long[] evictionLatencies = serverMeasurements.getMeasurements("evictionAvgLatency");
 		long[] outstanding = serverMeasurements.getMeasurements("outstanding");
+		long[] pathMaps = serverMeasurements.getMeasurements("pathMaps");
+		long[] pathMapsBytes = serverMeasurements.getMeasurements("pathMapsBytes");
 
 		int size = Math.min(clients.length, Math.min(delta.length, Math.min(nGetPMRequests.length,
 				Math.min(nGetPSRequests.length, Math.min(nEvictionRequests.length, Math.min(getPMLatencies.length,
@@ -727,6 +768,12 @@ public class MeasurementBenchmarkStrategy implements IBenchmarkStrategy, IWorker
 		long maxClients = Long.MIN_VALUE;
 		long minOutstanding = Long.MAX_VALUE;
 		long maxOutstanding = Long.MIN_VALUE;
+		long maxPathMaps = Long.MIN_VALUE;
+		long maxPathMapsBytes = Long.MIN_VALUE;
+		for (int i = 0; i < Math.min(pathMaps.length, pathMapsBytes.length); i++) {
+			maxPathMaps = Long.max(maxPathMaps, pathMaps[i]);
+			maxPathMapsBytes = Long.max(maxPathMapsBytes, pathMapsBytes[i]);
+		}
 		for (int i = 0; i < size; i++) {
 			minClients = Long.min(minClients, clients[i]);
 			maxClients = Long.max(maxClients, clients[i]);
@@ -749,6 +796,7 @@ public class MeasurementBenchmarkStrategy implements IBenchmarkStrategy, IWorker
 		String sb = String.format("Server-side measurements [%d samples]:\n", evictionThroughput.length) +
 				String.format("\tClients[#]: min:%d max:%d\n", minClients, maxClients) +
 				String.format("\tOutstanding trees[#]: min:%d max:%d\n", minOutstanding, maxOutstanding) +
+				String.format("\tRetained path maps[#]: max:%d (%d bytes)\n", maxPathMaps, maxPathMapsBytes) +
 				String.format("\tGet PM[ops/s]: avg:%.3f dev:%.3f max: %d\n",
 						getPMThroughputStorage.getAverage(true), getPMThroughputStorage.getDP(true),
 						getPMThroughputStorage.getMax(true)) +
@@ -826,50 +874,37 @@ public class MeasurementBenchmarkStrategy implements IBenchmarkStrategy, IWorker
 
 	private void saveServerMeasurements(Map<String, long[]> measurements) {
 		String fileName = storageFileNamePrefix + "server_global.csv";
-		String header = "";
-		PrimitiveIterator.OfLong[] iterators = new PrimitiveIterator.OfLong[measurements.size()];
-
-		header += "clients[#]";
-		iterators[0] = Arrays.stream(measurements.get("clients")).iterator();
-
-		header += ",delta[ns]";
-		iterators[1] = Arrays.stream(measurements.get("delta")).iterator();
-
-		header += ",getPMRequests[#]";
-		iterators[2] = Arrays.stream(measurements.get("getPMRequests")).iterator();
-
-		header += ",getPMAvgLatency[ns]";
-		iterators[3] = Arrays.stream(measurements.get("getPMAvgLatency")).iterator();
-
-		header += ",getPMBandwidth[Bytes/s]";
-		iterators[4] = Arrays.stream(measurements.get("getPMBandwidth")).iterator();
-
-		header += ",getPSRequests[#]";
-		iterators[5] = Arrays.stream(measurements.get("getPSRequests")).iterator();
-
-		header += ",getPSAvgLatency[ns]";
-		iterators[6] = Arrays.stream(measurements.get("getPSAvgLatency")).iterator();
-
-		header += ",getPSBandwidth[Bytes/s]";
-		iterators[7] = Arrays.stream(measurements.get("getPSBandwidth")).iterator();
-
-		header += ",evictionRequests[#]";
-		iterators[8] = Arrays.stream(measurements.get("evictionRequests")).iterator();
-
-		header += ",evictionAvgLatency[ns]";
-		iterators[9] = Arrays.stream(measurements.get("evictionAvgLatency")).iterator();
-
-		header += ",evictionBandwidth[Bytes/s]";
-		iterators[10] = Arrays.stream(measurements.get("evictionBandwidth")).iterator();
+		saveServerMeasurements(Paths.get(rawDataDir.getPath(), fileName), measurements);
+	}
 
-		header += ",outstanding[#]";
-		iterators[11] = Arrays.stream(measurements.get("outstanding")).iterator();
+	/**
+	 * Saves the server measurements reported every interval, one row per interval, in the order of
+	 * SERVER_GLOBAL_COLUMNS. Measurements missing from older servers are left out, as are the ones not reported every
+	 * interval, e.g., the queue waits of each client group.
+	 */
+	void saveServerMeasurements(Path path, Map<String, long[]> measurements) {
+		StringBuilder header = new StringBuilder();
+		List<PrimitiveIterator.OfLong> iterators = new ArrayList<>(SERVER_GLOBAL_COLUMNS.length);
+		for (String[] column : SERVER_GLOBAL_COLUMNS) {
+			long[] values = measurements.get(column[0]);
+			if (values == null) {
+				continue;
+			}
+			if (header.length() > 0) {
+				header.append(",");
+			}
+			header.append(column[0]).append("[").append(column[1]).append("]");
+			iterators.add(Arrays.stream(values).iterator());
+		}
 
-		saveGlobalMeasurements(fileName, header, iterators);
+		saveGlobalMeasurements(path, header.toString(), iterators.toArray(new PrimitiveIterator.OfLong[0]));
 	}
 
 	private void saveGlobalMeasurements(String fileName, String header, PrimitiveIterator.OfLong[] dataIterators) {
-		Path path = Paths.get(rawDataDir.getPath(), fileName);
+		saveGlobalMeasurements(Paths.get(rawDataDir.getPath(), fileName), header, dataIterators);
+	}
+
+	private void saveGlobalMeasurements(Path path, String header, PrimitiveIterator.OfLong[] dataIterators) {
 		try (BufferedWriter resultFile = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(path)))) {
 			resultFile.write(header + "\n");
 			boolean hasData = true;
@@ -3,6 +3,7 @@ package oram.benchmark;
 import oram.client.ORAMObject;
 import oram.client.manager.ORAMManager;
 import oram.single.client.SingleServerORAMManager;
+import oram.single.client.SingleServiceProxy;
 import oram.utils.ORAMUtils;
 import org.apache.commons.math3.distribution.ZipfDistribution;
 import org.slf4j.Logger;
@@ -35,11 +36,14 @@ public class SingleServerBenchmarkClient {
 		int serverPort = Integer.parseInt(args[8]);
 		boolean measurementLeader = Boolean.parseBoolean(args[9]);
 
+		//All clients share a single connection to the server
+		SingleServiceProxy serviceProxy = new SingleServiceProxy(initialClientId,
+				SingleServerORAMManager.MESSAGE_TYPE, serverIp, serverPort);
 		CountDownLatch latch = new CountDownLatch(nClients);
 		Client[] clients = new Client[nClients];
 		for (int i = 0; i < nClients; i++) {
 			clients[i] = new Client(oramId, initialClientId, initialClientId + i,
-					treeHeight, bucketSize, blockSize, latch, nRequests, serverIp, serverPort, measurementLeader, zipfParameter);
+					treeHeight, bucketSize, blockSize, latch, nRequests, serviceProxy, measurementLeader, zipfParameter);
 			clients[i].start();
 			Thread.sleep(10);
 		}
@@ -50,6 +54,10 @@ public class SingleServerBenchmarkClient {
 		} catch (InterruptedException e) {
 			logger.error("Error while waiting for clients to start", e);
 		}
+		for (Client client : clients) {
+			client.join();
+		}
+		serviceProxy.close();
 	}
 
 	private static class Client extends Thread {
@@ -67,10 +75,10 @@ public class SingleServerBenchmarkClient {
 		private final ZipfDistribution zipfDistribution;
 
 		private Client(int oramId, int initialClientId, int clientId, int treeHeight, int bucketSize, int blockSize,
-					   CountDownLatch latch, int nRequests, String serverIp, int serverPort, boolean measurementLeader,
+					   CountDownLatch latch, int nRequests, SingleServiceProxy serviceProxy, boolean measurementLeader,
 					   double zipfParameter) {
 			this.initialClientId = initialClientId;
-			this.oramManager = new SingleServerORAMManager(clientId, serverIp, serverPort);
+			this.oramManager = new SingleServerORAMManager(clientId, serviceProxy);
 			this.clientId = clientId;
 			this.latch = latch;
 			this.nRequests = nRequests;
@@ -1,6 +1,7 @@
 package oram.benchmark.direct;
 
 import oram.client.structure.*;
+import oram.messages.EvictionORAMMessage;
 import oram.messages.GetPathMaps;
 import oram.security.EncryptionManager;
 import oram.server.ORAM;
@@ -9,6 +10,8 @@ import oram.utils.ORAMContext;
 import oram.utils.ORAMUtils;
 import oram.utils.Operation;
 import org.apache.commons.math3.distribution.UniformIntegerDistribution;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.Well19937c;
 import org.apache.commons.math3.util.FastMath;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,7 +25,7 @@ public class DirectORAMObject {
 	protected final int oramId;
 	protected final ORAMContext oramContext;
 	protected final EncryptionManager encryptionManager;
-	private final SecureRandom rndGenerator;
+	private final Random rndGenerator;
 	private final UniformIntegerDistribution uniformDistribution;
 	private final ORAM oram;
 	private int latestAccess;
@@ -31,25 +34,62 @@ public class DirectORAMObject {
 	private OngoingDirectAccessContext ongoingAccessContext;
 	protected long globalDelayRemoteInvocation;
 	private final int clientId;
+	private int positionMapCheckpointPeriod;
+	private int accessesSinceCheckpoint;
+	private int latestCheckpointVersion;
+	private long transferredBytes;
 
 	public DirectORAMObject(ORAM oram, int oramId, int clientId, EncryptionManager encryptionManager) {
+		this(oram, oramId, clientId, encryptionManager, new SecureRandom(), new Well19937c());
+	}
+
+	/**
+	 * Creates a client whose choices of paths, slots and blocks are reproducible given the seed.
+	 */
+	public DirectORAMObject(ORAM oram, int oramId, int clientId, EncryptionManager encryptionManager, long seed) {
+		this(oram, oramId, clientId, encryptionManager, new Random(seed), new Well19937c(seed));
+	}
+
+	private DirectORAMObject(ORAM oram, int oramId, int clientId, EncryptionManager encryptionManager,
+							 Random rndGenerator, RandomGenerator slotGenerator) {
 		this.oram = oram;
 		this.oramId = oramId;
 		this.clientId = clientId;
 		this.oramContext = oram.getOramContext();
 		this.encryptionManager = encryptionManager;
-		this.rndGenerator = new SecureRandom();
+		this.rndGenerator = rndGenerator;
 		this.positionMap = new PositionMap(oramContext.getTreeSize());
 		this.latestAccess = 0; //server stores the initial position map and stash with version 1
 		this.missingTriples = new HashSet<>();
+		this.latestCheckpointVersion = ORAMUtils.DUMMY_VERSION;
+		this.positionMapCheckpointPeriod = ORAMUtils.computeDefaultPositionMapCheckpointPeriod(oramContext);
 		int pathCapacity = oramContext.getTreeLevels() * oramContext.getBucketSize();
-		this.uniformDistribution = new UniformIntegerDistribution(0, pathCapacity - 1);// -1 because upper bound is inclusive
+		this.uniformDistribution = new UniformIntegerDistribution(slotGenerator, 0, pathCapacity - 1);// -1 because upper bound is inclusive
+	}
+
+	/**
+	 * Sets how often this client stores its consolidated position map as a checkpoint. The default period is given
+	 * by ORAMUtils.computeDefaultPositionMapCheckpointPeriod.
+	 *
+	 * @param positionMapCheckpointPeriod Number of accesses between checkpoints (0 disables checkpoints).
+	 */
+	public void setPositionMapCheckpointPeriod(int positionMapCheckpointPeriod) {
+		this.positionMapCheckpointPeriod = positionMapCheckpointPeriod;
 	}
 
 	public OngoingDirectAccessContext getOngoingAccessContext() {
 		return ongoingAccessContext;
 	}
 
+	/**
+	 * Returns the number of bytes this client would have exchanged with the server over the network, i.e., the
+	 * serialized size of the path maps, stashes and paths it received and of the eviction payloads and position map
+	 * checkpoints it sent.
+	 */
+	public long getTransferredBytes() {
+		return transferredBytes;
+	}
+
 	/**
 	 * Read the memory address.
 	 *
@@ -138,40 +178,53 @@ public class DirectORAMObject {
 			throw new IllegalStateException("Failed to do eviction");
 		}
 
+		if (positionMapCheckpointPeriod > 0 && ++accessesSinceCheckpoint >= positionMapCheckpointPeriod) {
+			accessesSinceCheckpoint = 0;
+			storePositionMapCheckpoint();
+		}
+
 		return ongoingAccessContext.getOldData();
 	}
 
+	private void storePositionMapCheckpoint() {
+		int checkpointVersion = PathMaps.computeCheckpointVersion(latestAccess, missingTriples);
+		if (checkpointVersion <= latestCheckpointVersion) {
+			return;
+		}
+		EncryptedPositionMap encryptedPositionMap = encryptionManager.encryptPositionMap(positionMap);
+		transferredBytes += encryptedPositionMap.getSerializedSize();
+		if (oram.storePositionMapCheckpoint(clientId, checkpointVersion, encryptedPositionMap)) {
+			latestCheckpointVersion = checkpointVersion;
+		}
+	}
+
 	private PathMaps getPathMaps() {
 		GetPathMaps request = new GetPathMaps(oramId, latestAccess, missingTriples);
 		EncryptedPathMaps encryptedPathMaps = oram.getPositionMaps(clientId, request);
+		transferredBytes += encryptedPathMaps.getSerializedSize();
 		return encryptionManager.decryptPositionMaps(encryptedPathMaps);
 	}
 
 	private void consolidatePathMaps(PathMaps recentPathMaps) {
+		latestAccess = recentPathMaps.mergePositionMapCheckpoint(positionMap, missingTriples, latestAccess);
+
 		Map<Integer, PathMap> pathMaps = recentPathMaps.getPathMaps();
 		int nReceivedPathMapLocations = 0;
-		int maxReceivedSequenceNumber = ORAMUtils.DUMMY_VERSION;
+		int maxReceivedSequenceNumber = latestAccess;
 		for (Map.Entry<Integer, PathMap> entry : pathMaps.entrySet()) {
 			int updateVersion = entry.getKey();
 			maxReceivedSequenceNumber = Math.max(maxReceivedSequenceNumber, updateVersion);
 			missingTriples.remove(updateVersion);
 
 			PathMap currentPathMap = entry.getValue();
-			nReceivedPathMapLocations += currentPathMap.getStoredAddresses().size();
-			for (int updatedAddress : currentPathMap.getStoredAddresses()) {
-				int pathMapLocation = currentPathMap.getLocation(updatedAddress);
-				int pathMapVersion = currentPathMap.getVersion(updatedAddress);
-				int pathMapAccess = currentPathMap.getAccess(updatedAddress);
-				int positionMapVersion = positionMap.getVersion(updatedAddress);
-				int positionMapAccess = positionMap.getAccess(updatedAddress);
-				int positionMapLocationUpdateAccess = positionMap.getLocationUpdateAccess(updatedAddress);
-				if (pathMapVersion > positionMapVersion ||
-						(pathMapVersion == positionMapVersion && pathMapAccess > positionMapAccess)
-						|| (pathMapVersion == positionMapVersion && pathMapAccess == positionMapAccess
-						&& updateVersion > positionMapLocationUpdateAccess)) {
-					positionMap.update(updatedAddress, pathMapLocation, pathMapVersion,
-							pathMapAccess, updateVersion);
-				}
+			nReceivedPathMapLocations += currentPathMap.size();
+			for (int i = 0; i < currentPathMap.size(); i++) {
+				int updatedAddress = currentPathMap.getAddressAt(i);
+				int pathMapLocation = currentPathMap.getLocationAt(i);
+				int pathMapVersion = currentPathMap.getVersionAt(i);
+				int pathMapAccess = currentPathMap.getAccessAt(i);
+				positionMap.updateIfMoreRecent(updatedAddress, pathMapLocation, pathMapVersion, pathMapAccess,
+						updateVersion);
 			}
 		}
 
@@ -219,6 +272,7 @@ public class DirectORAMObject {
 
 	private StashesAndPaths getStashesAndPaths(int pathId) {
 		EncryptedStashesAndPaths encryptedStashesAndPaths = oram.getStashesAndPaths(pathId, clientId);
+		transferredBytes += encryptedStashesAndPaths.getSerializedSize();
 		return encryptionManager.decryptStashesAndPaths(oramContext, encryptedStashesAndPaths);
 	}
 
@@ -352,7 +406,7 @@ public class DirectORAMObject {
 			}
 		});
 
-		measurementLogger.info("M-sentPMLocations: {}", pathMap.getStoredAddresses().size());
+		measurementLogger.info("M-sentPMLocations: {}", pathMap.size());
 		ongoingAccessContext.setNewStash(newStash);
 
 		EncryptedStash encryptedStash = encryptionManager.encryptStash(newStash);
@@ -481,6 +535,8 @@ public class DirectORAMObject {
 
 	private boolean sendEvictionRequest(EncryptedStash encryptedStash, EncryptedPathMap encryptedPathMap,
 										Map<Integer, EncryptedBucket> encryptedPath) {
+		transferredBytes += new EvictionORAMMessage(oramId, encryptedStash, encryptedPathMap, encryptedPath)
+				.getSerializedSize();
 		return oram.performEviction(encryptedStash, encryptedPathMap, encryptedPath, clientId);
 	}
 
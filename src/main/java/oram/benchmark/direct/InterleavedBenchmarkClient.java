@@ -0,0 +1,240 @@
+package oram.benchmark.direct;
+
+import oram.client.structure.PathMap;
+import oram.client.structure.Stash;
+import oram.security.EncryptionManager;
+import oram.server.ORAM;
+import oram.server.structure.EncryptedPathMap;
+import oram.server.structure.EncryptedStash;
+import oram.utils.EncryptionGranularity;
+import oram.utils.ORAMUtils;
+import oram.utils.Operation;
+import org.apache.commons.math3.distribution.ZipfDistribution;
+import org.apache.commons.math3.random.Well19937c;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Runs several logical clients against a single ORAM in the same process, interleaving the steps of their accesses
+ * according to a schedule. There is neither replication nor network, so the results show the scaling limit of the
+ * multi-version tree itself. All random choices derive from the seed, so a run can be repeated.
+ */
+public class InterleavedBenchmarkClient {
+	private final static Logger logger = LoggerFactory.getLogger("benchmarking");
+	private final int nAccessesPerClient;
+	private final int blockSize;
+	private final InterleavingSchedule schedule;
+	private final Random rndGenerator;
+	private final ZipfDistribution zipfDistribution;
+	private final ORAM oram;
+	private final DirectORAMObject[] clients;
+	private final boolean[] isAccessing;
+	private final boolean[] isWrite;
+	private final int[] addresses;
+	private final boolean[] expectsData;
+	private final int[] nCompletedAccesses;
+	private final Set<Integer> writtenAddresses;
+	private long nSteps;
+	private long outstandingTreesSum;
+	private int maxOutstandingTrees;
+	private long locationVersionsSum;
+	private int maxLocationVersions;
+	private long outstandingVersionsSum;
+	private int maxOutstandingVersions;
+	private long stashSizeSum;
+	private int maxStashSize;
+
+	public InterleavedBenchmarkClient(int nClients, int nAccessesPerClient, int treeHeight, int bucketSize,
+									  int blockSize, double zipfParameter, InterleavingSchedule schedule, long seed,
+									  EncryptionGranularity encryptionGranularity) {
+		this.nAccessesPerClient = nAccessesPerClient;
+		this.blockSize = blockSize;
+		this.schedule = schedule;
+		this.rndGenerator = new Random(seed);
+		int treeSize = ORAMUtils.computeNumberOfNodes(treeHeight);
+		this.zipfDistribution = new ZipfDistribution(new Well19937c(seed), treeSize, zipfParameter);
+
+		EncryptionManager encryptionManager = new EncryptionManager();
+		encryptionManager.createSecretKey("DirectBenchmarkPassword");
+		EncryptedPathMap initialPathMap = encryptionManager.encryptPathMap(new PathMap(1));
+		EncryptedStash initialStash = encryptionManager.encryptStash(new Stash(blockSize));
+		int oramId = 0;
+		this.oram = new ORAM(oramId, treeHeight, bucketSize, blockSize, encryptionGranularity, initialPathMap,
+				initialStash);
+
+		this.clients = new DirectORAMObject[nClients];
+		for (int i = 0; i < nClients; i++) {
+			clients[i] = new DirectORAMObject(oram, oramId, i, encryptionManager, seed + i + 1);
+		}
+		this.isAccessing = new boolean[nClients];
+		this.isWrite = new boolean[nClients];
+		this.addresses = new int[nClients];
+		this.expectsData = new boolean[nClients];
+		this.nCompletedAccesses = new int[nClients];
+		this.writtenAddresses = new HashSet<>(treeSize);
+	}
+
+	public static void main(String[] args) {
+		if (args.length != 8 && args.length != 9) {
+			System.out.println("Usage: ... oram.benchmark.direct.InterleavedBenchmarkClient <nClients> " +
+					"<nAccessesPerClient> <treeHeight> <bucketSize> <blockSize> <zipf parameter> " +
+					"<round_robin|random|max_concurrency> <seed> [block|bucket encryption]");
+			System.exit(-1);
+		}
+
+		int nClients = Integer.parseInt(args[0]);
+		int nAccessesPerClient = Integer.parseInt(args[1]);
+		int treeHeight = Integer.parseInt(args[2]);
+		int bucketSize = Integer.parseInt(args[3]);
+		int blockSize = Integer.parseInt(args[4]);
+		double zipfParameter = Double.parseDouble(args[5]);
+		InterleavingSchedule schedule = InterleavingSchedule.valueOf(args[6].toUpperCase());
+		long seed = Long.parseLong(args[7]);
+		EncryptionGranularity encryptionGranularity = args.length == 9
+				? EncryptionGranularity.valueOf(args[8].toUpperCase()) : EncryptionGranularity.BLOCK;
+
+		InterleavedBenchmarkClient benchmarkClient = new InterleavedBenchmarkClient(nClients, nAccessesPerClient,
+				treeHeight, bucketSize, blockSize, zipfParameter, schedule, seed, encryptionGranularity);
+		logger.info("Executing experiment with {} clients, {} accesses per client, height {}, bucket size {}, " +
+				"block size {}, zipf {}, {} schedule and {} encryption", nClients, nAccessesPerClient, treeHeight,
+				bucketSize, blockSize, zipfParameter, schedule, encryptionGranularity);
+		benchmarkClient.run();
+	}
+
+	public void run() {
+		long start = System.nanoTime();
+		switch (schedule) {
+			case ROUND_ROBIN:
+				runRoundRobin();
+				break;
+			case RANDOM:
+				runRandom();
+				break;
+			case MAX_CONCURRENCY:
+				runMaxConcurrency();
+				break;
+		}
+		long end = System.nanoTime();
+		report(end - start);
+	}
+
+	private void runRoundRobin() {
+		for (int i = 0; i < clients.length; i++) {
+			startAccess(i);
+		}
+		boolean hasPendingAccesses = true;
+		while (hasPendingAccesses) {
+			hasPendingAccesses = false;
+			for (int i = 0; i < clients.length; i++) {
+				if (!isAccessing[i]) {
+					continue;
+				}
+				finishAccess(i);
+				if (nCompletedAccesses[i] < nAccessesPerClient) {
+					startAccess(i);
+					hasPendingAccesses = true;
+				}
+			}
+		}
+	}
+
+	private void runRandom() {
+		int nPendingClients = clients.length;
+		while (nPendingClients > 0) {
+			int i = rndGenerator.nextInt(clients.length);
+			if (isAccessing[i]) {
+				finishAccess(i);
+				if (nCompletedAccesses[i] == nAccessesPerClient) {
+					nPendingClients--;
+				}
+			} else if (nCompletedAccesses[i] < nAccessesPerClient) {
+				startAccess(i);
+			}
+		}
+	}
+
+	private void runMaxConcurrency() {
+		for (int a = 0; a < nAccessesPerClient; a++) {
+			for (int i = 0; i < clients.length; i++) {
+				startAccess(i);
+			}
+			for (int i = 0; i < clients.length; i++) {
+				finishAccess(i);
+			}
+		}
+	}
+
+	private void startAccess(int clientIndex) {
+		int address = zipfDistribution.sample() - 1;
+		boolean write = rndGenerator.nextBoolean();
+		addresses[clientIndex] = address;
+		isWrite[clientIndex] = write;
+		expectsData[clientIndex] = writtenAddresses.contains(address);
+		isAccessing[clientIndex] = true;
+		if (write) {
+			byte[] data = new byte[blockSize];
+			rndGenerator.nextBytes(data);
+			clients[clientIndex].accessStepOneAndTwo(Operation.WRITE, address, data);
+		} else {
+			clients[clientIndex].accessStepOneAndTwo(Operation.READ, address, null);
+		}
+		recordStep();
+	}
+
+	private void finishAccess(int clientIndex) {
+		DirectORAMObject client = clients[clientIndex];
+		byte[] oldData = client.accessStepThree();
+		if (expectsData[clientIndex] && oldData == null) {
+			throw new IllegalStateException("Received null data from accessStepThree for address "
+					+ addresses[clientIndex]);
+		}
+		if (isWrite[clientIndex]) {
+			writtenAddresses.add(addresses[clientIndex]);
+		}
+		isAccessing[clientIndex] = false;
+		nCompletedAccesses[clientIndex]++;
+
+		int stashSize = client.getOngoingAccessContext().getNewStash().size();
+		stashSizeSum += stashSize;
+		maxStashSize = Math.max(maxStashSize, stashSize);
+		recordStep();
+	}
+
+	private void recordStep() {
+		int nOutstandingTrees = oram.getNOutstandingTreeVersions();
+		outstandingTreesSum += nOutstandingTrees;
+		maxOutstandingTrees = Math.max(maxOutstandingTrees, nOutstandingTrees);
+		int nLocationVersions = oram.getNLocationVersions();
+		locationVersionsSum += nLocationVersions;
+		maxLocationVersions = Math.max(maxLocationVersions, nLocationVersions);
+		int nOutstandingVersions = oram.getNOutstandingVersions();
+		outstandingVersionsSum += nOutstandingVersions;
+		maxOutstandingVersions = Math.max(maxOutstandingVersions, nOutstandingVersions);
+		nSteps++;
+	}
+
+	private void report(long elapsedNanos) {
+		long nAccesses = (long) nAccessesPerClient * clients.length;
+		long transferredBytes = 0;
+		for (DirectORAMObject client : clients) {
+			transferredBytes += client.getTransferredBytes();
+		}
+		double elapsedSeconds = elapsedNanos / 1_000_000_000.0;
+		logger.info("Took {} s to run {} accesses with {} clients ({} schedule)", elapsedSeconds, nAccesses,
+				clients.length, schedule);
+		logger.info("Throughput: {} ops/s", String.format("%.2f", nAccesses / elapsedSeconds));
+		logger.info("Outstanding tree versions: avg {} max {}",
+				String.format("%.2f", (double) outstandingTreesSum / nSteps), maxOutstandingTrees);
+		logger.info("Location versions: avg {} max {}",
+				String.format("%.2f", (double) locationVersionsSum / nSteps), maxLocationVersions);
+		logger.info("Outstanding versions: avg {} max {}",
+				String.format("%.2f", (double) outstandingVersionsSum / nSteps), maxOutstandingVersions);
+		logger.info("Stash size: avg {} max {}", String.format("%.2f", (double) stashSizeSum / nAccesses),
+				maxStashSize);
+		logger.info("Bytes transferred per op: {}", transferredBytes / nAccesses);
+	}
+}
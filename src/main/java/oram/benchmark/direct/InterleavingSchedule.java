@@ -0,0 +1,21 @@
+package oram.benchmark.direct;
+
+/**
+ * Order in which the logical clients of an InterleavedBenchmarkClient execute the steps of their accesses.
+ */
+public enum InterleavingSchedule {
+	/**
+	 * Clients take turns in a fixed order. In each turn, a client finishes its access and starts the next one, so
+	 * every access overlaps with one access of each other client.
+	 */
+	ROUND_ROBIN,
+	/**
+	 * A randomly selected client executes the next step of its access, i.e., either starts or finishes it.
+	 */
+	RANDOM,
+	/**
+	 * All clients start their accesses before any of them finishes, so that every access is concurrent with the
+	 * accesses of all other clients and none sees the evictions of the others.
+	 */
+	MAX_CONCURRENCY
+}
@@ -5,16 +5,20 @@ import oram.messages.*;
 import oram.security.EncryptionManager;
 import oram.server.structure.EncryptedBucket;
 import oram.server.structure.EncryptedPathMap;
+import oram.server.structure.EncryptedPositionMap;
 import oram.server.structure.EncryptedStash;
 import oram.utils.*;
 import org.apache.commons.math3.distribution.UniformIntegerDistribution;
-import org.apache.commons.math3.util.FastMath;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import vss.facade.SecretSharingException;
 
 import java.security.SecureRandom;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 
 public class ORAMObject {
 	protected final Logger logger = LoggerFactory.getLogger("oram");
@@ -25,12 +29,18 @@ public class ORAMObject {
 	protected final EncryptionManager encryptionManager;
 	private final SecureRandom rndGenerator;
 	private final UniformIntegerDistribution uniformDistribution;
+	private final int pathCapacity;
 	private int latestAccess;
 	private final Set<Integer> missingTriples;
 	private final PositionMap positionMap;
 	private OngoingAccessContext ongoingAccessContext;
 	protected long globalDelayRemoteInvocation;
 	private final int clientId;
+	private int positionMapCheckpointPeriod;
+	private int accessesSinceCheckpoint;
+	private int latestCheckpointVersion;
+	private Executor callbackExecutor;
+	private CompletableFuture<byte[]> lastAsyncAccess;
 
 	public ORAMObject(ORAMServiceProxy serviceProxy, int oramId, ORAMContext oramContext,
 					  EncryptionManager encryptionManager) {
@@ -43,10 +53,33 @@ public class ORAMObject {
 		this.positionMap = new PositionMap(oramContext.getTreeSize());
 		this.latestAccess = 0; //server stores the initial position map and stash with version 1
 		this.missingTriples = new HashSet<>();
-		int pathCapacity = oramContext.getTreeLevels() * oramContext.getBucketSize();
+		this.latestCheckpointVersion = ORAMUtils.DUMMY_VERSION;
+		this.positionMapCheckpointPeriod = ORAMUtils.computeDefaultPositionMapCheckpointPeriod(oramContext);
+		this.callbackExecutor = ForkJoinPool.commonPool();
+		this.lastAsyncAccess = CompletableFuture.completedFuture(null);
+		this.pathCapacity = oramContext.getTreeLevels() * oramContext.getBucketSize();
 		this.uniformDistribution = new UniformIntegerDistribution(0, pathCapacity - 1);// -1 because upper bound is inclusive
 	}
 
+	/**
+	 * Sets how often this client uploads its consolidated position map as a checkpoint, allowing servers to discard
+	 * the path maps it covers. The default period is given by ORAMUtils.computeDefaultPositionMapCheckpointPeriod.
+	 *
+	 * @param positionMapCheckpointPeriod Number of accesses between checkpoints (0 disables checkpoints).
+	 */
+	public void setPositionMapCheckpointPeriod(int positionMapCheckpointPeriod) {
+		this.positionMapCheckpointPeriod = positionMapCheckpointPeriod;
+	}
+
+	/**
+	 * Sets the executor running the steps of asynchronous accesses once their responses arrive, which decrypt the
+	 * received data and encrypt the eviction payload, and starting each asynchronous access. Defaults to the common
+	 * fork-join pool.
+	 */
+	public void setCallbackExecutor(Executor callbackExecutor) {
+		this.callbackExecutor = callbackExecutor;
+	}
+
 	/**
 	 * Read the memory address.
 	 *
@@ -56,7 +89,7 @@ public class ORAMObject {
 	public byte[] readMemory(int address) {
 		if (address < 0 || oramContext.getTreeSize() <= address)
 			return null;
-		return access(Operation.READ, address, null);
+		return join(access(Operation.READ, address, null, false));
 	}
 
 	/**
@@ -69,21 +102,138 @@ public class ORAMObject {
 	public byte[] writeMemory(int address, byte[] content) {
 		if (address < 0 || oramContext.getTreeSize() <= address)
 			return null;
-		return access(Operation.WRITE, address, content);
+		return join(access(Operation.WRITE, address, content, false));
 	}
 
-	private byte[] access(Operation op, int address, byte[] newContent) {
-		reset();
-		ongoingAccessContext = new OngoingAccessContext();
+	/**
+	 * Read the memory addresses in a single access, i.e., with one request for the path maps, one for the union of
+	 * the paths containing the addresses, and one eviction of that union.
+	 *
+	 * @param addresses Memory addresses.
+	 * @return Contents located at the memory addresses, in the same order.
+	 */
+	public byte[][] readMemory(int[] addresses) {
+		if (!areValidAddresses(addresses))
+			return null;
+		return join(access(Operation.READ, addresses, new byte[addresses.length][], false));
+	}
 
-		//Reading path maps and obtaining a sequence/version number
-		long start, end, delay;
-		start = System.nanoTime();
-		PathMaps pathMapsHistory = getPathMaps();
-		if (pathMapsHistory == null) {
-			logger.error("Position map of oram {} is null", oramId);
+	/**
+	 * Write contents to the memory addresses in a single access, as in readMemory(int[]). Contents written to the
+	 * same address are written in order.
+	 *
+	 * @param addresses Memory addresses.
+	 * @param contents Contents to write, in the same order as the addresses.
+	 * @return Old contents located at the memory addresses, in the same order.
+	 */
+	public byte[][] writeMemory(int[] addresses, byte[][] contents) {
+		if (!areValidAddresses(addresses) || addresses.length != contents.length)
 			return null;
+		return join(access(Operation.WRITE, addresses, contents, false));
+	}
+
+	private boolean areValidAddresses(int[] addresses) {
+		if (addresses.length == 0)
+			return false;
+		for (int address : addresses) {
+			if (address < 0 || oramContext.getTreeSize() <= address)
+				return false;
 		}
+		return true;
+	}
+
+	/**
+	 * Read the memory address without blocking the caller. This object performs one access at a time, so the access
+	 * starts once the asynchronous accesses issued before it complete. Must not be mixed with concurrent synchronous
+	 * accesses.
+	 *
+	 * @param address Memory address.
+	 * @return Future completed with the content located at the memory address.
+	 */
+	public CompletableFuture<byte[]> readMemoryAsync(int address) {
+		if (address < 0 || oramContext.getTreeSize() <= address)
+			return CompletableFuture.completedFuture(null);
+		return enqueueAccess(Operation.READ, address, null);
+	}
+
+	/**
+	 * Write content to the memory address without blocking the caller, with the same ordering as readMemoryAsync.
+	 *
+	 * @param address Memory address.
+	 * @param content Content to write.
+	 * @return Future completed with the old content located at the memory address.
+	 */
+	public CompletableFuture<byte[]> writeMemoryAsync(int address, byte[] content) {
+		if (address < 0 || oramContext.getTreeSize() <= address)
+			return CompletableFuture.completedFuture(null);
+		return enqueueAccess(Operation.WRITE, address, content);
+	}
+
+	/**
+	 * Chains the access after the previous one. The access starts in the callback executor, never in the caller,
+	 * as proxies without asynchronous operations block until it ends.
+	 */
+	private CompletableFuture<byte[]> enqueueAccess(Operation op, int address, byte[] newContent) {
+		CompletableFuture<byte[]> accessFuture;
+		synchronized (this) {
+			//Failures of previous accesses are reported through their own futures
+			accessFuture = lastAsyncAccess.handle((oldData, failure) -> null)
+					.thenComposeAsync(ignored -> access(op, address, newContent, true), callbackExecutor);
+			lastAsyncAccess = accessFuture;
+		}
+		return accessFuture;
+	}
+
+	/**
+	 * Returns the result of a synchronous access, whose future is already completed, rethrowing its failure.
+	 */
+	private static <T> T join(CompletableFuture<T> future) {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw e;
+		}
+	}
+
+	private CompletableFuture<byte[]> access(Operation op, int address, byte[] newContent, boolean async) {
+		return access(op, new int[]{address}, new byte[][]{newContent}, async)
+				.thenApply(oldData -> oldData == null ? null : oldData[0]);
+	}
+
+	/**
+	 * Performs the access as a sequence of steps, each started once the response to the previous one arrives. When
+	 * not asynchronous, the service proxy is invoked in the calling thread and the returned future is already
+	 * completed.
+	 */
+	private CompletableFuture<byte[][]> access(Operation op, int[] addresses, byte[][] newContents, boolean async) {
+		reset();
+		ongoingAccessContext = new OngoingAccessContext(addresses.length);
+
+		//Reading path maps and obtaining a sequence/version number
+		long start = System.nanoTime();
+		return getPathMaps(async).thenCompose(pathMapsHistory -> {
+			if (pathMapsHistory == null) {
+				logger.error("Position map of oram {} is null", oramId);
+				return CompletableFuture.completedFuture(null);
+			}
+			int[] pathIds = locateAddresses(addresses, pathMapsHistory, start);
+			long pathStart = System.nanoTime();
+			return getStashesAndPaths(pathIds, async).thenCompose(stashesAndPaths ->
+					accessAndEvict(op, addresses, newContents, pathIds, stashesAndPaths, pathStart, async));
+		});
+	}
+
+	/**
+	 * Consolidates the received path maps and chooses the path to access for each address.
+	 */
+	private int[] locateAddresses(int[] addresses, PathMaps pathMapsHistory, long start) {
 		int opSequence = pathMapsHistory.getOperationSequence();
 
 		ongoingAccessContext.setOperationSequence(opSequence);
@@ -92,60 +242,121 @@ public class ORAMObject {
 		//Merging path maps to build tree map
 		consolidatePathMaps(pathMapsHistory);
 
-		end = System.nanoTime();
-		delay = end - start;
+		long end = System.nanoTime();
+		long delay = end - start;
 
 		measurementLogger.info("M-receivedPM: {}", pathMapsHistory.getPathMaps().size());
 		measurementLogger.info("M-map: {}", delay);
 
-		//Translating address into bucket id
-		int slot = positionMap.getLocation(address);
-		int bucketId;
-		if (slot == ORAMUtils.DUMMY_LOCATION) {
-			bucketId = ORAMUtils.DUMMY_LOCATION;
-		} else if (slot == ORAMUtils.BLOCK_IN_STASH) {
-			bucketId = ORAMUtils.BLOCK_IN_STASH;
-		} else {
-			bucketId = (int) Math.floor((double) slot / oramContext.getBucketSize());
-		}
-		logger.debug("Address {} is located at slot {}", address, slot);
-		ongoingAccessContext.setAccessedAddressBucket(bucketId);
+		int[] pathIds = new int[addresses.length];
+		for (int i = 0; i < addresses.length; i++) {
+			int address = addresses[i];
+			//Translating address into bucket id
+			int slot = positionMap.getLocation(address);
+			int bucketId;
+			if (slot == ORAMUtils.DUMMY_LOCATION) {
+				bucketId = ORAMUtils.DUMMY_LOCATION;
+			} else if (slot == ORAMUtils.BLOCK_IN_STASH) {
+				bucketId = ORAMUtils.BLOCK_IN_STASH;
+			} else {
+				bucketId = (int) Math.floor((double) slot / oramContext.getBucketSize());
+			}
+			logger.debug("Address {} is located at slot {}", address, slot);
+			ongoingAccessContext.setAccessedAddressBucket(i, bucketId);
+			ongoingAccessContext.setIsRealAccess(i, bucketId != ORAMUtils.DUMMY_LOCATION);
 
-		//Extending bucket id to a path that include that bucket
-		int pathId = getPathId(bucketId);
-		ongoingAccessContext.setAccessedPathId(pathId);
+			//Extending bucket id to a path that include that bucket
+			int pathId = getPathId(bucketId);
+			ongoingAccessContext.setAccessedPathId(i, pathId);
+			pathIds[i] = pathId;
 
-		logger.debug("Getting bucket {} (path {}) for address {} (WV: {}, AV: {})", bucketId, pathId, address,
-				positionMap.getVersion(address), positionMap.getAccess(address));
+			logger.debug("Getting bucket {} (path {}) for address {} (WV: {}, AV: {})", bucketId, pathId, address,
+					positionMap.getVersion(address), positionMap.getAccess(address));
+		}
+		return pathIds;
+	}
 
-		start = System.nanoTime();
-		StashesAndPaths stashesAndPaths = getStashesAndPaths(pathId);
+	private CompletableFuture<byte[][]> accessAndEvict(Operation op, int[] addresses, byte[][] newContents,
+													   int[] pathIds, StashesAndPaths stashesAndPaths, long start,
+													   boolean async) {
 		if (stashesAndPaths == null) {
 			logger.error("States and paths of oram {} are null", oramId);
-			return null;
+			return CompletableFuture.completedFuture(null);
 		}
 
 		Stash mergedStash = mergeStashesAndPaths(stashesAndPaths.getStashes(), stashesAndPaths.getPaths());
-		end = System.nanoTime();
-		delay = end - start;
+		long end = System.nanoTime();
+		long delay = end - start;
 
 		measurementLogger.info("M-ps: {}", delay);
 
-		byte[] oldData = accessBlockAndPerformOperation(address, op, opSequence, newContent, mergedStash);
+		byte[][] oldData = new byte[addresses.length][];
+		for (int i = 0; i < addresses.length; i++) {
+			oldData[i] = accessBlockAndPerformOperation(addresses[i], op, ongoingAccessContext.getOperationSequence(),
+					newContents[i], mergedStash, ongoingAccessContext.isRealAccess(i));
+		}
 
-		start = System.nanoTime();
-		boolean isEvicted = evict(pathId, address, mergedStash, positionMap);
-		end = System.nanoTime();
-		delay = end - start;
+		long evictionStart = System.nanoTime();
+		return evict(pathIds, addresses, mergedStash, positionMap, async).thenCompose(isEvicted -> {
+			long evictionDelay = System.nanoTime() - evictionStart;
 
-		//logger.info("[Client {}] {}", serviceProxy.getProcessId(), debugTracer);
-		measurementLogger.info("M-eviction: {}", delay);
-		measurementLogger.info("M-serviceCall: {}", globalDelayRemoteInvocation);
-		if (!isEvicted) {
-			logger.error("Failed to do eviction on oram {}", oramId);
+			//logger.info("[Client {}] {}", serviceProxy.getProcessId(), debugTracer);
+			measurementLogger.info("M-eviction: {}", evictionDelay);
+			measurementLogger.info("M-serviceCall: {}", globalDelayRemoteInvocation);
+			if (!isEvicted) {
+				logger.error("Failed to do eviction on oram {}", oramId);
+			}
+
+			if (positionMapCheckpointPeriod > 0 && ++accessesSinceCheckpoint >= positionMapCheckpointPeriod) {
+				accessesSinceCheckpoint = 0;
+				return uploadPositionMapCheckpoint(async).thenApply(ignored -> oldData);
+			}
+			return CompletableFuture.completedFuture(oldData);
+		});
+	}
+
+	/**
+	 * Sends the request through the service proxy. Asynchronous responses are handed to the callback executor, so
+	 * that the following steps do not run in the threads receiving responses.
+	 */
+	private CompletableFuture<byte[]> invoke(byte[] request, Function<byte[], byte[]> call,
+											 Function<byte[], CompletableFuture<byte[]>> asyncCall, boolean async) {
+		if (!async) {
+			return CompletableFuture.completedFuture(call.apply(request));
 		}
+		return asyncCall.apply(request).thenApplyAsync(Function.identity(), callbackExecutor);
+	}
 
-		return oldData;
+	/**
+	 * Uploads the position map as a checkpoint of the most recent version whose path maps, and all previous ones,
+	 * were consolidated.
+	 */
+	private CompletableFuture<Void> uploadPositionMapCheckpoint(boolean async) {
+		int checkpointVersion = PathMaps.computeCheckpointVersion(latestAccess, missingTriples);
+		if (checkpointVersion <= latestCheckpointVersion) {
+			return CompletableFuture.completedFuture(null);
+		}
+		EncryptedPositionMap encryptedPositionMap = encryptionManager.encryptPositionMap(positionMap);
+		ORAMMessage request = new PositionMapCheckpointMessage(oramId, checkpointVersion, encryptedPositionMap);
+		byte[] serializedRequest = ORAMUtils.serializeRequest(ServerOperationType.POSITION_MAP_CHECKPOINT, request);
+
+		long start = System.nanoTime();
+		int uploadedVersion = checkpointVersion;
+		return invoke(serializedRequest, serviceProxy::uploadPositionMapCheckpoint,
+				serviceProxy::uploadPositionMapCheckpointAsync, async).thenAccept(response -> {
+			long end = System.nanoTime();
+			if (response == null) {
+				logger.error("Failed to upload position map checkpoint of oram {}", oramId);
+				return;
+			}
+			long delay = end - start;
+			logger.debug("Uploaded position map checkpoint of version {} in {} ns", uploadedVersion, delay);
+			latestCheckpointVersion = uploadedVersion;
+		});
+	}
+
+	PositionMap getPositionMap() {
+		return positionMap;
 	}
 
 	public void getORAMSnapshot() {
@@ -171,50 +382,46 @@ public class ORAMObject {
 	}
 
 
-	private PathMaps getPathMaps() {
+	private CompletableFuture<PathMaps> getPathMaps(boolean async) {
 		ORAMMessage request = new GetPathMaps(oramId, latestAccess, missingTriples);
 		byte[] serializedRequest = ORAMUtils.serializeRequest(ServerOperationType.GET_POSITION_MAP, request);
 
-		long start, end, delay;
-		start = System.nanoTime();
-		byte[] response = serviceProxy.getPathMaps(serializedRequest);
-		end = System.nanoTime();
-		if (response == null) {
-			return null;
-		}
+		long start = System.nanoTime();
+		return invoke(serializedRequest, serviceProxy::getPathMaps, serviceProxy::getPathMapsAsync, async)
+				.thenApply(response -> {
+					long end = System.nanoTime();
+					if (response == null) {
+						return null;
+					}
 
-		delay = end - start;
-		globalDelayRemoteInvocation += delay;
-		measurementLogger.info("M-getPM: {}", delay);
+					long delay = end - start;
+					globalDelayRemoteInvocation += delay;
+					measurementLogger.info("M-getPM: {}", delay);
 
-		return encryptionManager.decryptPositionMaps(response);
+					return encryptionManager.decryptPositionMaps(response);
+				});
 	}
 
-	private void consolidatePathMaps(PathMaps recentPathMaps) {
+	void consolidatePathMaps(PathMaps recentPathMaps) {
+		latestAccess = recentPathMaps.mergePositionMapCheckpoint(positionMap, missingTriples, latestAccess);
+
 		Map<Integer, PathMap> pathMaps = recentPathMaps.getPathMaps();
 		int nReceivedPathMapLocations = 0;
-		int maxReceivedSequenceNumber = ORAMUtils.DUMMY_VERSION;
+		int maxReceivedSequenceNumber = latestAccess;
 		for (Map.Entry<Integer, PathMap> entry : pathMaps.entrySet()) {
 			int updateVersion = entry.getKey();
 			maxReceivedSequenceNumber = Math.max(maxReceivedSequenceNumber, updateVersion);
 			missingTriples.remove(updateVersion);
 
 			PathMap currentPathMap = entry.getValue();
-			nReceivedPathMapLocations += currentPathMap.getStoredAddresses().size();
-			for (int updatedAddress : currentPathMap.getStoredAddresses()) {
-				int pathMapLocation = currentPathMap.getLocation(updatedAddress);
-				int pathMapVersion = currentPathMap.getVersion(updatedAddress);
-				int pathMapAccess = currentPathMap.getAccess(updatedAddress);
-				int positionMapVersion = positionMap.getVersion(updatedAddress);
-				int positionMapAccess = positionMap.getAccess(updatedAddress);
-				int positionMapLocationUpdateAccess = positionMap.getLocationUpdateAccess(updatedAddress);
-				if (pathMapVersion > positionMapVersion ||
-						(pathMapVersion == positionMapVersion && pathMapAccess > positionMapAccess)
-						|| (pathMapVersion == positionMapVersion && pathMapAccess == positionMapAccess
-						&& updateVersion > positionMapLocationUpdateAccess)) {
-					positionMap.update(updatedAddress, pathMapLocation, pathMapVersion,
-							pathMapAccess, updateVersion);
-				}
+			nReceivedPathMapLocations += currentPathMap.size();
+			for (int i = 0; i < currentPathMap.size(); i++) {
+				int updatedAddress = currentPathMap.getAddressAt(i);
+				int pathMapLocation = currentPathMap.getLocationAt(i);
+				int pathMapVersion = currentPathMap.getVersionAt(i);
+				int pathMapAccess = currentPathMap.getAccessAt(i);
+				positionMap.updateIfMoreRecent(updatedAddress, pathMapLocation, pathMapVersion, pathMapAccess,
+						updateVersion);
 			}
 		}
 
@@ -229,11 +436,7 @@ public class ORAMObject {
 	}
 
 	public int getPathId(int bucketId) {
-		if (bucketId == ORAMUtils.DUMMY_LOCATION) {
-			ongoingAccessContext.setIsRealAccess(false);
-			return generateRandomPathId();
-		}
-		if (bucketId == ORAMUtils.BLOCK_IN_STASH) {
+		if (bucketId == ORAMUtils.DUMMY_LOCATION || bucketId == ORAMUtils.BLOCK_IN_STASH) {
 			return generateRandomPathId();
 		}
 		return randomWalkToLeafFrom(bucketId);
@@ -260,25 +463,26 @@ public class ORAMObject {
 		return rndGenerator.nextInt(1 << oramContext.getTreeHeight()); //2^height
 	}
 
-	private StashesAndPaths getStashesAndPaths(int pathId) {
-		ORAMMessage request = new StashPathORAMMessage(oramId, pathId);
+	private CompletableFuture<StashesAndPaths> getStashesAndPaths(int[] pathIds, boolean async) {
+		ORAMMessage request = new StashPathORAMMessage(oramId, pathIds);
 		byte[] serializedRequest = ORAMUtils.serializeRequest(ServerOperationType.GET_STASH_AND_PATH, request);
 
-		long start, end, delay;
-		start = System.nanoTime();
-		byte[] response = serviceProxy.getStashesAndPaths(serializedRequest);
-		end = System.nanoTime();
-		if (response == null) {
-			return null;
-		}
-		delay = end - start;
-		globalDelayRemoteInvocation += delay;
-		measurementLogger.info("M-getPS: {}", delay);
+		long start = System.nanoTime();
+		return invoke(serializedRequest, serviceProxy::getStashesAndPaths, serviceProxy::getStashesAndPathsAsync,
+				async).thenApply(response -> {
+			long end = System.nanoTime();
+			if (response == null) {
+				return null;
+			}
+			long delay = end - start;
+			globalDelayRemoteInvocation += delay;
+			measurementLogger.info("M-getPS: {}", delay);
 
-		return encryptionManager.decryptStashesAndPaths(oramContext, response);
+			return encryptionManager.decryptStashesAndPaths(oramContext, response);
+		});
 	}
 
-	private Stash mergeStashesAndPaths(Map<Integer, Stash> stashes, Bucket[] paths) {
+	Stash mergeStashesAndPaths(Map<Integer, Stash> stashes, Bucket[] paths) {
 		Stash mergedStash = new Stash(oramContext.getBlockSize());
 
 		mergeStashes(mergedStash, stashes);
@@ -349,11 +553,15 @@ public class ORAMObject {
 		}
 	}
 
+	/**
+	 * Performs the operation on the block in the stash. A read of an address that was never written is not a real
+	 * access, and returns null unless an earlier address of the same access wrote the block.
+	 */
 	private byte[] accessBlockAndPerformOperation(int address, Operation op, int operationSequence, byte[] newContent,
-												  Stash stash) {
+												  Stash stash, boolean isRealAccess) {
 		Block block = stash.getBlock(address);
 		byte[] oldData = null;
-		if (ongoingAccessContext.isRealAccess() && op == Operation.READ) {
+		if (op == Operation.READ && (isRealAccess || block != null)) {
 			if (block == null) {
 				String debugInfo = buildDebugInfo(address, stash);
 				logger.error("[Client {} - Error] {}", clientId, debugInfo);
@@ -377,11 +585,20 @@ public class ORAMObject {
 	}
 
 	public boolean evict(int pathId, int accessedAddress, Stash stash, PositionMap positionMap) {
-		Map<Integer, Bucket> path = new HashMap<>(oramContext.getTreeLevels());
-		int pathCapacity = oramContext.getTreeLevels() * oramContext.getBucketSize();
-		PathMap pathMap = new PathMap(pathCapacity);
+		return join(evict(new int[]{pathId}, new int[]{accessedAddress}, stash, positionMap, false));
+	}
+
+	/**
+	 * Evicts the union of the paths, moving the accessed blocks to the stash.
+	 */
+	private CompletableFuture<Boolean> evict(int[] pathIds, int[] accessedAddresses, Stash stash,
+											 PositionMap positionMap, boolean async) {
+		int[] accessedPathLocations = ORAMUtils.computePathLocations(pathIds, oramContext.getTreeHeight());
+		Map<Integer, Bucket> path = new HashMap<>(accessedPathLocations.length);
+		PathMap pathMap = new PathMap(accessedPathLocations.length * oramContext.getBucketSize());
 
-		Stash newStash = populatePathAccessedBlockToStash(pathId, accessedAddress, stash, positionMap, path, pathMap);
+		Stash newStash = populatePathAccessedBlockToStash(accessedPathLocations, accessedAddresses, stash,
+				positionMap, path, pathMap);
 
 		// Reordering of blocks in slots
 		Stash workingSet = new Stash(oramContext.getBlockSize());
@@ -408,18 +625,18 @@ public class ORAMObject {
 			}
 		});
 
-		measurementLogger.info("M-sentPMLocations: {}", pathMap.getStoredAddresses().size());
+		measurementLogger.info("M-sentPMLocations: {}", pathMap.size());
 
 		EncryptedStash encryptedStash = encryptionManager.encryptStash(newStash);
 		EncryptedPathMap encryptedPositionMap = encryptionManager.encryptPathMap(pathMap);
 
 		Map<Integer, EncryptedBucket> encryptedPath = encryptionManager.encryptPath(oramContext, path);
-		return sendEvictionRequest(encryptedStash, encryptedPositionMap, encryptedPath);
+		return sendEvictionRequest(encryptedStash, encryptedPositionMap, encryptedPath, async);
 	}
 
-	private Stash populatePathAccessedBlockToStash(int pathId, int accessedAddress, Stash stash, PositionMap positionMap,
-												   Map<Integer, Bucket> pathToPopulate, PathMap pathMap) {
-		int[] accessedPathLocations = ORAMUtils.computePathLocations(pathId, oramContext.getTreeHeight());
+	private Stash populatePathAccessedBlockToStash(int[] accessedPathLocations, int[] accessedAddresses, Stash stash,
+												   PositionMap positionMap, Map<Integer, Bucket> pathToPopulate,
+												   PathMap pathMap) {
 		Arrays.sort(accessedPathLocations);
 
 		for (int pathLocation : accessedPathLocations) {
@@ -447,30 +664,37 @@ public class ORAMObject {
 			}
 		}
 
-		//Sample K random slots from path to substitute
-		int accessedBlockLocation = positionMap.getLocation(accessedAddress);
-		Set<Integer> slots = new HashSet<>(oramContext.getBucketSize());
-		if (accessedBlockLocation >= 0) {
-			int bucketId = (int)Math.floor((double) accessedBlockLocation / oramContext.getBucketSize());
-			int level = (int) FastMath.log(2, bucketId + 1);
-			int slotIndex = accessedBlockLocation % oramContext.getBucketSize();
-			int accessedBlockSlot = level * oramContext.getBucketSize() + slotIndex;
-			slots.add(accessedBlockSlot);
+		//Sample K random slots per accessed address from the paths to substitute. The slots of a path are numbered by
+		//level, since the locations of a path in ascending order are the locations of its levels
+		int nPathSlots = accessedPathLocations.length * oramContext.getBucketSize();
+		int nSlots = Math.min(oramContext.getK() * accessedAddresses.length, nPathSlots);
+		Set<Integer> slots = new HashSet<>(nSlots);
+		for (int accessedAddress : accessedAddresses) {
+			int accessedBlockLocation = positionMap.getLocation(accessedAddress);
+			if (accessedBlockLocation >= 0) {
+				int bucketId = (int)Math.floor((double) accessedBlockLocation / oramContext.getBucketSize());
+				int level = Arrays.binarySearch(accessedPathLocations, bucketId);
+				int slotIndex = accessedBlockLocation % oramContext.getBucketSize();
+				int accessedBlockSlot = level * oramContext.getBucketSize() + slotIndex;
+				slots.add(accessedBlockSlot);
+			}
 		}
 
-		int[] slotsToSubstitute = selectRandomSlots(slots, oramContext.getK());
+		int[] slotsToSubstitute = selectRandomSlots(slots, nSlots, nPathSlots);
 
-		//Evict accessed block to new stash
+		//Evict accessed blocks to new stash
 		Stash newStash = new Stash(oramContext.getBlockSize());
-		Block accessedBlock = stash.getAndRemoveBlock(accessedAddress);
-		if (accessedBlock != null) {
-			newStash.putBlock(accessedBlock);
-			pathMap.setLocation(accessedBlock.getAddress(), ORAMUtils.BLOCK_IN_STASH, accessedBlock.getVersion(),
-					accessedBlock.getAccess());
+		for (int accessedAddress : accessedAddresses) {
+			Block accessedBlock = stash.getAndRemoveBlock(accessedAddress);
+			if (accessedBlock != null) {
+				newStash.putBlock(accessedBlock);
+				pathMap.setLocation(accessedBlock.getAddress(), ORAMUtils.BLOCK_IN_STASH, accessedBlock.getVersion(),
+						accessedBlock.getAccess());
+			}
 		}
 
-		//Select min(K, |stash|) random blocks from stash to evict to path
-		int nBlocks = Math.min(stash.size(), oramContext.getK());
+		//Select min(number of slots, |stash|) random blocks from stash to evict to path
+		int nBlocks = Math.min(stash.size(), slotsToSubstitute.length);
 		Block[] blocksToEvictToPath = selectRandomBlocks(stash, nBlocks);
 		Iterator<Block> blocksToEvictToPathIterator = Arrays.stream(blocksToEvictToPath).iterator();
 
@@ -497,7 +721,7 @@ public class ORAMObject {
 		}
 
 		if (blocksToEvictToPathIterator.hasNext()) {
-			throw new IllegalStateException("I should have evicted all K blocks from stash to path");
+			throw new IllegalStateException("I should have evicted all selected blocks from stash to path");
 		}
 
 		//Add remaining blocks in stash to new stash
@@ -527,55 +751,79 @@ public class ORAMObject {
 		return blocks;
 	}
 
-	private int[] selectRandomSlots(Set<Integer> slots, int nSlots) {
+	private int[] selectRandomSlots(Set<Integer> slots, int nSlots, int nPathSlots) {
 		while (slots.size() < nSlots) {
-			slots.add(uniformDistribution.sample());
+			//The uniform distribution covers the slots of a single path
+			slots.add(nPathSlots == pathCapacity ? uniformDistribution.sample() : rndGenerator.nextInt(nPathSlots));
 		}
 		return ORAMUtils.convertSetIntoOrderedArray(slots);
 	}
 
-	private boolean sendEvictionRequest(EncryptedStash encryptedStash, EncryptedPathMap encryptedPathMap,
-										Map<Integer, EncryptedBucket> encryptedPath) {
-		try {
-			EvictionORAMMessage request = new EvictionORAMMessage(oramId, encryptedStash, encryptedPathMap, encryptedPath);
-			byte[] serializedDataRequest = ORAMUtils.serializeRequest(ServerOperationType.EVICTION_PAYLOAD, request);
-
-			long start, end, delay;
-			start = System.nanoTime();
-			boolean isSuccessful = sendRequestData(serializedDataRequest);
-			end = System.nanoTime();
-			delay = end - start;
-			if (!isSuccessful) {
-				return false;
+	private CompletableFuture<Boolean> sendEvictionRequest(EncryptedStash encryptedStash,
+														   EncryptedPathMap encryptedPathMap,
+														   Map<Integer, EncryptedBucket> encryptedPath, boolean async) {
+		EvictionORAMMessage request = new EvictionORAMMessage(oramId, encryptedStash, encryptedPathMap, encryptedPath);
+		if (serviceProxy.isSingleMessageEvictionSupported()) {
+			return sendSingleMessageEvictionRequest(request, async);
+		}
+		byte[] serializedDataRequest = ORAMUtils.serializeRequest(ServerOperationType.EVICTION_PAYLOAD, request);
+		if (serializedDataRequest == null) {
+			return CompletableFuture.completedFuture(false);
+		}
+
+		long start = System.nanoTime();
+		return invoke(serializedDataRequest, serviceProxy::sendEvictionPayload,
+				serviceProxy::sendEvictionPayloadAsync, async).thenCompose(dataResponse -> {
+			long dataDelay = System.nanoTime() - start;
+			if (dataResponse == null || Status.getStatus(dataResponse[0]) == Status.FAILED) {
+				return CompletableFuture.completedFuture(false);
 			}
 
 			int hash = clientId + ORAMUtils.computeHashCode(serializedDataRequest) * 32;
 			ORAMMessage dataHashRequest = new ORAMMessage(hash);//Sending request hash as oramId (not ideal implementation)
 			byte[] serializedEvictionRequest = ORAMUtils.serializeRequest(ServerOperationType.EVICTION, dataHashRequest);
 
-			start = System.nanoTime();
-			byte[] response = serviceProxy.evict(serializedEvictionRequest);
-			end = System.nanoTime();
-			delay += end - start;
+			long evictionStart = System.nanoTime();
+			return invoke(serializedEvictionRequest, serviceProxy::evict, serviceProxy::evictAsync, async)
+					.thenApply(response -> {
+						long delay = dataDelay + System.nanoTime() - evictionStart;
+						if (response == null) {
+							return false;
+						}
+						globalDelayRemoteInvocation += delay;
+						measurementLogger.info("M-evict: {}", delay);
+						Status status = Status.getStatus(response[0]);
+						return status != Status.FAILED;
+					});
+		});
+	}
 
-			if (response == null) {
-				return false;
-			}
-			globalDelayRemoteInvocation += delay;
-			measurementLogger.info("M-evict: {}", delay);
-			Status status = Status.getStatus(response[0]);
-			return status != Status.FAILED;
-		} catch (SecretSharingException e) {
-			return false;
+	private CompletableFuture<Boolean> sendSingleMessageEvictionRequest(EvictionORAMMessage request, boolean async) {
+		byte[] serializedEvictionRequest = ORAMUtils.serializeRequest(ServerOperationType.EVICTION_WITH_PAYLOAD,
+				request);
+		if (serializedEvictionRequest == null) {
+			return CompletableFuture.completedFuture(false);
 		}
+
+		long start = System.nanoTime();
+		return invoke(serializedEvictionRequest, serviceProxy::evict, serviceProxy::evictAsync, async)
+				.thenApply(response -> {
+					long delay = System.nanoTime() - start;
+					if (response == null) {
+						return false;
+					}
+					globalDelayRemoteInvocation += delay;
+					measurementLogger.info("M-evict: {}", delay);
+					Status status = Status.getStatus(response[0]);
+					return status != Status.FAILED;
+				});
 	}
 
 	private String buildDebugInfo(int address, Stash mergedStash) {
 		StringBuilder errorMessageBuilder = new StringBuilder();
 		PathMaps pathMapsHistory = ongoingAccessContext.getPathMapsHistory();
-		errorMessageBuilder.append("Reading address ").append(address).append(" from bucket ")
-				.append(ongoingAccessContext.getAccessedAddressBucket())
-				.append(" (path ").append(ongoingAccessContext.getAccessedPathId()).append(")\n");
+		errorMessageBuilder.append("Reading address ").append(address).append(" from paths ")
+				.append(Arrays.toString(ongoingAccessContext.getAccessedPathIds())).append("\n");
 		errorMessageBuilder.append("Operation sequence: ").append(ongoingAccessContext.getOperationSequence()).append("\n");
 		errorMessageBuilder.append("Path maps history:\n");
 		for (Map.Entry<Integer, PathMap> entry : pathMapsHistory.getPathMaps().entrySet()) {
@@ -597,18 +845,6 @@ public class ORAMObject {
 		return errorMessageBuilder.toString();
 	}
 
-	private boolean sendRequestData(byte[] serializedDataRequest) throws SecretSharingException {
-		if (serializedDataRequest == null) {
-			return false;
-		}
-		byte[] response = serviceProxy.sendEvictionPayload(serializedDataRequest);
-		if (response == null) {
-			return false;
-		}
-		Status status = Status.getStatus(response[0]);
-		return status != Status.FAILED;
-	}
-
 	protected void reset() {
 		globalDelayRemoteInvocation = 0;
 		ongoingAccessContext = null;
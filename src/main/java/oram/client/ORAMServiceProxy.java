@@ -1,5 +1,7 @@
 package oram.client;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface ORAMServiceProxy {
 
 	int getProcessId();
@@ -13,4 +15,40 @@ public interface ORAMServiceProxy {
 	byte[] sendEvictionPayload(byte[] request);
 
 	byte[] evict(byte[] request);
+
+	byte[] uploadPositionMapCheckpoint(byte[] request);
+
+	/**
+	 * Returns true if evict accepts eviction requests carrying their payload. Otherwise, the payload is sent first
+	 * with sendEvictionPayload and evict only carries its hash, which keeps the requests that replicas must order
+	 * small.
+	 */
+	default boolean isSingleMessageEvictionSupported() {
+		return false;
+	}
+
+	/*
+	 * Asynchronous variants of the requests above, returning a future completed with the response. Proxies that
+	 * cannot send requests asynchronously wait for the response and return a completed future.
+	 */
+
+	default CompletableFuture<byte[]> getPathMapsAsync(byte[] request) {
+		return CompletableFuture.completedFuture(getPathMaps(request));
+	}
+
+	default CompletableFuture<byte[]> getStashesAndPathsAsync(byte[] request) {
+		return CompletableFuture.completedFuture(getStashesAndPaths(request));
+	}
+
+	default CompletableFuture<byte[]> sendEvictionPayloadAsync(byte[] request) {
+		return CompletableFuture.completedFuture(sendEvictionPayload(request));
+	}
+
+	default CompletableFuture<byte[]> evictAsync(byte[] request) {
+		return CompletableFuture.completedFuture(evict(request));
+	}
+
+	default CompletableFuture<byte[]> uploadPositionMapCheckpointAsync(byte[] request) {
+		return CompletableFuture.completedFuture(uploadPositionMapCheckpoint(request));
+	}
 }
@@ -125,4 +125,17 @@ public class MultiServerORAMManager extends ORAMManager {
 		}
 		return null;
 	}
+
+	@Override
+	public byte[] uploadPositionMapCheckpoint(byte[] request) {
+		try {
+			Response response = serviceProxy.invokeOrdered(request);
+			if (response != null && response.getPlainData() != null) {
+				return response.getPlainData();
+			}
+		} catch (SecretSharingException e) {
+			logger.error("Failed to upload position map checkpoint", e);
+		}
+		return null;
+	}
 }
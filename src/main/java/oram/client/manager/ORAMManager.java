@@ -10,6 +10,7 @@ import oram.messages.ORAMMessage;
 import oram.security.EncryptionManager;
 import oram.server.structure.EncryptedPathMap;
 import oram.server.structure.EncryptedStash;
+import oram.utils.EncryptionGranularity;
 import oram.utils.ORAMContext;
 import oram.utils.ORAMUtils;
 import oram.utils.ServerOperationType;
@@ -20,6 +21,7 @@ import org.slf4j.LoggerFactory;
 import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.util.concurrent.ExecutorService;
 
 public abstract class ORAMManager implements ORAMServiceProxy {
 	protected final Logger logger = LoggerFactory.getLogger("oram");
@@ -29,14 +31,30 @@ public abstract class ORAMManager implements ORAMServiceProxy {
 		this.encryptionManager = new EncryptionManager();
 	}
 
+	/**
+	 * Decrypts the stashes and paths received by the ORAMs of this manager in parallel using the given executor.
+	 */
+	public void setDecryptionExecutor(ExecutorService decryptionExecutor) {
+		encryptionManager.setDecryptionExecutor(decryptionExecutor);
+	}
+
 	public ORAMObject createORAM(int oramId, int treeHeight, int bucketSize, int blockSize) {
+		return createORAM(oramId, treeHeight, bucketSize, blockSize, EncryptionGranularity.BLOCK);
+	}
+
+	/**
+	 * Creates an ORAM whose buckets are encrypted with the given granularity. All clients of the ORAM obtain the
+	 * granularity from the servers when opening it.
+	 */
+	public ORAMObject createORAM(int oramId, int treeHeight, int bucketSize, int blockSize,
+								 EncryptionGranularity encryptionGranularity) {
 		String password = generatePassword();
 		encryptionManager.createSecretKey(password);
 
 		EncryptedPathMap encryptedPathMap = initializeEmptyPathMap();
 		EncryptedStash encryptedStash = initializeEmptyStash(blockSize);
 		CreateORAMMessage request = new CreateORAMMessage(oramId, treeHeight, bucketSize, blockSize,
-				encryptedPathMap, encryptedStash);
+				encryptedPathMap, encryptedStash, encryptionGranularity);
 		byte[] serializedRequest = ORAMUtils.serializeRequest(ServerOperationType.CREATE_ORAM, request);
 
 		Status status = createORAM(serializedRequest, password);
@@ -44,7 +62,7 @@ public abstract class ORAMManager implements ORAMServiceProxy {
 			return null;
 		}
 
-		ORAMContext oramContext = new ORAMContext(treeHeight, bucketSize, blockSize);
+		ORAMContext oramContext = new ORAMContext(treeHeight, bucketSize, blockSize, encryptionGranularity);
 
 		return new ORAMObject(this, oramId, oramContext, encryptionManager);
 	}
@@ -96,7 +114,8 @@ public abstract class ORAMManager implements ORAMServiceProxy {
 			}
 			int bucketSize = in.readInt();
 			int blockSize = in.readInt();
-			return new ORAMContext(treeHeight, bucketSize, blockSize);
+			EncryptionGranularity encryptionGranularity = EncryptionGranularity.getEncryptionGranularity(in.readInt());
+			return new ORAMContext(treeHeight, bucketSize, blockSize, encryptionGranularity);
 		} catch (IOException e) {
 			logger.error("Error deserializing ORAMContext", e);
 			return null;
@@ -66,11 +66,10 @@ public class Block implements RawCustomExternalizable {
 		ORAMUtils.serializeInteger(access, output, offset);
 		offset += 4;
 
-		byte[] paddedContent = Arrays.copyOf(content, blockSize + 4);
+		System.arraycopy(content, 0, output, offset, content.length);
+		Arrays.fill(output, offset + content.length, offset + blockSize, (byte) 0);
 		int emptyBytes = blockSize - content.length;
-		byte[] serializedNEmptyBytes = ORAMUtils.toBytes(emptyBytes);
-		System.arraycopy(serializedNEmptyBytes, 0, paddedContent, blockSize, 4);
-		System.arraycopy(paddedContent, 0, output, offset, blockSize + 4);
+		ORAMUtils.serializeInteger(emptyBytes, output, offset + blockSize);
 		offset += blockSize + 4;
 
 		return offset;
@@ -89,13 +88,9 @@ public class Block implements RawCustomExternalizable {
 		access = ORAMUtils.deserializeInteger(input, offset);
 		offset += 4;
 
-		byte[] paddedContent = new byte[blockSize + 4];
-		System.arraycopy(input, offset, paddedContent, 0, blockSize + 4);
+		int emptyBytes = ORAMUtils.deserializeInteger(input, offset + blockSize);
+		content = Arrays.copyOfRange(input, offset, offset + blockSize - emptyBytes);
 		offset += blockSize + 4;
-		byte[] serializedNEmptyBytes = new byte[4];
-		System.arraycopy(paddedContent, blockSize, serializedNEmptyBytes, 0, 4);
-		int emptyBytes = ORAMUtils.toNumber(serializedNEmptyBytes);
-		content = Arrays.copyOf(paddedContent, blockSize - emptyBytes);
 
 		return offset;
 
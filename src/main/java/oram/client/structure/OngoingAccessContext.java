@@ -2,35 +2,39 @@ package oram.client.structure;
 
 import oram.utils.ORAMUtils;
 
+/**
+ * Context of an access to one or more addresses. The per-address fields are indexed like the accessed addresses.
+ */
 public class OngoingAccessContext {
-	private int accessedPathId;
-	private boolean isRealAccess;
+	private int[] accessedPathIds;
+	private boolean[] realAccesses;
 	private int operationSequence;
-	private int accessedAddressBucket;
+	private int[] accessedAddressBuckets;
 	private PathMaps pathMapsHistory;
 
-	public OngoingAccessContext() {
-		this.isRealAccess = true;
-		this.accessedPathId = ORAMUtils.DUMMY_LOCATION;
+	public OngoingAccessContext(int nAddresses) {
+		this.accessedPathIds = new int[nAddresses];
+		this.realAccesses = new boolean[nAddresses];
+		this.accessedAddressBuckets = new int[nAddresses];
 		this.operationSequence = ORAMUtils.DUMMY_VERSION;
 	}
 
-	public void setAccessedPathId(int pathId) {
-		this.accessedPathId = pathId;
+	public void setAccessedPathId(int index, int pathId) {
+		this.accessedPathIds[index] = pathId;
 	}
 
-	public int getAccessedPathId() {
-		return accessedPathId;
+	public int[] getAccessedPathIds() {
+		return accessedPathIds;
 	}
 
 
-	public void setIsRealAccess(boolean isRealAccess) {
-		this.isRealAccess = isRealAccess;
+	public void setIsRealAccess(int index, boolean isRealAccess) {
+		this.realAccesses[index] = isRealAccess;
 	}
 
 
-	public boolean isRealAccess() {
-		return isRealAccess;
+	public boolean isRealAccess(int index) {
+		return realAccesses[index];
 	}
 
 	public void setOperationSequence(int operationSequence) {
@@ -41,12 +45,12 @@ public class OngoingAccessContext {
 		return operationSequence;
 	}
 
-	public void setAccessedAddressBucket(int accessedAddressBucket) {
-		this.accessedAddressBucket = accessedAddressBucket;
+	public void setAccessedAddressBucket(int index, int accessedAddressBucket) {
+		this.accessedAddressBuckets[index] = accessedAddressBucket;
 	}
 
-	public int getAccessedAddressBucket() {
-		return accessedAddressBucket;
+	public int getAccessedAddressBucket(int index) {
+		return accessedAddressBuckets[index];
 	}
 
 	public void setPathMapsHistory(PathMaps pathMapsHistory) {
@@ -3,73 +3,171 @@ package oram.client.structure;
 import oram.utils.ORAMUtils;
 import oram.utils.RawCustomExternalizable;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Set;
 
+/**
+ * Locations of the addresses updated by an access. Entries are stored in insertion order in parallel int arrays and
+ * indexed by an open-addressing table, avoiding boxing and per-entry allocations.
+ */
 public class PathMap implements RawCustomExternalizable {
-	private Map<Integer, Integer> locations;
-	private Map<Integer, Integer> versions;
-	private Map<Integer, Integer> accesses;
+	private static final int EMPTY_SLOT = -1;
+	private int[] addresses;
+	private int[] locations;
+	private int[] versions;
+	private int[] accesses;
+	private int[] indexTable;
+	private int size;
 
 	public PathMap() {}
 
 	public PathMap(int size) {
-		this.locations = new HashMap<>(size);
-		this.versions = new HashMap<>(size);
-		this.accesses = new HashMap<>(size);
+		allocate(size);
+	}
+
+	private void allocate(int capacity) {
+		capacity = Math.max(capacity, 1);
+		this.addresses = new int[capacity];
+		this.locations = new int[capacity];
+		this.versions = new int[capacity];
+		this.accesses = new int[capacity];
+		this.indexTable = new int[tableSizeFor(capacity)];
+		Arrays.fill(indexTable, EMPTY_SLOT);
+		this.size = 0;
+	}
+
+	/**
+	 * Returns a power of two table size that keeps the load factor at or below 0.5.
+	 */
+	private static int tableSizeFor(int capacity) {
+		int tableSize = Integer.highestOneBit(capacity) << 1;
+		return tableSize < 2 * capacity ? tableSize << 1 : tableSize;
+	}
+
+	private static int hash(int address) {
+		int h = address * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	private int findIndex(int address) {
+		int mask = indexTable.length - 1;
+		int slot = hash(address) & mask;
+		while (true) {
+			int index = indexTable[slot];
+			if (index == EMPTY_SLOT || addresses[index] == address) {
+				return index;
+			}
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	private void grow() {
+		int newCapacity = addresses.length * 2;
+		addresses = Arrays.copyOf(addresses, newCapacity);
+		locations = Arrays.copyOf(locations, newCapacity);
+		versions = Arrays.copyOf(versions, newCapacity);
+		accesses = Arrays.copyOf(accesses, newCapacity);
+		indexTable = new int[tableSizeFor(newCapacity)];
+		Arrays.fill(indexTable, EMPTY_SLOT);
+		for (int i = 0; i < size; i++) {
+			insertIndex(addresses[i], i);
+		}
+	}
+
+	private void insertIndex(int address, int index) {
+		int mask = indexTable.length - 1;
+		int slot = hash(address) & mask;
+		while (indexTable[slot] != EMPTY_SLOT) {
+			slot = (slot + 1) & mask;
+		}
+		indexTable[slot] = index;
+	}
+
+	/**
+	 * Number of stored addresses. Entries can be iterated with index-based getters from 0 to size - 1.
+	 */
+	public int size() {
+		return size;
+	}
+
+	public int getAddressAt(int index) {
+		return addresses[index];
+	}
+
+	public int getLocationAt(int index) {
+		return locations[index];
+	}
+
+	public int getVersionAt(int index) {
+		return versions[index];
+	}
+
+	public int getAccessAt(int index) {
+		return accesses[index];
 	}
 
 	public Set<Integer> getStoredAddresses() {
-		return locations.keySet();
+		Set<Integer> storedAddresses = new HashSet<>(size);
+		for (int i = 0; i < size; i++) {
+			storedAddresses.add(addresses[i]);
+		}
+		return storedAddresses;
 	}
 
 	public int getLocation(int address) {
-		return locations.getOrDefault(address, ORAMUtils.DUMMY_LOCATION);
+		int index = findIndex(address);
+		return index == EMPTY_SLOT ? ORAMUtils.DUMMY_LOCATION : locations[index];
 	}
 
 	public int getVersion(int address) {
-		return versions.getOrDefault(address, ORAMUtils.DUMMY_LOCATION);
+		int index = findIndex(address);
+		return index == EMPTY_SLOT ? ORAMUtils.DUMMY_LOCATION : versions[index];
 	}
 
 	public int getAccess(int address) {
-		return accesses.getOrDefault(address, ORAMUtils.DUMMY_LOCATION);
+		int index = findIndex(address);
+		return index == EMPTY_SLOT ? ORAMUtils.DUMMY_LOCATION : accesses[index];
 	}
 
 	public void setLocation(int address, int location, int version, int access) {
-		locations.put(address, location);
-		versions.put(address, version);
-		accesses.put(address, access);
+		int index = findIndex(address);
+		if (index == EMPTY_SLOT) {
+			if (size == addresses.length) {
+				grow();
+			}
+			index = size++;
+			addresses[index] = address;
+			insertIndex(address, index);
+		}
+		locations[index] = location;
+		versions[index] = version;
+		accesses[index] = access;
 	}
 
 	@Override
 	public int getSerializedSize() {
-		return (1 + 4 * locations.size()) * Integer.BYTES;
+		return (1 + 4 * size) * Integer.BYTES;
 	}
 
 	@Override
 	public int writeExternal(byte[] output, int startOffset) {
 		int offset = startOffset;
 
-		ORAMUtils.serializeInteger(locations.size(), output, offset);
+		ORAMUtils.serializeInteger(size, output, offset);
 		offset += Integer.BYTES;
 
-		for (Map.Entry<Integer, Integer> entry : locations.entrySet()) {
-			int address = entry.getKey();
-			int location = entry.getValue();
-			int version = versions.get(address);
-			int access = accesses.get(address);
-
-			ORAMUtils.serializeInteger(address, output, offset);
+		for (int i = 0; i < size; i++) {
+			ORAMUtils.serializeInteger(addresses[i], output, offset);
 			offset += Integer.BYTES;
 
-			ORAMUtils.serializeInteger(location, output, offset);
+			ORAMUtils.serializeInteger(locations[i], output, offset);
 			offset += Integer.BYTES;
 
-			ORAMUtils.serializeInteger(version, output, offset);
+			ORAMUtils.serializeInteger(versions[i], output, offset);
 			offset += Integer.BYTES;
 
-			ORAMUtils.serializeInteger(access, output, offset);
+			ORAMUtils.serializeInteger(accesses[i], output, offset);
 			offset += Integer.BYTES;
 		}
 
@@ -83,9 +181,7 @@ public class PathMap implements RawCustomExternalizable {
 		int size = ORAMUtils.deserializeInteger(input, offset);
 		offset += Integer.BYTES;
 
-		locations = new HashMap<>(size);
-		versions = new HashMap<>(size);
-		accesses = new HashMap<>(size);
+		allocate(size);
 
 		while (size-- > 0) {
 			int address = ORAMUtils.deserializeInteger(input, offset);
@@ -100,9 +196,7 @@ public class PathMap implements RawCustomExternalizable {
 			int accessVersion = ORAMUtils.deserializeInteger(input, offset);
 			offset += Integer.BYTES;
 
-			locations.put(address, location);
-			versions.put(address, writeVersion);
-			accesses.put(address, accessVersion);
+			setLocation(address, location, writeVersion, accessVersion);
 		}
 
 		return offset;
@@ -111,11 +205,11 @@ public class PathMap implements RawCustomExternalizable {
 	@Override
 	public String toString() {
 		StringBuilder sb = new StringBuilder();
-		locations.keySet().stream().sorted().forEach(address -> {
+		getStoredAddresses().stream().sorted().forEach(address -> {
 			sb.append("(ADDR: ").append(address)
-					.append(", L: ").append(locations.get(address))
-					.append(", V: ").append(versions.get(address))
-					.append(", A: ").append(accesses.get(address))
+					.append(", L: ").append(getLocation(address))
+					.append(", V: ").append(getVersion(address))
+					.append(", A: ").append(getAccess(address))
 					.append(") ");
 		});
 		return sb.toString();
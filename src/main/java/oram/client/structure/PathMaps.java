@@ -1,14 +1,26 @@
 package oram.client.structure;
 
+import oram.utils.ORAMUtils;
+
 import java.util.Map;
+import java.util.Set;
 
 public class PathMaps {
 	private final int operationSequence;
 	private final Map<Integer, PathMap> pathMaps;
+	private final int checkpointVersion;
+	private final PositionMap positionMapCheckpoint;
 
 	public PathMaps(int operationSequence, Map<Integer, PathMap> pathMaps) {
+		this(operationSequence, pathMaps, ORAMUtils.DUMMY_VERSION, null);
+	}
+
+	public PathMaps(int operationSequence, Map<Integer, PathMap> pathMaps, int checkpointVersion,
+					PositionMap positionMapCheckpoint) {
 		this.operationSequence = operationSequence;
 		this.pathMaps = pathMaps;
+		this.checkpointVersion = checkpointVersion;
+		this.positionMapCheckpoint = positionMapCheckpoint;
 	}
 
 	public Map<Integer, PathMap> getPathMaps() {
@@ -18,4 +30,45 @@ public class PathMaps {
 	public int getOperationSequence() {
 		return operationSequence;
 	}
+
+	/**
+	 * Returns the position map that consolidates all path maps up to the checkpoint version.
+	 * @return Position map or null if the server did not send a checkpoint
+	 */
+	public PositionMap getPositionMapCheckpoint() {
+		return positionMapCheckpoint;
+	}
+
+	public int getCheckpointVersion() {
+		return checkpointVersion;
+	}
+
+	/**
+	 * Merges the position map checkpoint, if the server sent one, into the position map of the client and removes
+	 * the versions it covers from the missing ones.
+	 * @param latestAccess Most recent version consolidated by the client
+	 * @return Most recent version consolidated after merging the checkpoint
+	 */
+	public int mergePositionMapCheckpoint(PositionMap positionMap, Set<Integer> missingTriples, int latestAccess) {
+		if (positionMapCheckpoint == null) {
+			return latestAccess;
+		}
+		positionMap.merge(positionMapCheckpoint);
+		missingTriples.removeIf(missingTriple -> missingTriple <= checkpointVersion);
+		return Math.max(latestAccess, checkpointVersion);
+	}
+
+	/**
+	 * Returns the most recent version whose path maps, and all previous ones, were consolidated by a client, i.e.,
+	 * the version a checkpoint of its position map covers.
+	 * @param latestAccess Most recent version consolidated by the client
+	 * @param missingTriples Versions before latestAccess whose path maps the client did not receive
+	 */
+	public static int computeCheckpointVersion(int latestAccess, Set<Integer> missingTriples) {
+		int checkpointVersion = latestAccess;
+		for (int missingTriple : missingTriples) {
+			checkpointVersion = Math.min(checkpointVersion, missingTriple - 1);
+		}
+		return checkpointVersion;
+	}
 }
@@ -47,6 +47,34 @@ public class PositionMap implements RawCustomExternalizable {
 		locationUpdateAccesses[address] = locationUpdateAccess;
 	}
 
+	/**
+	 * Updates the address if the new entry is more recent than the stored one. An entry is more recent if it has
+	 * higher version, or same version and higher access, or same version and access, but higher location update
+	 * access.
+	 * @return True if the address was updated
+	 */
+	public boolean updateIfMoreRecent(int address, int location, int version, int access, int locationUpdateAccess) {
+		if (version > versions[address] ||
+				(version == versions[address] && access > accesses[address])
+				|| (version == versions[address] && access == accesses[address]
+				&& locationUpdateAccess > locationUpdateAccesses[address])) {
+			update(address, location, version, access, locationUpdateAccess);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Merges a position map checkpoint into this position map, keeping the most recent entry of each address.
+	 * @param checkpoint Position map checkpoint
+	 */
+	public void merge(PositionMap checkpoint) {
+		for (int address = 0; address < checkpoint.locations.length; address++) {
+			updateIfMoreRecent(address, checkpoint.locations[address], checkpoint.versions[address],
+					checkpoint.accesses[address], checkpoint.locationUpdateAccesses[address]);
+		}
+	}
+
 	@Override
 	public int getSerializedSize() {
 		return  (1 + locations.length * 4) * Integer.BYTES;
@@ -86,6 +114,7 @@ public class PositionMap implements RawCustomExternalizable {
 		locations = new int[size];
 		accesses = new int[size];
 		versions = new int[size];
+		locationUpdateAccesses = new int[size];
 		for (int i = 0; i < size; i++) {
 			locations[i] = ORAMUtils.deserializeInteger(input, offset);
 			offset += Integer.BYTES;
@@ -2,6 +2,7 @@ package oram.messages;
 
 import oram.server.structure.EncryptedPathMap;
 import oram.server.structure.EncryptedStash;
+import oram.utils.EncryptionGranularity;
 import oram.utils.ORAMUtils;
 
 public class CreateORAMMessage extends ORAMMessage {
@@ -10,17 +11,26 @@ public class CreateORAMMessage extends ORAMMessage {
 	private int blockSize;
 	private EncryptedPathMap encryptedPathMap;
 	private EncryptedStash encryptedStash;
+	private EncryptionGranularity encryptionGranularity;
 
 	public CreateORAMMessage() {}
 
 	public CreateORAMMessage(int oramId, int treeHeight, int bucketSize, int blockSize,
 							 EncryptedPathMap encryptedPathMap, EncryptedStash encryptedStash) {
+		this(oramId, treeHeight, bucketSize, blockSize, encryptedPathMap, encryptedStash,
+				EncryptionGranularity.BLOCK);
+	}
+
+	public CreateORAMMessage(int oramId, int treeHeight, int bucketSize, int blockSize,
+							 EncryptedPathMap encryptedPathMap, EncryptedStash encryptedStash,
+							 EncryptionGranularity encryptionGranularity) {
 		super(oramId);
 		this.treeHeight = treeHeight;
 		this.bucketSize = bucketSize;
 		this.blockSize = blockSize;
 		this.encryptedPathMap = encryptedPathMap;
 		this.encryptedStash = encryptedStash;
+		this.encryptionGranularity = encryptionGranularity;
 	}
 
 	public int getTreeHeight() {
@@ -43,6 +53,10 @@ public class CreateORAMMessage extends ORAMMessage {
 		return encryptedStash;
 	}
 
+	public EncryptionGranularity getEncryptionGranularity() {
+		return encryptionGranularity;
+	}
+
 	@Override
 	public int writeExternal(byte[] output, int startOffset) {
 		int offset = super.writeExternal(output, startOffset);
@@ -59,6 +73,8 @@ public class CreateORAMMessage extends ORAMMessage {
 		offset = encryptedPathMap.writeExternal(output, offset);
 		offset = encryptedStash.writeExternal(output, offset);
 
+		output[offset++] = (byte) encryptionGranularity.ordinal();
+
 		return offset;
 	}
 
@@ -81,12 +97,14 @@ public class CreateORAMMessage extends ORAMMessage {
 		encryptedStash = new EncryptedStash();
 		offset = encryptedStash.readExternal(input, offset);
 
+		encryptionGranularity = EncryptionGranularity.getEncryptionGranularity(input[offset++]);
+
 		return offset;
 	}
 
 	@Override
 	public int getSerializedSize() {
 		return super.getSerializedSize() + Integer.BYTES * 3 + encryptedPathMap.getSerializedSize()
-				+ encryptedStash.getSerializedSize();
+				+ encryptedStash.getSerializedSize() + 1;
 	}
 }
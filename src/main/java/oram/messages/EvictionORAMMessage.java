@@ -1,5 +1,6 @@
 package oram.messages;
 
+import io.netty.buffer.ByteBuf;
 import oram.server.structure.EncryptedBucket;
 import oram.server.structure.EncryptedPathMap;
 import oram.server.structure.EncryptedStash;
@@ -87,6 +88,29 @@ public class EvictionORAMMessage extends ORAMMessage {
 		return offset;
 	}
 
+	@Override
+	public void readExternal(ByteBuf input) {
+		super.readExternal(input);
+
+		encryptedStash = new EncryptedStash();
+		encryptedStash.readExternal(input);
+
+		encryptedPathMap = new EncryptedPathMap();
+		encryptedPathMap.readExternal(input);
+
+		int bucketSize = input.readInt();
+		int pathSize = input.readInt();
+
+		encryptedPath = new HashMap<>(pathSize);
+		while (pathSize--> 0) {
+			int location = input.readInt();
+
+			EncryptedBucket encryptedBucket = new EncryptedBucket(bucketSize);
+			encryptedBucket.readExternal(input);
+			encryptedPath.put(location, encryptedBucket);
+		}
+	}
+
 	@Override
 	public int getSerializedSize() {
 		int size = super.getSerializedSize();
@@ -1,5 +1,6 @@
 package oram.messages;
 
+import io.netty.buffer.ByteBuf;
 import oram.utils.ORAMUtils;
 import oram.utils.RawCustomExternalizable;
 
@@ -31,4 +32,11 @@ public class ORAMMessage implements RawCustomExternalizable {
 		oramId = ORAMUtils.deserializeInteger(input, startOffset);
 		return startOffset + Integer.BYTES;
 	}
+
+	/**
+	 * Deserializes the object from the input buffer, advancing its reader index.
+	 */
+	public void readExternal(ByteBuf input) {
+		oramId = input.readInt();
+	}
 }
@@ -0,0 +1,55 @@
+package oram.messages;
+
+import oram.server.structure.EncryptedPositionMap;
+import oram.utils.ORAMUtils;
+
+public class PositionMapCheckpointMessage extends ORAMMessage {
+	private int checkpointVersion;
+	private EncryptedPositionMap encryptedPositionMap;
+
+	public PositionMapCheckpointMessage() {}
+
+	public PositionMapCheckpointMessage(int oramId, int checkpointVersion, EncryptedPositionMap encryptedPositionMap) {
+		super(oramId);
+		this.checkpointVersion = checkpointVersion;
+		this.encryptedPositionMap = encryptedPositionMap;
+	}
+
+	public int getCheckpointVersion() {
+		return checkpointVersion;
+	}
+
+	public EncryptedPositionMap getEncryptedPositionMap() {
+		return encryptedPositionMap;
+	}
+
+	@Override
+	public int writeExternal(byte[] output, int startOffset) {
+		int offset = super.writeExternal(output, startOffset);
+
+		ORAMUtils.serializeInteger(checkpointVersion, output, offset);
+		offset += Integer.BYTES;
+
+		offset = encryptedPositionMap.writeExternal(output, offset);
+
+		return offset;
+	}
+
+	@Override
+	public int readExternal(byte[] input, int startOffset) {
+		int offset = super.readExternal(input, startOffset);
+
+		checkpointVersion = ORAMUtils.deserializeInteger(input, offset);
+		offset += Integer.BYTES;
+
+		encryptedPositionMap = new EncryptedPositionMap();
+		offset = encryptedPositionMap.readExternal(input, offset);
+
+		return offset;
+	}
+
+	@Override
+	public int getSerializedSize() {
+		return super.getSerializedSize() + Integer.BYTES + encryptedPositionMap.getSerializedSize();
+	}
+}
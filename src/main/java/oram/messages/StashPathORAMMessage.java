@@ -2,28 +2,39 @@ package oram.messages;
 
 import oram.utils.ORAMUtils;
 
+/**
+ * Request for the stashes and the buckets of one or more paths. Batched accesses read the union of their paths with
+ * a single request.
+ */
 public class StashPathORAMMessage extends ORAMMessage {
 
-	private int pathId;
+	private int[] pathIds;
 
 	public StashPathORAMMessage() {}
 
 	public StashPathORAMMessage(int oramId, int pathId) {
+		this(oramId, new int[]{pathId});
+	}
+
+	public StashPathORAMMessage(int oramId, int[] pathIds) {
 		super(oramId);
-		this.pathId = pathId;
+		this.pathIds = pathIds;
 	}
 
-	public int getPathId() {
-		return pathId;
+	public int[] getPathIds() {
+		return pathIds;
 	}
 
 	@Override
 	public int writeExternal(byte[] output, int startOffset) {
 		int offset = super.writeExternal(output, startOffset);
 
-		byte[] pathIdBytes = ORAMUtils.toBytes(pathId);
-		System.arraycopy(pathIdBytes, 0, output, offset, 4);
+		ORAMUtils.serializeInteger(pathIds.length, output, offset);
 		offset += 4;
+		for (int pathId : pathIds) {
+			ORAMUtils.serializeInteger(pathId, output, offset);
+			offset += 4;
+		}
 
 		return offset;
 	}
@@ -32,16 +43,19 @@ public class StashPathORAMMessage extends ORAMMessage {
 	public int readExternal(byte[] input, int startOffset) {
 		int offset = super.readExternal(input, startOffset);
 
-		byte[] pathIdBytes = new byte[4];
-		System.arraycopy(input, offset, pathIdBytes, 0, 4);
-		pathId = ORAMUtils.toNumber(pathIdBytes);
+		int nPaths = ORAMUtils.deserializeInteger(input, offset);
 		offset += 4;
+		pathIds = new int[nPaths];
+		for (int i = 0; i < nPaths; i++) {
+			pathIds[i] = ORAMUtils.deserializeInteger(input, offset);
+			offset += 4;
+		}
 
 		return offset;
 	}
 
 	@Override
 	public int getSerializedSize() {
-		return super.getSerializedSize() + 4;
+		return super.getSerializedSize() + 4 * (1 + pathIds.length);
 	}
 }
@@ -0,0 +1,53 @@
+package oram.security;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.IvParameterSpec;
+import java.security.GeneralSecurityException;
+
+/**
+ * AES/CBC/PKCS5Padding with a fixed initialization vector. Each thread reuses its own Cipher.
+ */
+public class AESCBCCipherEngine implements CipherEngine {
+	private static final int AES_BLOCK_SIZE = 16;
+	private static final byte[] iv = {109, 15, 57, 79, 75, 112, 50, 91, 18, 18, 107, 127, 65, 68, 12, 69};
+	private final IvParameterSpec initializationVector;
+	private final ThreadLocal<Cipher> ciphers;
+
+	public AESCBCCipherEngine() {
+		this.initializationVector = new IvParameterSpec(iv);
+		this.ciphers = ThreadLocal.withInitial(() -> {
+			try {
+				return Cipher.getInstance("AES/CBC/PKCS5Padding");
+			} catch (GeneralSecurityException e) {
+				throw new RuntimeException("Failed to initialize cipher", e);
+			}
+		});
+	}
+
+	@Override
+	public int getCiphertextSize(int plaintextSize) {
+		return (plaintextSize / AES_BLOCK_SIZE + 1) * AES_BLOCK_SIZE;
+	}
+
+	@Override
+	public int getMaxPlaintextSize(int ciphertextSize) {
+		return ciphertextSize;
+	}
+
+	@Override
+	public int encrypt(SecretKey key, byte[] input, int inputOffset, int inputLength, byte[] output,
+					   int outputOffset) throws GeneralSecurityException {
+		Cipher cipher = ciphers.get();
+		cipher.init(Cipher.ENCRYPT_MODE, key, initializationVector);
+		return cipher.doFinal(input, inputOffset, inputLength, output, outputOffset);
+	}
+
+	@Override
+	public int decrypt(SecretKey key, byte[] input, int inputOffset, int inputLength, byte[] output,
+					   int outputOffset) throws GeneralSecurityException {
+		Cipher cipher = ciphers.get();
+		cipher.init(Cipher.DECRYPT_MODE, key, initializationVector);
+		return cipher.doFinal(input, inputOffset, inputLength, output, outputOffset);
+	}
+}
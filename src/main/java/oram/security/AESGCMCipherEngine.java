@@ -0,0 +1,72 @@
+package oram.security;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import java.security.GeneralSecurityException;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+
+/**
+ * AES/GCM/NoPadding with a random 96-bit nonce per message. The nonce is stored in front of the ciphertext, which
+ * ends with the 128-bit authentication tag. Each thread reuses its own Cipher and nonce generator.
+ */
+public class AESGCMCipherEngine implements CipherEngine {
+	private static final int NONCE_LENGTH = 12;
+	private static final int TAG_LENGTH = 16;
+	private final ThreadLocal<Cipher> ciphers;
+	private final ThreadLocal<SecureRandom> nonceGenerators;
+
+	public AESGCMCipherEngine() {
+		this.ciphers = ThreadLocal.withInitial(() -> {
+			try {
+				return Cipher.getInstance("AES/GCM/NoPadding");
+			} catch (GeneralSecurityException e) {
+				throw new RuntimeException("Failed to initialize cipher", e);
+			}
+		});
+		this.nonceGenerators = ThreadLocal.withInitial(AESGCMCipherEngine::createNonceGenerator);
+	}
+
+	/**
+	 * SHA1PRNG, self-seeded from the system entropy source, generates nonces faster than the default NativePRNG,
+	 * which reads from the operating system on every call.
+	 */
+	private static SecureRandom createNonceGenerator() {
+		try {
+			return SecureRandom.getInstance("SHA1PRNG");
+		} catch (NoSuchAlgorithmException e) {
+			return new SecureRandom();
+		}
+	}
+
+	@Override
+	public int getCiphertextSize(int plaintextSize) {
+		return NONCE_LENGTH + plaintextSize + TAG_LENGTH;
+	}
+
+	@Override
+	public int getMaxPlaintextSize(int ciphertextSize) {
+		return Math.max(0, ciphertextSize - NONCE_LENGTH - TAG_LENGTH);
+	}
+
+	@Override
+	public int encrypt(SecretKey key, byte[] input, int inputOffset, int inputLength, byte[] output,
+					   int outputOffset) throws GeneralSecurityException {
+		byte[] nonce = new byte[NONCE_LENGTH];
+		nonceGenerators.get().nextBytes(nonce);
+		System.arraycopy(nonce, 0, output, outputOffset, NONCE_LENGTH);
+
+		Cipher cipher = ciphers.get();
+		cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH * 8, nonce));
+		return NONCE_LENGTH + cipher.doFinal(input, inputOffset, inputLength, output, outputOffset + NONCE_LENGTH);
+	}
+
+	@Override
+	public int decrypt(SecretKey key, byte[] input, int inputOffset, int inputLength, byte[] output,
+					   int outputOffset) throws GeneralSecurityException {
+		Cipher cipher = ciphers.get();
+		cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH * 8, input, inputOffset, NONCE_LENGTH));
+		return cipher.doFinal(input, inputOffset + NONCE_LENGTH, inputLength - NONCE_LENGTH, output, outputOffset);
+	}
+}
@@ -0,0 +1,37 @@
+package oram.security;
+
+import javax.crypto.SecretKey;
+import java.security.GeneralSecurityException;
+
+/**
+ * Symmetric cipher used to encrypt the data stored in the servers. Implementations must be thread-safe, as a single
+ * instance is shared by all ORAMs of a client.
+ */
+public interface CipherEngine {
+
+	/**
+	 * Returns the number of bytes of the ciphertext produced when encrypting plaintextSize bytes.
+	 */
+	int getCiphertextSize(int plaintextSize);
+
+	/**
+	 * Returns an upper bound on the number of bytes of the plaintext obtained when decrypting ciphertextSize bytes.
+	 */
+	int getMaxPlaintextSize(int ciphertextSize);
+
+	/**
+	 * Encrypts inputLength bytes of input, starting at inputOffset, into output starting at outputOffset.
+	 *
+	 * @return Number of bytes written to output.
+	 */
+	int encrypt(SecretKey key, byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset)
+			throws GeneralSecurityException;
+
+	/**
+	 * Decrypts inputLength bytes of input, starting at inputOffset, into output starting at outputOffset.
+	 *
+	 * @return Number of bytes written to output.
+	 */
+	int decrypt(SecretKey key, byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset)
+			throws GeneralSecurityException;
+}
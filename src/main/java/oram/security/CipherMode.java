@@ -0,0 +1,26 @@
+package oram.security;
+
+/**
+ * Cipher engines available to encrypt the ORAM data.
+ */
+public enum CipherMode {
+	/**
+	 * AES in CBC mode with a fixed initialization vector. Kept for comparison with previous results.
+	 */
+	AES_CBC,
+	/**
+	 * AES in GCM mode with a random nonce per message.
+	 */
+	AES_GCM;
+
+	public CipherEngine createEngine() {
+		switch (this) {
+			case AES_CBC:
+				return new AESCBCCipherEngine();
+			case AES_GCM:
+				return new AESGCMCipherEngine();
+			default:
+				throw new IllegalArgumentException("Unknown cipher mode " + this);
+		}
+	}
+}
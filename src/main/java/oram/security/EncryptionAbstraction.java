@@ -4,30 +4,30 @@ package oram.security;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.crypto.Cipher;
 import javax.crypto.SecretKey;
 import javax.crypto.SecretKeyFactory;
-import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.PBEKeySpec;
 import javax.crypto.spec.SecretKeySpec;
+import java.util.Arrays;
 
 public class EncryptionAbstraction {
 	private final Logger logger = LoggerFactory.getLogger("oram");
-	private static final byte[] iv = {109, 15, 57, 79, 75, 112, 50, 91, 18, 18, 107, 127, 65, 68, 12, 69};
 	private SecretKey key;
-	private final Cipher cipher;
+	private final CipherEngine cipherEngine;
 	private final byte[] salt = {0x56, 0x1a, 0x7e, 0x23, (byte) 0xb3, 0x21, 0x12, (byte) 0xf6, (byte) 0xe1, 0x4d, 0x58, (byte) 0xd9, 0x0a, 0x59, (byte) 0xee, (byte) 0xe5,
 			0x3b, 0x61, 0x78, 0x27, 0x1e, (byte) 0xad, 0x52, 0x41, 0x2c, 0x4b, (byte) 0xb6, 0x7b, (byte) 0xcd, 0x3a, (byte) 0xe9, (byte) 0x9c};
-	private final IvParameterSpec initializationVector;
 	private final SecretKeyFactory kf;
 
 	public EncryptionAbstraction() {
-		this.initializationVector = new IvParameterSpec(iv);
+		this(CipherMode.AES_GCM);
+	}
+
+	public EncryptionAbstraction(CipherMode cipherMode) {
+		this.cipherEngine = cipherMode.createEngine();
 		try {
 			kf = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256");
-			cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
 		} catch (Exception e) {
-			throw new RuntimeException("Failed to initialize cipher", e);
+			throw new RuntimeException("Failed to initialize key factory", e);
 		}
 	}
 
@@ -40,23 +40,60 @@ public class EncryptionAbstraction {
 		}
 	}
 
+	public int getCiphertextSize(int plaintextSize) {
+		return cipherEngine.getCiphertextSize(plaintextSize);
+	}
+
+	public int getMaxPlaintextSize(int ciphertextSize) {
+		return cipherEngine.getMaxPlaintextSize(ciphertextSize);
+	}
+
 	public byte[] decrypt(byte[] strToDecrypt) {
+		if (strToDecrypt == null) {
+			return null;
+		}
+		byte[] plaintext = new byte[cipherEngine.getMaxPlaintextSize(strToDecrypt.length)];
+		int plaintextSize = decrypt(strToDecrypt, 0, strToDecrypt.length, plaintext, 0);
+		if (plaintextSize < 0) {
+			return null;
+		}
+		return plaintextSize == plaintext.length ? plaintext : Arrays.copyOf(plaintext, plaintextSize);
+	}
+
+	public byte[] encrypt(byte[] strToEncrypt) {
+		byte[] ciphertext = new byte[cipherEngine.getCiphertextSize(strToEncrypt.length)];
+		int ciphertextSize = encrypt(strToEncrypt, 0, strToEncrypt.length, ciphertext, 0);
+		if (ciphertextSize < 0) {
+			return null;
+		}
+		return ciphertextSize == ciphertext.length ? ciphertext : Arrays.copyOf(ciphertext, ciphertextSize);
+	}
+
+	/**
+	 * Decrypts into the given output, which must have room for getMaxPlaintextSize(inputLength) bytes.
+	 *
+	 * @return Number of bytes written to output, or -1 if decryption failed.
+	 */
+	public int decrypt(byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset) {
 		try {
-			cipher.init(Cipher.DECRYPT_MODE, key, initializationVector);
-			return strToDecrypt == null ? null : cipher.doFinal(strToDecrypt);
+			return cipherEngine.decrypt(key, input, inputOffset, inputLength, output, outputOffset);
 		} catch (Exception e) {
 			logger.error("Failed to decrypt", e);
 		}
-		return null;
+		return -1;
 	}
 
-	public byte[] encrypt(byte[] strToEncrypt) {
+	/**
+	 * Encrypts into the given output, which must have room for getCiphertextSize(inputLength) bytes.
+	 *
+	 * @return Number of bytes written to output, or -1 if encryption failed.
+	 */
+	public int encrypt(byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset) {
 		try {
-			cipher.init(Cipher.ENCRYPT_MODE, key, initializationVector);
-			return cipher.doFinal(strToEncrypt);
+			return cipherEngine.encrypt(key, input, inputOffset, inputLength, output, outputOffset);
 		} catch (Exception e) {
 			logger.error("Failed to encrypt", e);
 		}
-		return null;
+		return -1;
 	}
 }
@@ -2,6 +2,7 @@ package oram.security;
 
 import oram.client.structure.*;
 import oram.server.structure.*;
+import oram.utils.EncryptionGranularity;
 import oram.utils.ORAMContext;
 import oram.utils.ORAMUtils;
 import org.slf4j.Logger;
@@ -12,14 +13,33 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 public class EncryptionManager {
 	private final Logger logger = LoggerFactory.getLogger("oram");
 	private final Logger measurementLogger = LoggerFactory.getLogger("measurement");
 	private final EncryptionAbstraction encryptionAbstraction;
+	private ExecutorService decryptionExecutor;
 
 	public EncryptionManager() {
-		this.encryptionAbstraction = new EncryptionAbstraction();
+		this(CipherMode.AES_GCM);
+	}
+
+	public EncryptionManager(CipherMode cipherMode) {
+		this.encryptionAbstraction = new EncryptionAbstraction(cipherMode);
+	}
+
+	/**
+	 * Sets the executor used to decrypt the stashes and buckets received from the servers in parallel. Stashes and
+	 * buckets are submitted as soon as they are deserialized. When null (the default), they are decrypted by the
+	 * calling thread.
+	 *
+	 * @param decryptionExecutor Executor shared by all accesses, e.g., a ForkJoinPool with bounded parallelism.
+	 */
+	public void setDecryptionExecutor(ExecutorService decryptionExecutor) {
+		this.decryptionExecutor = decryptionExecutor;
 	}
 
 	public PathMaps decryptPositionMaps(byte[] serializedEncryptedPositionMaps) {
@@ -44,23 +64,51 @@ public class EncryptionManager {
 			pathMaps.put(entry.getKey(), decryptPathMap(entry.getValue()));
 		}
 
-		return new PathMaps(encryptedPathMaps.getNewVersionId(), pathMaps);
+		EncryptedPositionMap encryptedCheckpoint = encryptedPathMaps.getPositionMapCheckpoint();
+		if (encryptedCheckpoint == null) {
+			return new PathMaps(encryptedPathMaps.getNewVersionId(), pathMaps);
+		}
+		PositionMap checkpoint = decryptPositionMap(encryptedCheckpoint);
+		return new PathMaps(encryptedPathMaps.getNewVersionId(), pathMaps, encryptedPathMaps.getCheckpointVersion(),
+				checkpoint);
 
 	}
 
 	public StashesAndPaths decryptStashesAndPaths(ORAMContext oramContext, byte[] serializedEncryptedStashesAndPaths) {
 		EncryptedStashesAndPaths encryptedStashesAndPaths = new EncryptedStashesAndPaths(oramContext);
-		int offset = encryptedStashesAndPaths.readExternal(serializedEncryptedStashesAndPaths, 0);
+		ParallelDecryption parallelDecryption = decryptionExecutor == null ? null
+				: new ParallelDecryption(oramContext);
+		int offset = encryptedStashesAndPaths.readExternal(serializedEncryptedStashesAndPaths, 0,
+				parallelDecryption);
 		if (offset != serializedEncryptedStashesAndPaths.length) {
 			logger.error("Failed to deserialize encrypted stashes and paths");
+			if (parallelDecryption != null) {
+				parallelDecryption.cancel();
+			}
 			return null;
 		}
 
+		if (parallelDecryption != null) {
+			return parallelDecryption.getStashesAndPaths(encryptedStashesAndPaths.getPaths().length);
+		}
 		return decryptStashesAndPaths(oramContext, encryptedStashesAndPaths);
 	}
 
 	public StashesAndPaths decryptStashesAndPaths(ORAMContext oramContext,
 												  EncryptedStashesAndPaths encryptedStashesAndPaths) {
+		if (decryptionExecutor != null) {
+			ParallelDecryption parallelDecryption = new ParallelDecryption(oramContext);
+			for (Map.Entry<Integer, EncryptedStash> entry : encryptedStashesAndPaths.getEncryptedStashes().entrySet()) {
+				parallelDecryption.onStash(entry.getKey(), entry.getValue());
+			}
+			EncryptedBucket[] encryptedPaths = encryptedStashesAndPaths.getPaths();
+			for (int i = 0; i < encryptedPaths.length; i++) {
+				if (encryptedPaths[i] != null) {
+					parallelDecryption.onBucket(i, encryptedPaths[i]);
+				}
+			}
+			return parallelDecryption.getStashesAndPaths(encryptedPaths.length);
+		}
 		Map<Integer, Stash> stashes = decryptStashes(oramContext.getBlockSize(), encryptedStashesAndPaths.getEncryptedStashes());
 		Bucket[] paths = decryptPaths(oramContext, encryptedStashesAndPaths.getPaths());
 		return new StashesAndPaths(stashes, paths);
@@ -80,6 +128,71 @@ public class EncryptionManager {
 		return stashes;
 	}
 
+	/**
+	 * Submits the decryption of each stash and bucket to the decryption executor as it is received and collects the
+	 * results.
+	 */
+	private class ParallelDecryption implements EncryptedStashesAndPathsListener {
+		private final ORAMContext oramContext;
+		private final Map<Integer, Future<Stash>> stashes;
+		private final Map<Integer, Future<Bucket>> buckets;
+
+		private ParallelDecryption(ORAMContext oramContext) {
+			this.oramContext = oramContext;
+			this.stashes = new HashMap<>();
+			this.buckets = new HashMap<>();
+		}
+
+		@Override
+		public void onStash(int versionId, EncryptedStash encryptedStash) {
+			stashes.put(versionId, decryptionExecutor.submit(() ->
+					decryptStash(oramContext.getBlockSize(), encryptedStash)));
+		}
+
+		@Override
+		public void onBucket(int index, EncryptedBucket encryptedBucket) {
+			buckets.put(index, decryptionExecutor.submit(() -> decryptBucket(oramContext, encryptedBucket)));
+		}
+
+		private StashesAndPaths getStashesAndPaths(int pathsSize) {
+			try {
+				Map<Integer, Stash> decryptedStashes = new HashMap<>(stashes.size());
+				long nBlocks = 0;
+				for (Map.Entry<Integer, Future<Stash>> entry : stashes.entrySet()) {
+					Stash stash = entry.getValue().get();
+					decryptedStashes.put(entry.getKey(), stash);
+					nBlocks += stash.getBlocks().size();
+				}
+				measurementLogger.info("M-receivedStashes: {}", stashes.size());
+				measurementLogger.info("M-receivedStashBlocks: {}", nBlocks);
+
+				Bucket[] paths = new Bucket[pathsSize];
+				for (Map.Entry<Integer, Future<Bucket>> entry : buckets.entrySet()) {
+					paths[entry.getKey()] = entry.getValue().get();
+				}
+				measurementLogger.info("M-receivedPathSize: {}", pathsSize);
+				return new StashesAndPaths(decryptedStashes, paths);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				cancel();
+				logger.error("Interrupted while decrypting stashes and paths");
+			} catch (ExecutionException e) {
+				cancel();
+				logger.error("Failed to decrypt stashes and paths", e.getCause());
+			}
+			return null;
+		}
+
+		private void cancel() {
+			for (Future<Stash> stash : stashes.values()) {
+				stash.cancel(false);
+			}
+			for (Future<Bucket> bucket : buckets.values()) {
+				bucket.cancel(false);
+			}
+		}
+	}
+
 	private Bucket[] decryptPaths(ORAMContext oramContext, EncryptedBucket[] encryptedPaths) {
 		Bucket[] paths = new Bucket[encryptedPaths.length];
 		measurementLogger.info("M-receivedPathSize: {}", encryptedPaths.length);
@@ -156,25 +269,63 @@ public class EncryptionManager {
 
 	public EncryptedBucket encryptBucket(ORAMContext oramContext, Bucket bucket) {
 		prepareBucket(oramContext, bucket);
+		if (oramContext.getEncryptionGranularity() == EncryptionGranularity.BUCKET) {
+			return encryptWholeBucket(bucket);
+		}
 		Block[] bucketContents = bucket.getBlocks();
 		byte[][] encryptedBlocks = new byte[bucketContents.length][];
+		//All blocks have the same serialized size, so the plaintext buffer is reused
+		byte[] serializedBlock = new byte[bucketContents[0].getSerializedSize()];
+		int ciphertextSize = encryptionAbstraction.getCiphertextSize(serializedBlock.length);
 		for (int i = 0; i < bucketContents.length; i++) {
 			Block block = bucketContents[i];
-			byte[] serializedBlock = new byte[block.getSerializedSize()];
 			block.writeExternal(serializedBlock, 0);
-			encryptedBlocks[i] = encryptionAbstraction.encrypt(serializedBlock);
+			byte[] encryptedBlock = new byte[ciphertextSize];
+			if (encryptionAbstraction.encrypt(serializedBlock, 0, serializedBlock.length, encryptedBlock, 0) < 0) {
+				return null;
+			}
+			encryptedBlocks[i] = encryptedBlock;
 		}
 		return new EncryptedBucket(encryptedBlocks, bucket.getLocation());
 	}
 
+	/**
+	 * Encrypts the blocks of a bucket as a single ciphertext. As all blocks are padded to the block size, the
+	 * plaintext has a fixed size of bucketSize serialized blocks.
+	 */
+	private EncryptedBucket encryptWholeBucket(Bucket bucket) {
+		Block[] bucketContents = bucket.getBlocks();
+		int serializedBlockSize = bucketContents[0].getSerializedSize();
+		byte[] serializedBucket = new byte[bucketContents.length * serializedBlockSize];
+		int offset = 0;
+		for (Block block : bucketContents) {
+			offset = block.writeExternal(serializedBucket, offset);
+		}
+		byte[] encryptedBucket = encryptionAbstraction.encrypt(serializedBucket);
+		if (encryptedBucket == null) {
+			return null;
+		}
+		return new EncryptedBucket(new byte[][]{encryptedBucket}, bucket.getLocation());
+	}
+
 	public Bucket decryptBucket(ORAMContext oramContext, EncryptedBucket encryptedBucket) {
 		if (encryptedBucket == null)
 			return null;
+		if (oramContext.getEncryptionGranularity() == EncryptionGranularity.BUCKET) {
+			return decryptWholeBucket(oramContext, encryptedBucket);
+		}
 		byte[][] blocks = encryptedBucket.getBlocks();
 		Bucket newBucket = new Bucket(oramContext.getBucketSize(), oramContext.getBlockSize(), encryptedBucket.getLocation());
+		byte[] serializedBlock = null;
 		for (int i = 0; i < blocks.length; i++) {
 			byte[] block = blocks[i];
-			byte[] serializedBlock = encryptionAbstraction.decrypt(block);
+			int plaintextSize = encryptionAbstraction.getMaxPlaintextSize(block.length);
+			if (serializedBlock == null || serializedBlock.length < plaintextSize) {
+				serializedBlock = new byte[plaintextSize];
+			}
+			if (encryptionAbstraction.decrypt(block, 0, block.length, serializedBlock, 0) < 0) {
+				return null;
+			}
 			Block deserializedBlock = new Block(oramContext.getBlockSize());
 			deserializedBlock.readExternal(serializedBlock, 0);
 			if (deserializedBlock.getAddress() != ORAMUtils.DUMMY_ADDRESS
@@ -185,8 +336,26 @@ public class EncryptionManager {
 		return newBucket;
 	}
 
+	private Bucket decryptWholeBucket(ORAMContext oramContext, EncryptedBucket encryptedBucket) {
+		byte[] serializedBucket = encryptionAbstraction.decrypt(encryptedBucket.getBlocks()[0]);
+		if (serializedBucket == null) {
+			return null;
+		}
+		Bucket newBucket = new Bucket(oramContext.getBucketSize(), oramContext.getBlockSize(), encryptedBucket.getLocation());
+		int offset = 0;
+		for (int i = 0; i < oramContext.getBucketSize(); i++) {
+			Block deserializedBlock = new Block(oramContext.getBlockSize());
+			offset = deserializedBlock.readExternal(serializedBucket, offset);
+			if (deserializedBlock.getAddress() != ORAMUtils.DUMMY_ADDRESS
+					&& !Arrays.equals(deserializedBlock.getContent(), ORAMUtils.DUMMY_BLOCK)) {
+				newBucket.putBlock(i, deserializedBlock);
+			}
+		}
+		return newBucket;
+	}
+
 	public DebugSnapshot decryptDebugSnapshot(ORAMContext context, byte[] plainData) {
-		EncryptedDebugSnapshot encryptedDebugSnapshot = new EncryptedDebugSnapshot(context.getBucketSize());
+		EncryptedDebugSnapshot encryptedDebugSnapshot = new EncryptedDebugSnapshot(context.getNEncryptedBlocksPerBucket());
 		int offset = encryptedDebugSnapshot.readExternal(plainData, 0);
 		if (offset != plainData.length) {
 			logger.error("Failed to deserialize encrypted debug snapshot");
@@ -1,7 +1,19 @@
 package oram.server;
 
 import bftsmart.tom.MessageContext;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
 
 public interface ClientMessageSender {
 	void sendMessageToClient(MessageContext clientMsgCtx, byte[] serializedMessage);
+
+	/**
+	 * Sends a message serialized into a buffer, which is released once sent. By default, the buffer is copied into
+	 * an array.
+	 */
+	default void sendMessageToClient(MessageContext clientMsgCtx, ByteBuf serializedMessage) {
+		byte[] serializedArray = ByteBufUtil.getBytes(serializedMessage);
+		serializedMessage.release();
+		sendMessageToClient(clientMsgCtx, serializedArray);
+	}
 }
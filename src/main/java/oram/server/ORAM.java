@@ -2,6 +2,7 @@ package oram.server;
 
 import oram.messages.GetPathMaps;
 import oram.server.structure.*;
+import oram.utils.EncryptionGranularity;
 import oram.utils.ORAMContext;
 import oram.utils.ORAMUtils;
 import org.slf4j.Logger;
@@ -22,11 +23,22 @@ public class ORAM {
 	protected int sequenceNumber;
 	protected final ORAMTreeManager oramTreeManager;
 	private final Map<Integer, EncryptedPathMap> resultedPositionMap;
+	private int oldestRetainedVersion;
+	private long retainedPathMapsBytes;
+	private int checkpointVersion;
+	private EncryptedPositionMap positionMapCheckpoint;
 
 	public ORAM(int oramId, int treeHeight, int bucketSize, int blockSize,
 				EncryptedPathMap encryptedPathMap, EncryptedStash encryptedStash) {
+		this(oramId, treeHeight, bucketSize, blockSize, EncryptionGranularity.BLOCK, encryptedPathMap,
+				encryptedStash);
+	}
+
+	public ORAM(int oramId, int treeHeight, int bucketSize, int blockSize,
+				EncryptionGranularity encryptionGranularity, EncryptedPathMap encryptedPathMap,
+				EncryptedStash encryptedStash) {
 		this.oramId = oramId;
-		this.oramContext = new ORAMContext(treeHeight, bucketSize, blockSize);
+		this.oramContext = new ORAMContext(treeHeight, bucketSize, blockSize, encryptionGranularity);
 		logger.info("ORAM size: {} blocks", oramContext.getTreeSize());
 		logger.info("Number of slots: {}", oramContext.getTreeSize() * oramContext.getBucketSize());
 		this.pathMaps = new HashMap<>();
@@ -34,7 +46,9 @@ public class ORAM {
 		this.oramClientContexts = new HashMap<>();
 		int versionId = ++sequenceNumber;
 		this.oramTreeManager = new ORAMTreeManager(oramContext, versionId, encryptedStash);
-		this.pathMaps.put(versionId, encryptedPathMap);
+		this.oldestRetainedVersion = versionId;
+		this.checkpointVersion = ORAMUtils.DUMMY_VERSION;
+		storePathMap(versionId, encryptedPathMap);
 	}
 
 	public void setEncryptionKeyShare(VerifiableShare share) {
@@ -63,13 +77,36 @@ public class ORAM {
 		return oramContext;
 	}
 
-	public int getNOutstandingTreeObjects() {
-		return oramTreeManager.getNOutstandingTreeObjects();
+	public int getNOutstandingTreeVersions() {
+		return oramTreeManager.getNOutstandingTreeVersions();
+	}
+
+	public int getNLocationVersions() {
+		return oramTreeManager.getNLocationVersions();
+	}
+
+	public int getNOutstandingVersions() {
+		return oramTreeManager.getNOutstandingVersions();
+	}
+
+	public int getNRetainedPathMaps() {
+		return pathMaps.size();
+	}
+
+	public long getRetainedPathMapsBytes() {
+		return retainedPathMapsBytes;
 	}
 
 	public EncryptedPathMaps getPositionMaps(int clientId, GetPathMaps request) {
 		int lastVersion = request.getLastVersion();
 		Set<Integer> missingTriples = request.getMissingTriples();
+		int oldestRequiredVersion = computeOldestRequiredVersion(lastVersion, missingTriples);
+		boolean sendCheckpoint = shouldSendCheckpoint(oldestRequiredVersion);
+		if (!sendCheckpoint && oldestRequiredVersion < oldestRetainedVersion) {
+			logger.warn("Client {} requested path maps from version {}, but versions below {} were already removed",
+					clientId, oldestRequiredVersion, oldestRetainedVersion);
+		}
+		int oldestVersionToSend = sendCheckpoint ? checkpointVersion + 1 : oldestRetainedVersion;
 
 		OutstandingTree outstandingTree = oramTreeManager.getOutstandingTree();
 		Set<Integer> outstandingVersions = outstandingTree.getOutstandingVersions();
@@ -77,13 +114,16 @@ public class ORAM {
 		resultedPositionMap.clear();
 
 		for (int i : missingTriples) {
+			if (i < oldestVersionToSend) {
+				continue;
+			}
 			EncryptedPathMap encryptedPathMap = pathMaps.get(i);
 			if (encryptedPathMap != null) {
 				resultedPositionMap.put(i, encryptedPathMap);
 			}
 		}
 
-		for (int i = lastVersion + 1; i <= sequenceNumber; i++) {
+		for (int i = Math.max(lastVersion + 1, oldestVersionToSend); i <= sequenceNumber; i++) {
 			EncryptedPathMap encryptedPathMap = pathMaps.get(i);
 			if (encryptedPathMap != null) {
 				resultedPositionMap.put(i, encryptedPathMap);
@@ -100,25 +140,97 @@ public class ORAM {
 
 		ORAMClientContext oramClientContext = new ORAMClientContext(currentOutstandingVersions, newVersionId,
 				outstandingTree);
-		oramClientContexts.put(clientId, oramClientContext);
+		ORAMClientContext previousClientContext = oramClientContexts.put(clientId, oramClientContext);
+		if (previousClientContext != null && previousClientContext.getOutstandingPath() == null) {
+			//The client restarted its access before reading the path, so the tree version it held is released
+			oramTreeManager.releaseOutstandingTree(previousClientContext.getOutstandingTree());
+		}
+		if (sendCheckpoint) {
+			logger.debug("Sending position map checkpoint of version {} to client {}", checkpointVersion, clientId);
+			return new EncryptedPathMaps(newVersionId, resultedPositionMap, checkpointVersion, positionMapCheckpoint);
+		}
 		return new EncryptedPathMaps(newVersionId, resultedPositionMap);
 	}
 
+	/**
+	 * Removes the context of a client that will not finish its access, e.g., because it disconnected, releasing the
+	 * tree version it holds if it did not read its path.
+	 * @return True if the client had a context
+	 */
+	public boolean removeClientContext(int clientId) {
+		ORAMClientContext oramClientContext = oramClientContexts.remove(clientId);
+		if (oramClientContext == null) {
+			return false;
+		}
+		logger.debug("Removed the context of client {} with version {}", clientId,
+				oramClientContext.getOperationSequence());
+		if (oramClientContext.getOutstandingPath() == null) {
+			oramTreeManager.releaseOutstandingTree(oramClientContext.getOutstandingTree());
+		}
+		return true;
+	}
+
+	/**
+	 * Stores the position map checkpoint if it is more recent than the current one. The checkpoint must
+	 * consolidate all path maps up to the checkpoint version.
+	 * @return True if the checkpoint was stored
+	 */
+	public boolean storePositionMapCheckpoint(int clientId, int version, EncryptedPositionMap encryptedPositionMap) {
+		if (version <= checkpointVersion || version > sequenceNumber) {
+			logger.debug("Ignoring position map checkpoint of version {} from client {} (current checkpoint: {})",
+					version, clientId, checkpointVersion);
+			return false;
+		}
+		logger.debug("Client {} stored position map checkpoint of version {}", clientId, version);
+		checkpointVersion = version;
+		positionMapCheckpoint = encryptedPositionMap;
+		cleanPositionMaps();
+		return true;
+	}
+
+	/**
+	 * The checkpoint is sent if the client requires path maps that were already removed or if it is smaller than
+	 * the path maps it replaces.
+	 */
+	private boolean shouldSendCheckpoint(int oldestRequiredVersion) {
+		if (positionMapCheckpoint == null || oldestRequiredVersion > checkpointVersion) {
+			return false;
+		}
+		if (oldestRequiredVersion < oldestRetainedVersion) {
+			return true;
+		}
+		long replacedPathMapsBytes = 0;
+		for (int i = oldestRequiredVersion; i <= checkpointVersion; i++) {
+			EncryptedPathMap encryptedPathMap = pathMaps.get(i);
+			if (encryptedPathMap != null) {
+				replacedPathMapsBytes += encryptedPathMap.getSerializedSize();
+			}
+		}
+		return replacedPathMapsBytes > positionMapCheckpoint.getSerializedSize();
+	}
+
 	public EncryptedStashesAndPaths getStashesAndPaths(int pathId, int clientId) {
+		return getStashesAndPaths(new int[]{pathId}, clientId);
+	}
+
+	/**
+	 * Returns the stashes and the buckets of the union of the paths, whose locations the client evicts afterward.
+	 */
+	public EncryptedStashesAndPaths getStashesAndPaths(int[] pathIds, int clientId) {
 		ORAMClientContext oramClientContext = oramClientContexts.get(clientId);
 		if (oramClientContext == null) {
 			return null;
 		}
-		oramClientContext.setPathId(pathId);
+		oramClientContext.setPathIds(pathIds);
 
-		int[] pathLocations = ORAMUtils.computePathLocations(pathId, oramContext.getTreeHeight());
+		int[] pathLocations = ORAMUtils.computePathLocations(pathIds, oramContext.getTreeHeight());
 
 		OutstandingTree outstandingTree = oramClientContext.getOutstandingTree();
 		Map<Integer, EncryptedStash> outstandingStashes = new HashMap<>(outstandingTree.getStashes());
 		//EncryptedStash[] outstandingStashes = getOrderedStashesArray(outstandingTree.getStashes());
 
-		logger.debug("Client {} is reading path {} ({}) with {} outstanding stashes", clientId, pathId, pathLocations,
-				outstandingStashes.size());
+		logger.debug("Client {} is reading paths {} ({}) with {} outstanding stashes", clientId, pathIds,
+				pathLocations, outstandingStashes.size());
 
 		OutstandingPath outstandingPath = oramTreeManager.getPath(outstandingTree, pathLocations);
 
@@ -147,10 +259,10 @@ public class ORAM {
 		int newVersionId = oramClientContext.getOperationSequence();
 		OutstandingPath outstandingPath = oramClientContext.getOutstandingPath();
 
-		pathMaps.put(newVersionId, encryptedPathMap);
+		storePathMap(newVersionId, encryptedPathMap);
 
-		logger.debug("Client {} is performing eviction in path {} with version {}", clientId,
-				oramClientContext.getPathId(), newVersionId);
+		logger.debug("Client {} is performing eviction in paths {} with version {}", clientId,
+				oramClientContext.getPathIds(), newVersionId);
 		Map<Integer, BucketSnapshot> newBucketSnapshots = new HashMap<>(encryptedPath.size());
 
 		for (Map.Entry<Integer, EncryptedBucket> entry : encryptedPath.entrySet()) {
@@ -164,12 +276,50 @@ public class ORAM {
 		oramTreeManager.storeBuckets(newVersionId, newBucketSnapshots, outstandingPath, outstandingVersions,
 				encryptedStash);
 
-		cleanPositionMaps(outstandingVersions);
+		cleanPositionMaps();
 		return true;
 	}
 
-	private void cleanPositionMaps(int[] outstandingVersions) {
+	private void storePathMap(int versionId, EncryptedPathMap encryptedPathMap) {
+		pathMaps.put(versionId, encryptedPathMap);
+		retainedPathMapsBytes += encryptedPathMap.getSerializedSize();
+	}
+
+	/**
+	 * Computes the oldest path map version the client requires, i.e., the smallest of its missing versions and the
+	 * version following the last one it has consolidated.
+	 */
+	private int computeOldestRequiredVersion(int lastVersion, Set<Integer> missingTriples) {
+		int oldestRequiredVersion = lastVersion + 1;
+		for (int missingTriple : missingTriples) {
+			oldestRequiredVersion = Math.min(oldestRequiredVersion, missingTriple);
+		}
+		return oldestRequiredVersion;
+	}
 
+	/**
+	 * Removes path maps covered by the position map checkpoint, as clients requiring them receive the checkpoint
+	 * instead. Path maps after the checkpoint are kept even if every known client has consolidated them, since
+	 * clients that have not requested path maps yet need the checkpoint and every path map after it.
+	 */
+	private void cleanPositionMaps() {
+		if (positionMapCheckpoint == null) {
+			return;
+		}
+		int lowWatermark = checkpointVersion + 1;
+		int nRemovedPathMaps = 0;
+		for (int version = oldestRetainedVersion; version < lowWatermark; version++) {
+			EncryptedPathMap removedPathMap = pathMaps.remove(version);
+			if (removedPathMap != null) {
+				retainedPathMapsBytes -= removedPathMap.getSerializedSize();
+				nRemovedPathMaps++;
+			}
+		}
+		if (lowWatermark > oldestRetainedVersion) {
+			logger.debug("Removed {} path maps with versions in [{}, {})", nRemovedPathMaps, oldestRetainedVersion,
+					lowWatermark);
+			oldestRetainedVersion = lowWatermark;
+		}
 	}
 
 	@Override
@@ -2,8 +2,16 @@ package oram.server;
 
 import bftsmart.tom.MessageContext;
 import confidential.ConfidentialMessage;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
 import oram.messages.*;
+import oram.server.admission.AdmissionScheduler;
+import oram.server.admission.ConcurrencyLimiter;
+import oram.server.admission.FifoAdmissionScheduler;
+import oram.server.admission.QueuedAccess;
+import oram.server.metrics.ServerMetrics;
 import oram.server.structure.*;
+import oram.utils.EncryptionGranularity;
 import oram.utils.ORAMContext;
 import oram.utils.ORAMUtils;
 import oram.utils.ServerOperationType;
@@ -16,47 +24,92 @@ import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 public class ORAMService {
+	private static final long EVICTION_PAYLOAD_TIMEOUT_MS = 30_000;
 	private final Logger logger = LoggerFactory.getLogger("oram");
 	private final Logger measurementLogger = LoggerFactory.getLogger("measurement");
 	private final TreeMap<Integer, ORAM> orams;
 	private final TreeSet<Integer> senders;
 	private final ClientMessageSender clientMessageSender;
-	private int getPMCounter;
-	private final ArrayList<Long> getPMLatencies;
-	private int getPSCounter;
-	private final ArrayList<Long> getPSLatencies;
-	private long getPMBytesSent;
-	private long getPSBytesSent;
-	private long evictionBytesReceived;
-	private int evictCounter;
-	private final ArrayList<Long> evictionLatencies;
+	private final ServerMetrics metrics;
 	private long lastPrint;
-	private int nOutstandingTreeObjects;
-	private final HashMap<Integer, EvictionORAMMessage> evictionRequests;
+	private final LinkedHashMap<Integer, PendingPayload> pendingEvictions;
 	private final Lock evictionLock = new ReentrantLock();
 	private final Condition evictionCondition = evictionLock.newCondition();
+	private final Lock executionLock = new ReentrantLock();
+	private final ScheduledExecutorService payloadTimeoutExecutor;
 
-	private final ArrayDeque<MessageContext> clientsQueue;
-	private final Map<Integer, ORAMMessage> clientsRequests;
+	private AdmissionScheduler admissionScheduler;
 	private int activeClients;
-	private int MAX_N_CLIENTS;
+	private ConcurrencyLimiter concurrencyLimiter;
+	private ExecutorService readExecutor;
+
+	/**
+	 * Eviction payload received before the eviction request matching its hash.
+	 */
+	private static class PendingPayload {
+		private final long arrivalTime;
+		private final EvictionORAMMessage payload;
+
+		private PendingPayload(EvictionORAMMessage payload) {
+			this.arrivalTime = System.nanoTime();
+			this.payload = payload;
+		}
+	}
 
 	public ORAMService(int maxClients, ClientMessageSender clientMessageSender) {
 		this.clientMessageSender = clientMessageSender;
 		this.orams = new TreeMap<>();
 		this.senders = new TreeSet<>();
-		this.getPMLatencies = new ArrayList<>();
-		this.getPSLatencies = new ArrayList<>();
-		this.evictionLatencies = new ArrayList<>();
-		this.evictionRequests = new HashMap<>();
-		this.clientsRequests = new HashMap<>();
-		this.clientsQueue = new ArrayDeque<>();
-		this.MAX_N_CLIENTS = maxClients;
+		this.metrics = ServerMetrics.fromConfiguration();
+		this.pendingEvictions = new LinkedHashMap<>();
+		this.admissionScheduler = new FifoAdmissionScheduler();
+		this.concurrencyLimiter = new ConcurrencyLimiter(maxClients);
+		this.payloadTimeoutExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "Eviction payload timeout");
+			thread.setDaemon(true);
+			return thread;
+		});
+		payloadTimeoutExecutor.scheduleWithFixedDelay(this::expireEvictionPayloads, EVICTION_PAYLOAD_TIMEOUT_MS,
+				EVICTION_PAYLOAD_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+	}
+
+	public void shutdown() {
+		payloadTimeoutExecutor.shutdownNow();
+	}
+
+	/**
+	 * Serializes the stashes and paths sent to clients in the executor instead of the ordered execution thread.
+	 * The responses are then sent through the client message sender, which must support being called from the
+	 * executor threads.
+	 */
+	public void setReadExecutor(ExecutorService readExecutor) {
+		this.readExecutor = readExecutor;
+	}
+
+	/**
+	 * Replaces the fixed limit on the number of concurrent accesses, which is the maximum number of clients. Adaptive
+	 * limits must only be used by a single server, as they depend on measured latencies.
+	 */
+	public void setConcurrencyLimiter(ConcurrencyLimiter concurrencyLimiter) {
+		this.concurrencyLimiter = concurrencyLimiter;
+	}
+
+	/**
+	 * Replaces the scheduler ordering the getPM requests waiting for their access to be admitted, which admits them
+	 * in arrival order. It must be set before receiving requests. Schedulers that depend on measured times must only
+	 * be used by a single server.
+	 */
+	public void setAdmissionScheduler(AdmissionScheduler admissionScheduler) {
+		this.admissionScheduler = admissionScheduler;
 	}
 
 	public void setEncryptionKeyShare(int oramID, VerifiableShare share) {
@@ -78,7 +131,39 @@ public class ORAMService {
 		}
 	}
 
+	/**
+	 * Executes a request read from a buffer, which the caller releases after this method returns. Eviction payloads
+	 * are read directly from the buffer, while the other requests, which are small, are copied and executed as arrays.
+	 */
+	public byte[] executeOrdered(ByteBuf requestData, MessageContext msgCtx) {
+		ServerOperationType op = ServerOperationType.getOperation(requestData.getByte(requestData.readerIndex()));
+		if (op != ServerOperationType.EVICTION_PAYLOAD && op != ServerOperationType.EVICTION_WITH_PAYLOAD) {
+			return executeOrdered(ByteBufUtil.getBytes(requestData), msgCtx);
+		}
+		executionLock.lock();
+		try {
+			senders.add(msgCtx.getSender());
+			if (op == ServerOperationType.EVICTION_WITH_PAYLOAD) {
+				logger.debug("Received eviction request with payload from {}", msgCtx.getSender());
+				metrics.recordEvictionBytes(requestData.readableBytes());
+				EvictionORAMMessage request = new EvictionORAMMessage();
+				requestData.skipBytes(1);
+				request.readExternal(requestData);
+				return evict(request, msgCtx);
+			}
+			int hash = msgCtx.getSender() + ORAMUtils.computeHashCode(requestData) * 32;
+			EvictionORAMMessage request = new EvictionORAMMessage();
+			requestData.skipBytes(1);
+			request.readExternal(requestData);
+			return storeEvictionPayload(request, hash, msgCtx);
+		} finally {
+			printReport();
+			executionLock.unlock();
+		}
+	}
+
 	public byte[] executeOrdered(byte[] requestData, MessageContext msgCtx) {
+		executionLock.lock();
 		try {
 			ServerOperationType op = ServerOperationType.getOperation(requestData[0]);
 			ORAMMessage request;
@@ -88,8 +173,10 @@ public class ORAMService {
 				case UPDATE_CONCURRENT_CLIENTS:
 					request = new UpdateConcurrentClientsMessage();
 					request.readExternal(requestData, 1);
-					MAX_N_CLIENTS = ((UpdateConcurrentClientsMessage)request).getMaximumNConcurrentClients();
-					logger.info("MAX_N_CLIENTS: {}", MAX_N_CLIENTS);
+					int maxNConcurrentClients = ((UpdateConcurrentClientsMessage)request).getMaximumNConcurrentClients();
+					concurrencyLimiter.setMaxLimit(maxNConcurrentClients);
+					logger.info("MAX_N_CLIENTS: {}", maxNConcurrentClients);
+					processQueuedGetPMRequests();
 					return new byte[]{(byte) Status.SUCCESS.ordinal()};
 				case DEBUG:
 					request = new GetDebugMessage();
@@ -108,54 +195,54 @@ public class ORAMService {
 					request = new GetPathMaps();
 					request.readExternal(requestData, 1);
 
-					clientsQueue.addLast(msgCtx);
-					clientsRequests.put(msgCtx.getSender(), request);
+					admissionScheduler.add(new QueuedAccess(msgCtx, (GetPathMaps) request, System.nanoTime()));
+					metrics.setQueueDepth(admissionScheduler.size());
 					processQueuedGetPMRequests();
 					return null;
 				case GET_STASH_AND_PATH:
 					logger.debug("Received getPS request from {}", msgCtx.getSender());
 					request = new StashPathORAMMessage();
 					request.readExternal(requestData, 1);
+					if (readExecutor != null) {
+						submitGetStashesAndPaths((StashPathORAMMessage) request, msgCtx);
+						return null;
+					}
 					return getStashesAndPaths((StashPathORAMMessage) request, msgCtx.getSender());
 				case EVICTION_PAYLOAD:
 					request = new EvictionORAMMessage();
 					request.readExternal(requestData, 1);
-					evictionLock.lock();
 					hash = msgCtx.getSender() + ORAMUtils.computeHashCode(requestData) * 32;
-					logger.debug("Received eviction data request from {} in {} ({})", msgCtx.getSender(), msgCtx.getSequence(), hash);
-					evictionRequests.put(hash, (EvictionORAMMessage) request);
-					evictionCondition.signal();
-					evictionLock.unlock();
-					return new byte[]{(byte) Status.SUCCESS.ordinal()};
+					return storeEvictionPayload((EvictionORAMMessage) request, hash, msgCtx);
 				case EVICTION:
-					logger.debug("Received eviction request from {}", msgCtx.getSender());
-					evictionLock.lock();
 					request = new ORAMMessage();
 					request.readExternal(requestData, 1);
 					hash = request.getOramId();
-
-					do {
-						logger.debug("Received eviction request from {} in {} ({})", msgCtx.getSender(), msgCtx.getSequence(), hash);
-						request = evictionRequests.get(hash);
-						if (request == null) {
-							logger.debug("No eviction request from {} in {}", msgCtx.getSender(), msgCtx.getSequence());
-							try {
-								evictionCondition.await();
-							} catch (InterruptedException e) {
-								logger.error("Interrupted while waiting for eviction request from {}", msgCtx.getSender());
-							}
-						}
-					} while (request == null);
-					evictionLock.unlock();
-					evictionBytesReceived += requestData.length;
-					byte[] evictionResponse = performEviction((EvictionORAMMessage) request, msgCtx);
-					activeClients--;
-					//process requests from the queue
-					processQueuedGetPMRequests();
-					return evictionResponse;
+					logger.debug("Received eviction request from {} in {} ({})", msgCtx.getSender(), msgCtx.getSequence(), hash);
+					//Nothing was changed by this request yet, so other threads can use the ORAMs during the wait
+					EvictionORAMMessage payload;
+					executionLock.unlock();
+					try {
+						payload = awaitEvictionPayload(hash, msgCtx);
+					} finally {
+						executionLock.lock();
+					}
+					metrics.recordEvictionBytes(requestData.length);
+					return evict(payload, msgCtx);
+				case EVICTION_WITH_PAYLOAD:
+					logger.debug("Received eviction request with payload from {}", msgCtx.getSender());
+					metrics.recordEvictionBytes(requestData.length);
+					request = new EvictionORAMMessage();
+					request.readExternal(requestData, 1);
+					return evict((EvictionORAMMessage) request, msgCtx);
+				case POSITION_MAP_CHECKPOINT:
+					logger.debug("Received position map checkpoint from {}", msgCtx.getSender());
+					request = new PositionMapCheckpointMessage();
+					request.readExternal(requestData, 1);
+					return storePositionMapCheckpoint((PositionMapCheckpointMessage) request, msgCtx.getSender());
 			}
 		} finally {
 			printReport();
+			executionLock.unlock();
 		}
 		throw new RuntimeException("Unknown operation type");
 	}
@@ -171,17 +258,130 @@ public class ORAMService {
 			case EVICTION_PAYLOAD:
 				request = new EvictionORAMMessage();
 				request.readExternal(plainData, 1);
-				evictionLock.lock();
 				int hash = msgCtx.getSender() + ORAMUtils.computeHashCode(plainData) * 32;
-				logger.debug("Received eviction data request from {} in {} ({})", msgCtx.getSender(), msgCtx.getSequence(), hash);
-				evictionRequests.put(hash, (EvictionORAMMessage) request);
-				evictionCondition.signal();
-				evictionLock.unlock();
-				return new byte[]{(byte) Status.SUCCESS.ordinal()};
+				return storeEvictionPayload((EvictionORAMMessage) request, hash, msgCtx);
 		}
 		throw new RuntimeException("Unknown operation type");
 	}
 
+	/**
+	 * Waits until the payload matching the hash of the eviction request arrives. Replicas execute the eviction in the
+	 * same point of the ordered execution regardless of when they receive the payload.
+	 */
+	private EvictionORAMMessage awaitEvictionPayload(int hash, MessageContext msgCtx) {
+		evictionLock.lock();
+		try {
+			PendingPayload payload = pendingEvictions.remove(hash);
+			while (payload == null) {
+				logger.debug("No eviction payload from {} in {}", msgCtx.getSender(), msgCtx.getSequence());
+				try {
+					evictionCondition.await();
+				} catch (InterruptedException e) {
+					logger.error("Interrupted while waiting for eviction payload from {}", msgCtx.getSender());
+				}
+				payload = pendingEvictions.remove(hash);
+			}
+			metrics.setPendingEvictions(pendingEvictions.size());
+			return payload.payload;
+		} finally {
+			evictionLock.unlock();
+		}
+	}
+
+	/**
+	 * Stores the payload until the eviction request matching its hash arrives, waking up the ordered execution
+	 * waiting for it.
+	 */
+	private byte[] storeEvictionPayload(EvictionORAMMessage request, int hash, MessageContext msgCtx) {
+		logger.debug("Received eviction data request from {} in {} ({})", msgCtx.getSender(), msgCtx.getSequence(), hash);
+		evictionLock.lock();
+		try {
+			//Removed first to keep the payloads in arrival order
+			pendingEvictions.remove(hash);
+			pendingEvictions.put(hash, new PendingPayload(request));
+			evictionCondition.signalAll();
+			metrics.setPendingEvictions(pendingEvictions.size());
+		} finally {
+			evictionLock.unlock();
+		}
+		return new byte[]{(byte) Status.SUCCESS.ordinal()};
+	}
+
+	/**
+	 * Removes the payloads whose eviction request did not arrive within the timeout, e.g., because their client
+	 * failed after sending them. Only unmatched payloads are removed, so evictions are executed in the same point of
+	 * the ordered execution in every replica as long as the eviction request is ordered before the timeout.
+	 */
+	private void expireEvictionPayloads() {
+		long oldestArrivalTime = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(EVICTION_PAYLOAD_TIMEOUT_MS);
+		int nExpiredPayloads = 0;
+		evictionLock.lock();
+		try {
+			Iterator<PendingPayload> iterator = pendingEvictions.values().iterator();
+			while (iterator.hasNext()) {
+				if (iterator.next().arrivalTime - oldestArrivalTime > 0) {
+					break;
+				}
+				iterator.remove();
+				nExpiredPayloads++;
+			}
+			metrics.setPendingEvictions(pendingEvictions.size());
+		} finally {
+			evictionLock.unlock();
+		}
+		if (nExpiredPayloads > 0) {
+			logger.warn("Removed {} eviction payloads without eviction request", nExpiredPayloads);
+		}
+	}
+
+	/**
+	 * Ends the access of a client that disconnected, releasing the tree version it holds, and removes its queued
+	 * getPM requests. Must only be used by a single server, as
+	 * replicas do not observe disconnections at the same point of the execution.
+	 */
+	public void clientDisconnected(int clientId) {
+		executionLock.lock();
+		try {
+			int nRemovedAccesses = admissionScheduler.remove(clientId);
+			if (nRemovedAccesses > 0) {
+				logger.debug("Removed {} queued getPM requests from disconnected client {}", nRemovedAccesses,
+						clientId);
+			}
+			if (removeClientContexts(clientId)) {
+				logger.info("Client {} disconnected during its access", clientId);
+				activeClients--;
+				admissionScheduler.accessFinished(clientId);
+			}
+			processQueuedGetPMRequests();
+		} finally {
+			executionLock.unlock();
+		}
+	}
+
+	/**
+	 * Removes the contexts of the client in every ORAM.
+	 * @return True if the client had a context in some ORAM
+	 */
+	private boolean removeClientContexts(int clientId) {
+		boolean isRemoved = false;
+		for (ORAM oram : orams.values()) {
+			isRemoved |= oram.removeClientContext(clientId);
+		}
+		return isRemoved;
+	}
+
+	/**
+	 * Performs the eviction, ending the access of the client, and processes the getPM requests waiting for it.
+	 */
+	private byte[] evict(EvictionORAMMessage request, MessageContext msgCtx) {
+		byte[] evictionResponse = performEviction(request, msgCtx);
+		activeClients--;
+		admissionScheduler.accessFinished(msgCtx.getSender());
+		//process requests from the queue
+		processQueuedGetPMRequests();
+		return evictionResponse;
+	}
+
 	private byte[] performEviction(EvictionORAMMessage request, MessageContext msgCtx) {
 		logger.debug("Processing eviction request from {}", msgCtx.getSender());
 		int oramId = request.getOramId();
@@ -193,17 +393,31 @@ public class ORAMService {
 				request.getEncryptedPath(), msgCtx.getSender());
 		long end = System.nanoTime();
 		long delay = end - start;
-		evictionLatencies.add(delay);
+		metrics.recordEviction(delay);
+		concurrencyLimiter.recordEviction(delay);
 		//measurementLogger.debug("eviction[ns]: {}", delay);
-		evictCounter++;
 
-		nOutstandingTreeObjects = oram.getNOutstandingTreeObjects();
+		metrics.setOutstandingTreeVersions(oram.getNOutstandingTreeVersions());
+		metrics.setRetainedPathMaps(oram.getNRetainedPathMaps(), oram.getRetainedPathMapsBytes());
 		if (isEvicted)
 			return new byte[]{(byte) Status.SUCCESS.ordinal()};
 		else
 			return new byte[]{(byte) Status.FAILED.ordinal()};
 	}
 
+	private byte[] storePositionMapCheckpoint(PositionMapCheckpointMessage request, int clientId) {
+		ORAM oram = orams.get(request.getOramId());
+		if (oram == null)
+			return new byte[]{-1};
+		boolean isStored = oram.storePositionMapCheckpoint(clientId, request.getCheckpointVersion(),
+				request.getEncryptedPositionMap());
+		metrics.setRetainedPathMaps(oram.getNRetainedPathMaps(), oram.getRetainedPathMapsBytes());
+		if (isStored)
+			return new byte[]{(byte) Status.SUCCESS.ordinal()};
+		else
+			return new byte[]{(byte) Status.FAILED.ordinal()};
+	}
+
 	private byte[] getStashesAndPaths(StashPathORAMMessage request, int clientId) {
 		logger.debug("Processing getPS request from {}", clientId);
 		int oramId = request.getOramId();
@@ -212,7 +426,40 @@ public class ORAMService {
 			return new byte[]{-1};
 		}
 		long start = System.nanoTime();
-		EncryptedStashesAndPaths encryptedStashesAndPaths = oram.getStashesAndPaths(request.getPathId(), clientId);
+		EncryptedStashesAndPaths encryptedStashesAndPaths = oram.getStashesAndPaths(request.getPathIds(), clientId);
+		return serializeStashesAndPaths(encryptedStashesAndPaths, request.getPathIds().length, start);
+	}
+
+	/**
+	 * Selects the stashes and path buckets the client must receive in the ordered execution thread, as that
+	 * updates the client context, and serializes and sends them in the read executor. The selected buckets are
+	 * immutable, so the serialization does not depend on later operations. The response references the encrypted
+	 * stashes and blocks instead of copying them.
+	 */
+	private void submitGetStashesAndPaths(StashPathORAMMessage request, MessageContext msgCtx) {
+		int clientId = msgCtx.getSender();
+		logger.debug("Processing getPS request from {}", clientId);
+		ORAM oram = orams.get(request.getOramId());
+		if (oram == null) {
+			clientMessageSender.sendMessageToClient(msgCtx, new byte[]{-1});
+			return;
+		}
+		long start = System.nanoTime();
+		EncryptedStashesAndPaths encryptedStashesAndPaths = oram.getStashesAndPaths(request.getPathIds(), clientId);
+		readExecutor.execute(() -> {
+			if (encryptedStashesAndPaths == null) {
+				recordGetStashesAndPaths(start, 0, 0);
+				clientMessageSender.sendMessageToClient(msgCtx, new byte[0]);
+				return;
+			}
+			ByteBuf response = encryptedStashesAndPaths.writeExternal();
+			recordGetStashesAndPaths(start, response.readableBytes(), request.getPathIds().length);
+			clientMessageSender.sendMessageToClient(msgCtx, response);
+		});
+	}
+
+	private byte[] serializeStashesAndPaths(EncryptedStashesAndPaths encryptedStashesAndPaths, int nPaths,
+											long start) {
 		byte[] serializedPathAndStash = null;
 		if (encryptedStashesAndPaths != null) {
 			int dataSize = encryptedStashesAndPaths.getSerializedSize();
@@ -223,32 +470,41 @@ public class ORAMService {
 				return new byte[0];
 			}
 		}
-		long end = System.nanoTime();
-		long delay = end - start;
-		getPSLatencies.add(delay);
-		//measurementLogger.debug("getPathStash[ns]: {}", delay);
-		getPSCounter++;
+		recordGetStashesAndPaths(start, serializedPathAndStash == null ? 0 : serializedPathAndStash.length, nPaths);
 
 		if (serializedPathAndStash == null)
 			return new byte[0];
-		getPSBytesSent += serializedPathAndStash.length;
 		return serializedPathAndStash;
 	}
 
+	private void recordGetStashesAndPaths(long start, int nBytesSent, int nPaths) {
+		long end = System.nanoTime();
+		long delay = end - start;
+		//measurementLogger.debug("getPathStash[ns]: {}", delay);
+		metrics.recordGetPS(delay, nBytesSent);
+		concurrencyLimiter.recordGetStashesAndPaths(nBytesSent, nPaths);
+	}
+
 	private void processQueuedGetPMRequests() {
-		while (activeClients < MAX_N_CLIENTS && !clientsQueue.isEmpty()) {
-			activeClients++;
-			MessageContext nextClientMsgCtx = clientsQueue.poll();
-			if (nextClientMsgCtx == null) {
-				logger.debug("No more requests in the queue");
+		metrics.setConcurrencyLimit(concurrencyLimiter.getLimit());
+		while (activeClients < concurrencyLimiter.getLimit() && !admissionScheduler.isEmpty()) {
+			QueuedAccess nextAccess = admissionScheduler.poll();
+			if (nextAccess == null) {
+				logger.debug("No queued request can be admitted");
 				break;
 			}
+			activeClients++;
+			MessageContext nextClientMsgCtx = nextAccess.getMsgCtx();
 			logger.debug("Processing getPM request from queue from {} | active clients: {}", nextClientMsgCtx.getSender(),
 					activeClients);
-			ORAMMessage nextRequest = clientsRequests.remove(nextClientMsgCtx.getSender());
-			byte[] pmResponse = getPositionMap((GetPathMaps) nextRequest, nextClientMsgCtx);
+			long queueWait = System.nanoTime() - nextAccess.getArrivalTime();
+			concurrencyLimiter.recordAdmission(queueWait);
+			metrics.recordQueueWait(nextAccess.getGroup(), queueWait);
+			byte[] pmResponse = getPositionMap(nextAccess.getRequest(), nextClientMsgCtx);
 			clientMessageSender.sendMessageToClient(nextClientMsgCtx, pmResponse);
 		}
+		metrics.setQueueDepth(admissionScheduler.size());
+		metrics.setActiveClients(activeClients);
 	}
 
 	private byte[] getPositionMap(GetPathMaps request, MessageContext msgCtx) {
@@ -271,10 +527,8 @@ public class ORAMService {
 
 		long end = System.nanoTime();
 		long delay = end - start;
-		getPMLatencies.add(delay);
 		//measurementLogger.debug("getPositionMap[ns]: {}", delay);
-		getPMCounter++;
-		getPMBytesSent += serializedPositionMaps.length;
+		metrics.recordGetPM(delay, serializedPositionMaps.length);
 		return serializedPositionMaps;
 	}
 
@@ -292,6 +546,7 @@ public class ORAMService {
 				out.writeInt(treeHeight);
 				out.writeInt(nBlocksPerBucket);
 				out.writeInt(blockSize);
+				out.writeInt(oramContext.getEncryptionGranularity().ordinal());
 				out.flush();
 				bos.flush();
 				return bos.toByteArray();
@@ -307,6 +562,7 @@ public class ORAMService {
 		int treeHeight = request.getTreeHeight();
 		int nBlocksPerBucket = request.getBucketSize();
 		int blockSize = request.getBlockSize();
+		EncryptionGranularity encryptionGranularity = request.getEncryptionGranularity();
 		EncryptedPathMap encryptedPathMap = request.getEncryptedPathMap();
 		EncryptedStash encryptedStash = request.getEncryptedStash();
 		if (orams.containsKey(oramId)) {
@@ -314,7 +570,7 @@ public class ORAMService {
 			return new byte[]{(byte) Status.FAILED.ordinal()};
 		} else {
 			logger.debug("Created an ORAM with id {} of {} levels", oramId, treeHeight + 1);
-			ORAM oram = new ORAM(oramId, treeHeight, nBlocksPerBucket, blockSize,
+			ORAM oram = new ORAM(oramId, treeHeight, nBlocksPerBucket, blockSize, encryptionGranularity,
 					encryptedPathMap, encryptedStash);
 			orams.put(oramId, oram);
 			return new byte[]{(byte) Status.SUCCESS.ordinal()};
@@ -342,55 +598,21 @@ public class ORAMService {
 		long end = System.nanoTime();
 		long delay = end - lastPrint;
 		if (delay >= 2_000_000_000) {
-			long getPMAvgLatency = computeAverage(getPMLatencies);
-			long getPSAvgLatency = computeAverage(getPSLatencies);
-			long evictionAvgLatency = computeAverage(evictionLatencies);
-			long getPMBandwidth = (long)(getPMBytesSent / (delay / 1_000_000_000.0));
-			long getPSBandwidth = (long)(getPSBytesSent / (delay / 1_000_000_000.0));
-			long evictionBandwidth = (long)(evictionBytesReceived / (delay / 1_000_000_000.0));
-
-			measurementLogger.info("M-clients: {}", senders.size());
-			measurementLogger.info("M-delta: {}", delay);
-			measurementLogger.info("M-getPMRequests: {}", getPMCounter);
-			measurementLogger.info("M-getPMAvgLatency: {}", getPMAvgLatency);
-			measurementLogger.info("M-getPMBandwidth: {}", getPMBandwidth);
-			measurementLogger.info("M-getPSRequests: {}", getPSCounter);
-			measurementLogger.info("M-getPSAvgLatency: {}", getPSAvgLatency);
-			measurementLogger.info("M-getPSBandwidth: {}", getPSBandwidth);
-			measurementLogger.info("M-evictionRequests: {}", evictCounter);
-			measurementLogger.info("M-evictionAvgLatency: {}", evictionAvgLatency);
-			measurementLogger.info("M-evictionBandwidth: {}", evictionBandwidth);
-			measurementLogger.info("M-outstanding: {}", nOutstandingTreeObjects);
+			metrics.setClients(senders.size());
+			metrics.setConcurrencyLimit(concurrencyLimiter.getLimit());
+			Map<String, Long> report = metrics.report(delay);
+			for (Map.Entry<String, Long> entry : report.entrySet()) {
+				measurementLogger.info("M-{}: {}", entry.getKey(), entry.getValue());
+			}
 
 			//compute throughput
-			double getPMThroughput = getPMCounter / (delay / 1_000_000_000.0);
-			double getPSThroughput = getPSCounter / (delay / 1_000_000_000.0);
-			double evictionThroughput = evictCounter / (delay / 1_000_000_000.0);
+			double getPMThroughput = report.get("getPMRequests") / (delay / 1_000_000_000.0);
+			double getPSThroughput = report.get("getPSRequests") / (delay / 1_000_000_000.0);
+			double evictionThroughput = report.get("evictionRequests") / (delay / 1_000_000_000.0);
 
 			logger.info("Throughput: {} getPM/s, {} getPS/s, {} eviction/s | maxClients: {}", getPMThroughput,
-					getPSThroughput, evictionThroughput, MAX_N_CLIENTS);
-
-			getPMCounter = 0;
-			getPSCounter = 0;
-			evictCounter = 0;
-			getPMLatencies.clear();
-			getPSLatencies.clear();
-			evictionLatencies.clear();
-			getPMBytesSent = 0;
-			getPSBytesSent = 0;
-			evictionBytesReceived = 0;
+					getPSThroughput, evictionThroughput, concurrencyLimiter.getLimit());
 			lastPrint = end;
 		}
 	}
-
-	private long computeAverage(ArrayList<Long> values) {
-		if (values.isEmpty()) {
-			return -1;
-		}
-		long sum = values.get(0);
-		for (int i = 1; i < values.size(); i++) {
-			sum += values.get(i);
-		}
-		return sum / values.size();
-	}
 }
@@ -2,30 +2,43 @@ package oram.server;
 
 import oram.server.structure.*;
 import oram.utils.ORAMContext;
-import oram.utils.ORAMUtils;
 
 import java.util.*;
 
 public class ORAMTreeManager {
-	private final ORAMContext oramContext;
+	private final MultiVersionTree multiVersionTree;
 	protected OutstandingTree currentOutstandingTree;
-	private final Deque<OutstandingTree> unusedOutstandingTreesPool;
-	private final ArrayList<OutstandingTree> allOutstandingTreesObjects;
+	private final Deque<OutstandingTree> readOutstandingTrees;
 	private final Map<Integer, EncryptedBucket> getBucketsBuffer;
 
 	public ORAMTreeManager(ORAMContext oramContext, int versionId, EncryptedStash encryptedStash) {
-		this.oramContext = oramContext;
-		this.unusedOutstandingTreesPool = new ArrayDeque<>();
+		this.readOutstandingTrees = new ArrayDeque<>();
 		this.getBucketsBuffer = new HashMap<>();
-		int treeSize = oramContext.getTreeSize();
-		this.currentOutstandingTree = new OutstandingTree(treeSize, oramContext.getTreeLevels(), versionId,
-				encryptedStash);
-		this.allOutstandingTreesObjects = new ArrayList<>();
-		allOutstandingTreesObjects.add(currentOutstandingTree);
+		this.multiVersionTree = new MultiVersionTree(oramContext.getTreeSize(), oramContext.getTreeLevels());
+		Map<Integer, EncryptedStash> stashes = new HashMap<>();
+		Set<Integer> outstandingVersions = new HashSet<>();
+		stashes.put(versionId, encryptedStash);
+		outstandingVersions.add(versionId);
+		this.currentOutstandingTree = new OutstandingTree(multiVersionTree, 0, stashes, outstandingVersions);
 	}
 
-	public int getNOutstandingTreeObjects() {
-		return allOutstandingTreesObjects.size();
+	/**
+	 * Returns the number of tree versions from the oldest one still being read up to the current one.
+	 */
+	public int getNOutstandingTreeVersions() {
+		removeUnreadOutstandingTrees();
+		return readOutstandingTrees.size() + 1;
+	}
+
+	/**
+	 * Returns the number of bucket arrays kept for all locations and tree versions.
+	 */
+	public int getNLocationVersions() {
+		return multiVersionTree.getNLocationVersions();
+	}
+
+	public int getNOutstandingVersions() {
+		return currentOutstandingTree.getOutstandingVersions().size();
 	}
 
 	public OutstandingTree getOutstandingTree() {
@@ -33,21 +46,22 @@ public class ORAMTreeManager {
 		return currentOutstandingTree;
 	}
 
+	/**
+	 * Releases a tree version obtained with getOutstandingTree without reading a path from it.
+	 */
+	public void releaseOutstandingTree(OutstandingTree outstandingTree) {
+		outstandingTree.decreaseNPointers();
+	}
+
 	public OutstandingPath getPath(OutstandingTree outstandingTree, int[] pathLocations) {
 		OutstandingPath outstandingPath = new OutstandingPath(pathLocations.length);
 		for (int pathLocation : pathLocations) {
-			ArrayList<BucketSnapshot> outstandingTreeBucket = outstandingTree.getLocation(pathLocation);
-			Set<BucketSnapshot> outstandingBucketsSet = new HashSet<>(outstandingTreeBucket);
+			BucketSnapshot[] outstandingTreeBucket = outstandingTree.getLocation(pathLocation);
+			Set<BucketSnapshot> outstandingBucketsSet = new HashSet<>(Arrays.asList(outstandingTreeBucket));
 			outstandingPath.storeLocation(pathLocation, outstandingBucketsSet);
 		}
 
 		outstandingTree.decreaseNPointers();
-		if (outstandingTree.getNPointers() == 0 && outstandingTree != currentOutstandingTree) {
-			unusedOutstandingTreesPool.addFirst(outstandingTree);
-			outstandingTree.getStashes().clear();
-			outstandingTree.getOutstandingVersions().clear();
-		}
-
 		return outstandingPath;
 	}
 
@@ -70,68 +84,47 @@ public class ORAMTreeManager {
 
 	public void storeBuckets(int newVersionId, Map<Integer, BucketSnapshot> newBucketSnapshots, OutstandingPath outstandingPath,
 							 int[] outstandingVersions, EncryptedStash encryptedStash) {
-		OutstandingTree workingOutstandingTree = currentOutstandingTree;
-		if (workingOutstandingTree.getNPointers() > 0) {
-			workingOutstandingTree = unusedOutstandingTreesPool.pollFirst();
-			if (workingOutstandingTree == null) {
-				workingOutstandingTree = new OutstandingTree(currentOutstandingTree);
-				allOutstandingTreesObjects.add(workingOutstandingTree);
-			}
+		long newEpoch = currentOutstandingTree.getEpoch() + 1;
+		if (currentOutstandingTree.getNPointers() > 0) {
+			readOutstandingTrees.addLast(currentOutstandingTree);
 		}
+		removeUnreadOutstandingTrees();
+		OutstandingTree oldestReadOutstandingTree = readOutstandingTrees.peekFirst();
+		long oldestReadEpoch = oldestReadOutstandingTree == null ? newEpoch : oldestReadOutstandingTree.getEpoch();
 
 		//Update outstanding versions and stashes
-		Map<Integer, EncryptedStash> workingOutstandingTreeStashes = workingOutstandingTree.getStashes();
-		Set<Integer> workingOutstandingTreeOutstandingVersions = workingOutstandingTree.getOutstandingVersions();
-		workingOutstandingTreeStashes.putAll(currentOutstandingTree.getStashes());
-		workingOutstandingTreeOutstandingVersions.addAll(currentOutstandingTree.getOutstandingVersions());
+		Map<Integer, EncryptedStash> newStashes = new HashMap<>(currentOutstandingTree.getStashes());
+		Set<Integer> newOutstandingVersions = new HashSet<>(currentOutstandingTree.getOutstandingVersions());
 		for (Integer outstandingVersion : outstandingVersions) {
-			workingOutstandingTreeStashes.remove(outstandingVersion);
-			workingOutstandingTreeOutstandingVersions.remove(outstandingVersion);
-		}
-		workingOutstandingTreeStashes.put(newVersionId, encryptedStash);
-		workingOutstandingTreeOutstandingVersions.add(newVersionId);
-
-		//Update dirty locations
-		for (Integer dirtyLocation : workingOutstandingTree.getDirtyLocations()) {
-			ArrayList<BucketSnapshot> currentOutstandingLocation = currentOutstandingTree.getLocation(dirtyLocation);
-			workingOutstandingTree.updateLocation(dirtyLocation, currentOutstandingLocation);
+			newStashes.remove(outstandingVersion);
+			newOutstandingVersions.remove(outstandingVersion);
 		}
-
-		workingOutstandingTree.clearDirtyLocations();
+		newStashes.put(newVersionId, encryptedStash);
+		newOutstandingVersions.add(newVersionId);
 
 		//Update outstanding path
 		for (Map.Entry<Integer, BucketSnapshot> entry : newBucketSnapshots.entrySet()) {
-			Integer dirtyLocation = entry.getKey();
-			Set<BucketSnapshot> outstandingLocation = outstandingPath.getLocation(dirtyLocation);
-			workingOutstandingTree.updateLocation(dirtyLocation, entry.getValue(), outstandingLocation);
-
-			//mark dirty locations in outstandingTreesPool
-			for (OutstandingTree outstandingTree : allOutstandingTreesObjects) {
-				if (outstandingTree == workingOutstandingTree) {
-					continue;
-				}
-				outstandingTree.markDirtyLocation(dirtyLocation);
-			}
+			Integer location = entry.getKey();
+			Set<BucketSnapshot> outstandingLocation = outstandingPath.getLocation(location);
+			multiVersionTree.updateLocation(location, newEpoch, entry.getValue(), outstandingLocation,
+					oldestReadEpoch);
 		}
 
-		currentOutstandingTree = workingOutstandingTree;
+		currentOutstandingTree = new OutstandingTree(multiVersionTree, newEpoch, newStashes, newOutstandingVersions);
+	}
+
+	/**
+	 * Removes the oldest tree versions that no client is reading anymore. Versions are only read while they are the
+	 * current one or before, so they are kept ordered by epoch.
+	 */
+	private void removeUnreadOutstandingTrees() {
+		while (!readOutstandingTrees.isEmpty() && readOutstandingTrees.peekFirst().getNPointers() == 0) {
+			readOutstandingTrees.pollFirst();
+		}
 	}
 
 	@Override
 	public String toString() {
-		StringBuilder sb = new StringBuilder("Tree:\n");
-		int nLevels = oramContext.getTreeLevels();
-		//Write the size of each linked list in the tree
-		for (int level = 0; level < nLevels; level++) {
-			int nNodesPerLevel = (1 << level);
-			sb.append(level);
-			sb.append(": ");
-			for (int node = 0; node < nNodesPerLevel; node++) {
-				sb.append(currentOutstandingTree.getLocation(nNodesPerLevel - 1 + node).size());
-				sb.append(" ");
-			}
-			sb.append('\n');
-		}
-		return sb.toString();
+		return multiVersionTree.toString();
 	}
 }
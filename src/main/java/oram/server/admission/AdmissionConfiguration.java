@@ -0,0 +1,135 @@
+package oram.server.admission;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Admission settings of the single server, read from config/admission.config. Settings missing from the file, or
+ * the whole file, take their default values.
+ */
+public class AdmissionConfiguration {
+	private static final Logger logger = LoggerFactory.getLogger("oram");
+	private static final String CONFIGURATION_FILE = "config/admission.config";
+	private final Properties properties;
+
+	AdmissionConfiguration(Properties properties) {
+		this.properties = properties;
+	}
+
+	public static AdmissionConfiguration load() {
+		Properties properties = new Properties();
+		try (FileInputStream fis = new FileInputStream(CONFIGURATION_FILE)) {
+			properties.load(fis);
+		} catch (IOException e) {
+			logger.warn("Failed to read {}. Using the default admission configuration", CONFIGURATION_FILE);
+		}
+		return new AdmissionConfiguration(properties);
+	}
+
+	/**
+	 * Creates the limit on concurrent accesses, which is the maximum number of concurrent accesses unless adaptive.
+	 * @param maxLimit Maximum number of concurrent accesses
+	 */
+	public ConcurrencyLimiter createConcurrencyLimiter(int maxLimit) {
+		ConcurrencyLimiter concurrencyLimiter = new ConcurrencyLimiter(this,
+				getBoolean("admission.adaptive", false), maxLimit);
+		logger.info("Concurrency limiter: {}", concurrencyLimiter);
+		return concurrencyLimiter;
+	}
+
+	/**
+	 * Creates the scheduler selected by admission.scheduler, either fifo or fair.
+	 */
+	public AdmissionScheduler createAdmissionScheduler() {
+		String scheduler = getString("admission.scheduler", "fifo");
+		AdmissionScheduler admissionScheduler;
+		switch (scheduler) {
+			case "fifo":
+				admissionScheduler = new FifoAdmissionScheduler();
+				break;
+			case "fair":
+				admissionScheduler = new FairAdmissionScheduler(createClientGroups());
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown admission scheduler " + scheduler);
+		}
+		logger.info("Admission scheduler: {}", admissionScheduler);
+		return admissionScheduler;
+	}
+
+	/**
+	 * Creates the groups listed in admission.groups. Clients that do not belong to any of them form the default
+	 * group, which can also be configured.
+	 */
+	private List<ClientGroup> createClientGroups() {
+		List<ClientGroup> clientGroups = new ArrayList<>();
+		for (String name : getString("admission.groups", "").split(",")) {
+			name = name.trim();
+			if (name.isEmpty() || name.equals(ClientGroup.DEFAULT_GROUP)) {
+				continue;
+			}
+			clientGroups.add(createClientGroup(name));
+		}
+		clientGroups.add(createClientGroup(ClientGroup.DEFAULT_GROUP));
+		return clientGroups;
+	}
+
+	private ClientGroup createClientGroup(String name) {
+		String prefix = "admission.group." + name + ".";
+		int[][] clientRanges = parseClientRanges(getString(prefix + "clients", ""));
+		double weight = getDouble(prefix + "weight", 1);
+		if (weight <= 0) {
+			throw new IllegalArgumentException("Weight of client group " + name + " must be positive");
+		}
+		long deadline = getInt(prefix + "deadline", 0) * 1_000_000L;
+		int maxActive = getInt(prefix + "maxActive", 0);
+		return new ClientGroup(name, clientRanges, weight, deadline, maxActive);
+	}
+
+	/**
+	 * Parses a comma-separated list of client ids and ranges of client ids, e.g., 1-99,200.
+	 */
+	private static int[][] parseClientRanges(String clients) {
+		List<int[]> clientRanges = new ArrayList<>();
+		for (String range : clients.split(",")) {
+			range = range.trim();
+			if (range.isEmpty()) {
+				continue;
+			}
+			int separator = range.indexOf('-', 1);
+			if (separator < 0) {
+				int clientId = Integer.parseInt(range);
+				clientRanges.add(new int[]{clientId, clientId});
+			} else {
+				clientRanges.add(new int[]{Integer.parseInt(range.substring(0, separator).trim()),
+						Integer.parseInt(range.substring(separator + 1).trim())});
+			}
+		}
+		return clientRanges.toArray(new int[0][]);
+	}
+
+	String getString(String key, String defaultValue) {
+		return properties.getProperty(key, defaultValue).trim();
+	}
+
+	boolean getBoolean(String key, boolean defaultValue) {
+		String value = properties.getProperty(key);
+		return value == null ? defaultValue : Boolean.parseBoolean(value.trim());
+	}
+
+	int getInt(String key, int defaultValue) {
+		String value = properties.getProperty(key);
+		return value == null ? defaultValue : Integer.parseInt(value.trim());
+	}
+
+	double getDouble(String key, double defaultValue) {
+		String value = properties.getProperty(key);
+		return value == null ? defaultValue : Double.parseDouble(value.trim());
+	}
+}
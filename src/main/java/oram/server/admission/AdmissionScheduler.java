@@ -0,0 +1,32 @@
+package oram.server.admission;
+
+/**
+ * Orders the getPM requests waiting for their access to be admitted. Schedulers are not thread-safe, as they are
+ * used while executing requests in order.
+ */
+public interface AdmissionScheduler {
+	void add(QueuedAccess access);
+
+	/**
+	 * Removes and returns the next access to admit, or null if none of the queued accesses can be admitted.
+	 */
+	QueuedAccess poll();
+
+	boolean isEmpty();
+
+	/**
+	 * Returns the number of queued accesses.
+	 */
+	int size();
+
+	/**
+	 * Removes the queued accesses of the client.
+	 * @return Number of removed accesses
+	 */
+	int remove(int clientId);
+
+	/**
+	 * Notifies that an admitted access of the client has ended.
+	 */
+	void accessFinished(int clientId);
+}
@@ -0,0 +1,86 @@
+package oram.server.admission;
+
+import java.util.ArrayDeque;
+
+/**
+ * Clients sharing a weight, a queue deadline and a cap on their concurrent accesses, together with their queued
+ * accesses.
+ */
+class ClientGroup {
+	static final String DEFAULT_GROUP = "default";
+	private final String name;
+	private final int[][] clientRanges;
+	private final double weight;
+	private final long deadline;
+	private final int maxActive;
+	private final ArrayDeque<QueuedAccess> queue;
+	private double lastFinishTag;
+	private int nActive;
+
+	/**
+	 * @param clientRanges Inclusive ranges of the client ids in the group
+	 * @param deadline Time in nanoseconds an access may wait in the queue before being preferred (0 disables)
+	 * @param maxActive Maximum number of concurrent accesses of the group (0 disables)
+	 */
+	ClientGroup(String name, int[][] clientRanges, double weight, long deadline, int maxActive) {
+		this.name = name;
+		this.clientRanges = clientRanges;
+		this.weight = weight;
+		this.deadline = deadline;
+		this.maxActive = maxActive;
+		this.queue = new ArrayDeque<>();
+	}
+
+	String getName() {
+		return name;
+	}
+
+	boolean contains(int clientId) {
+		for (int[] clientRange : clientRanges) {
+			if (clientId >= clientRange[0] && clientId <= clientRange[1]) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	double getWeight() {
+		return weight;
+	}
+
+	long getDeadline() {
+		return deadline;
+	}
+
+	ArrayDeque<QueuedAccess> getQueue() {
+		return queue;
+	}
+
+	double getLastFinishTag() {
+		return lastFinishTag;
+	}
+
+	void setLastFinishTag(double lastFinishTag) {
+		this.lastFinishTag = lastFinishTag;
+	}
+
+	boolean canAdmit() {
+		return maxActive <= 0 || nActive < maxActive;
+	}
+
+	void accessAdmitted() {
+		nActive++;
+	}
+
+	void accessFinished() {
+		if (nActive > 0) {
+			nActive--;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "{" + name + ", weight " + weight + ", deadline " + deadline + " ns, max active "
+				+ (maxActive <= 0 ? "unlimited" : maxActive) + "}";
+	}
+}
@@ -0,0 +1,169 @@
+package oram.server.admission;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Properties;
+
+/**
+ * Limit on the number of accesses the server executes concurrently, adapted with additive increase and
+ * multiplicative decrease. Admitting more clients increases the outstanding tree versions, which makes evictions
+ * slower and the stashes and paths sent to clients larger, while admitting fewer leaves the server idle. After each
+ * window of evictions, the limit decreases if the average eviction latency or getPS bytes per path exceed their
+ * baselines by the configured tolerances, and increases by one if clients waited to be admitted. The limit never
+ * exceeds the maximum number of clients. Settings are read from config/admission.config.
+ * <p>
+ * The adapted limit depends on measured latencies, so replicas would admit clients at different points of the
+ * execution. Replicated servers must therefore use a fixed limit.
+ */
+public class ConcurrencyLimiter {
+	private static final Logger logger = LoggerFactory.getLogger("oram");
+	private static final double BASELINE_DRIFT = 1.01;
+	private final boolean adaptive;
+	private final int minLimit;
+	private final int minWindow;
+	private final double latencyTolerance;
+	private final double bytesTolerance;
+	private final double queueWaitThreshold;
+	private final double backoff;
+	private int maxLimit;
+	private int limit;
+	private double latencyBaseline;
+	private double bytesBaseline;
+
+	//Measurements of the current window
+	private int nEvictions;
+	private long evictionLatencySum;
+	private int nGetPSRequests;
+	private double bytesPerPathSum;
+	private int nAdmissions;
+	private long queueWaitSum;
+
+	/**
+	 * Creates a limiter that keeps the maximum number of concurrent accesses as the limit.
+	 */
+	public ConcurrencyLimiter(int maxLimit) {
+		this(new AdmissionConfiguration(new Properties()), false, maxLimit);
+	}
+
+	ConcurrencyLimiter(AdmissionConfiguration configuration, boolean adaptive, int maxLimit) {
+		this.adaptive = adaptive;
+		this.minLimit = Math.max(1, configuration.getInt("admission.minLimit", 1));
+		this.minWindow = Math.max(1, configuration.getInt("admission.window", 8));
+		this.latencyTolerance = configuration.getDouble("admission.latencyTolerance", 2.0);
+		this.bytesTolerance = configuration.getDouble("admission.bytesTolerance", 4.0);
+		this.queueWaitThreshold = configuration.getDouble("admission.queueWaitThreshold", 0.1);
+		this.backoff = configuration.getDouble("admission.backoff", 0.75);
+		this.maxLimit = maxLimit;
+		int initialLimit = configuration.getInt("admission.initialLimit", 1);
+		if (!adaptive || initialLimit <= 0) {
+			this.limit = maxLimit;
+		} else {
+			this.limit = Math.max(Math.min(initialLimit, maxLimit), Math.min(minLimit, maxLimit));
+		}
+	}
+
+	public synchronized int getLimit() {
+		return limit;
+	}
+
+	/**
+	 * Sets the maximum number of concurrent accesses. If the limit is not adaptive, it becomes the limit.
+	 */
+	public synchronized void setMaxLimit(int maxLimit) {
+		this.maxLimit = maxLimit;
+		if (!adaptive) {
+			updateLimit(maxLimit, "maximum changed");
+		} else if (limit > maxLimit) {
+			updateLimit(maxLimit, "maximum decreased");
+		}
+	}
+
+	/**
+	 * Records the time a client waited in the queue until its access was admitted.
+	 */
+	public synchronized void recordAdmission(long queueWait) {
+		nAdmissions++;
+		queueWaitSum += queueWait;
+	}
+
+	/**
+	 * Records the size of the stashes and paths sent to a client. It might be called from any thread.
+	 */
+	public synchronized void recordGetStashesAndPaths(int nBytes, int nPaths) {
+		if (nBytes == 0 || nPaths == 0) {
+			return;
+		}
+		nGetPSRequests++;
+		bytesPerPathSum += (double) nBytes / nPaths;
+	}
+
+	/**
+	 * Records the time taken to perform an eviction and adapts the limit at the end of each window.
+	 */
+	public synchronized void recordEviction(long latency) {
+		if (!adaptive) {
+			return;
+		}
+		nEvictions++;
+		evictionLatencySum += latency;
+		if (nEvictions >= Math.max(minWindow, limit)) {
+			adaptLimit();
+		}
+	}
+
+	private void adaptLimit() {
+		double evictionLatency = (double) evictionLatencySum / nEvictions;
+		double bytesPerPath = nGetPSRequests == 0 ? 0 : bytesPerPathSum / nGetPSRequests;
+		double queueWait = nAdmissions == 0 ? 0 : (double) queueWaitSum / nAdmissions;
+		latencyBaseline = updateBaseline(latencyBaseline, evictionLatency);
+		bytesBaseline = updateBaseline(bytesBaseline, bytesPerPath);
+
+		String reason = String.format("eviction latency %.0f ns (baseline %.0f), getPS %.0f B/path (baseline %.0f), " +
+				"queue wait %.0f ns", evictionLatency, latencyBaseline, bytesPerPath, bytesBaseline, queueWait);
+		if (evictionLatency > latencyBaseline * latencyTolerance || bytesPerPath > bytesBaseline * bytesTolerance) {
+			updateLimit(Math.max(minLimit, (int) (limit * backoff)), reason);
+		} else if (queueWait > evictionLatency * queueWaitThreshold) {
+			updateLimit(limit + 1, reason);
+		}
+
+		nEvictions = 0;
+		evictionLatencySum = 0;
+		nGetPSRequests = 0;
+		bytesPerPathSum = 0;
+		nAdmissions = 0;
+		queueWaitSum = 0;
+	}
+
+	/**
+	 * Returns the lowest window average, which rises slowly so that the baseline follows lasting workload changes.
+	 */
+	private static double updateBaseline(double baseline, double windowAverage) {
+		if (windowAverage == 0) {
+			return baseline;
+		}
+		if (baseline == 0) {
+			return windowAverage;
+		}
+		return Math.min(windowAverage, baseline * BASELINE_DRIFT);
+	}
+
+	private void updateLimit(int newLimit, String reason) {
+		newLimit = Math.max(1, Math.min(newLimit, maxLimit));
+		if (newLimit == limit) {
+			return;
+		}
+		logger.info("Concurrency limit changed from {} to {}: {}", limit, newLimit, reason);
+		limit = newLimit;
+	}
+
+	@Override
+	public String toString() {
+		if (!adaptive) {
+			return "{fixed limit " + limit + "}";
+		}
+		return "{adaptive limit " + limit + ", minimum " + minLimit + ", maximum " + maxLimit + ", window "
+				+ minWindow + ", latency tolerance " + latencyTolerance + ", bytes tolerance " + bytesTolerance
+				+ ", queue wait threshold " + queueWaitThreshold + ", backoff " + backoff + "}";
+	}
+}
@@ -0,0 +1,129 @@
+package oram.server.admission;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shares the admitted accesses among client groups in proportion to their weights, with start-time fair queuing.
+ * Each queued access is tagged with the virtual time at which its group would finish it, and the access with the
+ * lowest tag among the heads of the group queues is admitted. Groups idle for a while do not accumulate credit, as
+ * their new accesses start at the current virtual time. Accesses that waited longer than the deadline of their
+ * group are admitted first, earliest deadline first, and groups with as many concurrent accesses as their cap are
+ * skipped. Within a group, accesses are admitted in arrival order.
+ */
+public class FairAdmissionScheduler implements AdmissionScheduler {
+	private final List<ClientGroup> clientGroups;
+	private final ClientGroup defaultGroup;
+	private final Map<Integer, ClientGroup> clientGroupCache;
+	private double virtualTime;
+	private int nQueued;
+
+	/**
+	 * @param clientGroups Groups of clients, the last of which holds the clients that do not belong to any other
+	 */
+	FairAdmissionScheduler(List<ClientGroup> clientGroups) {
+		this.clientGroups = clientGroups;
+		this.defaultGroup = clientGroups.get(clientGroups.size() - 1);
+		this.clientGroupCache = new HashMap<>();
+	}
+
+	@Override
+	public void add(QueuedAccess access) {
+		ClientGroup clientGroup = getClientGroup(access.getMsgCtx().getSender());
+		double finishTag = Math.max(virtualTime, clientGroup.getLastFinishTag()) + 1 / clientGroup.getWeight();
+		clientGroup.setLastFinishTag(finishTag);
+		access.setGroup(clientGroup.getName());
+		access.setFinishTag(finishTag);
+		if (clientGroup.getDeadline() > 0) {
+			access.setDeadline(access.getArrivalTime() + clientGroup.getDeadline());
+		}
+		clientGroup.getQueue().addLast(access);
+		nQueued++;
+	}
+
+	@Override
+	public QueuedAccess poll() {
+		if (nQueued == 0) {
+			return null;
+		}
+		long now = System.nanoTime();
+		ClientGroup selectedGroup = null;
+		QueuedAccess selectedAccess = null;
+		boolean isSelectedOverdue = false;
+		for (ClientGroup clientGroup : clientGroups) {
+			QueuedAccess access = clientGroup.getQueue().peekFirst();
+			if (access == null || !clientGroup.canAdmit()) {
+				continue;
+			}
+			boolean isOverdue = access.hasDeadline() && now - access.getDeadline() >= 0;
+			boolean isPreferred;
+			if (selectedAccess == null || isOverdue != isSelectedOverdue) {
+				isPreferred = selectedAccess == null || isOverdue;
+			} else if (isOverdue) {
+				isPreferred = access.getDeadline() - selectedAccess.getDeadline() < 0;
+			} else {
+				isPreferred = access.getFinishTag() < selectedAccess.getFinishTag();
+			}
+			if (isPreferred) {
+				selectedGroup = clientGroup;
+				selectedAccess = access;
+				isSelectedOverdue = isOverdue;
+			}
+		}
+		if (selectedGroup == null) {
+			return null;
+		}
+		selectedGroup.getQueue().pollFirst();
+		selectedGroup.accessAdmitted();
+		virtualTime = Math.max(virtualTime, selectedAccess.getFinishTag() - 1 / selectedGroup.getWeight());
+		nQueued--;
+		return selectedAccess;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return nQueued == 0;
+	}
+
+	@Override
+	public int size() {
+		return nQueued;
+	}
+
+	@Override
+	public int remove(int clientId) {
+		ArrayDeque<QueuedAccess> queue = getClientGroup(clientId).getQueue();
+		int size = queue.size();
+		queue.removeIf(access -> access.getMsgCtx().getSender() == clientId);
+		int nRemoved = size - queue.size();
+		nQueued -= nRemoved;
+		return nRemoved;
+	}
+
+	@Override
+	public void accessFinished(int clientId) {
+		getClientGroup(clientId).accessFinished();
+	}
+
+	private ClientGroup getClientGroup(int clientId) {
+		ClientGroup clientGroup = clientGroupCache.get(clientId);
+		if (clientGroup == null) {
+			clientGroup = defaultGroup;
+			for (ClientGroup group : clientGroups) {
+				if (group.contains(clientId)) {
+					clientGroup = group;
+					break;
+				}
+			}
+			clientGroupCache.put(clientId, clientGroup);
+		}
+		return clientGroup;
+	}
+
+	@Override
+	public String toString() {
+		return "{fair, groups " + clientGroups + "}";
+	}
+}
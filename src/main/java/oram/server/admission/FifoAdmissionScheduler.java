@@ -0,0 +1,50 @@
+package oram.server.admission;
+
+import java.util.ArrayDeque;
+
+/**
+ * Admits accesses in the order their getPM requests were received.
+ */
+public class FifoAdmissionScheduler implements AdmissionScheduler {
+	private final ArrayDeque<QueuedAccess> queue;
+
+	public FifoAdmissionScheduler() {
+		this.queue = new ArrayDeque<>();
+	}
+
+	@Override
+	public void add(QueuedAccess access) {
+		queue.addLast(access);
+	}
+
+	@Override
+	public QueuedAccess poll() {
+		return queue.poll();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return queue.isEmpty();
+	}
+
+	@Override
+	public int size() {
+		return queue.size();
+	}
+
+	@Override
+	public int remove(int clientId) {
+		int size = queue.size();
+		queue.removeIf(access -> access.getMsgCtx().getSender() == clientId);
+		return size - queue.size();
+	}
+
+	@Override
+	public void accessFinished(int clientId) {
+	}
+
+	@Override
+	public String toString() {
+		return "{fifo}";
+	}
+}
@@ -0,0 +1,68 @@
+package oram.server.admission;
+
+import bftsmart.tom.MessageContext;
+import oram.messages.GetPathMaps;
+
+/**
+ * getPM request waiting for its access to be admitted.
+ */
+public class QueuedAccess {
+	private final MessageContext msgCtx;
+	private final GetPathMaps request;
+	private final long arrivalTime;
+	private String group;
+	private double finishTag;
+	private long deadline;
+	private boolean hasDeadline;
+
+	public QueuedAccess(MessageContext msgCtx, GetPathMaps request, long arrivalTime) {
+		this.msgCtx = msgCtx;
+		this.request = request;
+		this.arrivalTime = arrivalTime;
+		this.group = ClientGroup.DEFAULT_GROUP;
+	}
+
+	public MessageContext getMsgCtx() {
+		return msgCtx;
+	}
+
+	public GetPathMaps getRequest() {
+		return request;
+	}
+
+	public long getArrivalTime() {
+		return arrivalTime;
+	}
+
+	/**
+	 * Returns the name of the client group in which the access was queued.
+	 */
+	public String getGroup() {
+		return group;
+	}
+
+	void setGroup(String group) {
+		this.group = group;
+	}
+
+	double getFinishTag() {
+		return finishTag;
+	}
+
+	void setFinishTag(double finishTag) {
+		this.finishTag = finishTag;
+	}
+
+	long getDeadline() {
+		return deadline;
+	}
+
+	boolean hasDeadline() {
+		return hasDeadline;
+	}
+
+	void setDeadline(long deadline) {
+		this.deadline = deadline;
+		this.hasDeadline = true;
+	}
+}
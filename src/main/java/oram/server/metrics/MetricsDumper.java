@@ -0,0 +1,76 @@
+package oram.server.metrics;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Map;
+
+/**
+ * Appends the metrics of each report interval to a file, either as one JSON object per line or as CSV rows of
+ * timestamp, metric and value. The CSV file has a row per metric instead of a column, as the reported metrics vary,
+ * e.g., with the client groups whose requests were queued.
+ */
+class MetricsDumper {
+	private final boolean json;
+	private final PrintWriter writer;
+
+	/**
+	 * @param format Either json or csv
+	 */
+	MetricsDumper(String format, String fileName) throws IOException {
+		if (!format.equals("json") && !format.equals("csv")) {
+			throw new IllegalArgumentException("Unknown metrics dump format " + format);
+		}
+		this.json = format.equals("json");
+		File file = new File(fileName);
+		File directory = file.getAbsoluteFile().getParentFile();
+		if (directory != null && !directory.exists() && !directory.mkdirs()) {
+			throw new IOException("Failed to create directory " + directory);
+		}
+		boolean isEmpty = file.length() == 0;
+		this.writer = new PrintWriter(new BufferedWriter(new FileWriter(file, true)));
+		if (!json && isEmpty) {
+			writer.println("timestamp,metric,value");
+			writer.flush();
+		}
+	}
+
+	void dump(Map<String, Long> report) {
+		long timestamp = System.currentTimeMillis();
+		if (json) {
+			StringBuilder sb = new StringBuilder("{\"timestamp\":");
+			sb.append(timestamp);
+			sb.append(",\"metrics\":{");
+			boolean isFirst = true;
+			for (Map.Entry<String, Long> entry : report.entrySet()) {
+				if (!isFirst) {
+					sb.append(',');
+				}
+				isFirst = false;
+				sb.append('"');
+				appendEscaped(sb, entry.getKey());
+				sb.append("\":");
+				sb.append(entry.getValue());
+			}
+			sb.append("}}");
+			writer.println(sb);
+		} else {
+			for (Map.Entry<String, Long> entry : report.entrySet()) {
+				writer.println(timestamp + "," + entry.getKey() + "," + entry.getValue());
+			}
+		}
+		writer.flush();
+	}
+
+	private static void appendEscaped(StringBuilder sb, String value) {
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\') {
+				sb.append('\\');
+			}
+			sb.append(c);
+		}
+	}
+}
@@ -0,0 +1,289 @@
+package oram.server.metrics;
+
+import oram.utils.LatencyHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms, byte counters and gauges of the ORAM service. Latencies and bytes can be recorded from any
+ * thread without locking, while gauges are set by the thread that changes them. The service collects the metrics of
+ * each report interval into a report, which is also exposed through JMX and, if configured in config/metrics.config,
+ * appended to a dump file.
+ */
+public class ServerMetrics implements ServerMetricsMXBean {
+	private static final Logger logger = LoggerFactory.getLogger("oram");
+	private static final String CONFIGURATION_FILE = "config/metrics.config";
+	private static final String OBJECT_NAME = "oram:type=ServerMetrics";
+	private final OperationMetrics getPMMetrics;
+	private final OperationMetrics getPSMetrics;
+	private final OperationMetrics evictionMetrics;
+	private final Map<String, LatencyHistogram> queueWaitHistograms;
+	private MetricsDumper metricsDumper;
+	private volatile int clients;
+	private volatile int queueDepth;
+	private volatile int activeClients;
+	private volatile int concurrencyLimit;
+	private volatile int pendingEvictions;
+	private volatile int outstandingTreeVersions;
+	private volatile int retainedPathMaps;
+	private volatile long retainedPathMapsBytes;
+	private volatile Map<String, Long> lastInterval;
+
+	private static class OperationMetrics {
+		private final String name;
+		private final LatencyHistogram latencies;
+		private final LongAdder intervalBytes;
+		private final LongAdder totalRequests;
+		private final LongAdder totalBytes;
+
+		private OperationMetrics(String name) {
+			this.name = name;
+			this.latencies = new LatencyHistogram();
+			this.intervalBytes = new LongAdder();
+			this.totalRequests = new LongAdder();
+			this.totalBytes = new LongAdder();
+		}
+
+		private void record(long latency) {
+			latencies.record(latency);
+			totalRequests.increment();
+		}
+
+		private void recordBytes(long nBytes) {
+			intervalBytes.add(nBytes);
+			totalBytes.add(nBytes);
+		}
+
+		private void addToReport(Map<String, Long> report, long interval) {
+			LatencyHistogram.Snapshot snapshot = latencies.getIntervalSnapshot();
+			report.put(name + "Requests", snapshot.getTotalCount());
+			report.put(name + "AvgLatency", snapshot.getMean());
+			report.put(name + "Bandwidth", (long) (intervalBytes.sumThenReset() / (interval / 1_000_000_000.0)));
+			addPercentiles(report, name + "Latency-", snapshot);
+		}
+	}
+
+	public ServerMetrics() {
+		this.getPMMetrics = new OperationMetrics("getPM");
+		this.getPSMetrics = new OperationMetrics("getPS");
+		this.evictionMetrics = new OperationMetrics("eviction");
+		this.queueWaitHistograms = new ConcurrentSkipListMap<>();
+		this.lastInterval = Collections.emptyMap();
+	}
+
+	/**
+	 * Creates the metrics and, as configured, registers them in the platform MBean server and opens the dump file.
+	 * Settings missing from the configuration file, or the whole file, take their default values.
+	 */
+	public static ServerMetrics fromConfiguration() {
+		Properties properties = new Properties();
+		try (FileInputStream fis = new FileInputStream(CONFIGURATION_FILE)) {
+			properties.load(fis);
+		} catch (IOException e) {
+			logger.warn("Failed to read {}. Using the default metrics configuration", CONFIGURATION_FILE);
+		}
+		ServerMetrics serverMetrics = new ServerMetrics();
+		if (Boolean.parseBoolean(properties.getProperty("metrics.jmx", "true").trim())) {
+			serverMetrics.registerMBean();
+		}
+		String format = properties.getProperty("metrics.dump.format", "none").trim();
+		if (!format.equals("none")) {
+			String fileName = properties.getProperty("metrics.dump.file", "server-metrics." + format).trim();
+			try {
+				serverMetrics.metricsDumper = new MetricsDumper(format, fileName);
+				logger.info("Dumping server metrics to {}", fileName);
+			} catch (IOException e) {
+				logger.warn("Failed to open metrics dump file {}", fileName, e);
+			}
+		}
+		return serverMetrics;
+	}
+
+	private void registerMBean() {
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+		} catch (InstanceAlreadyExistsException e) {
+			logger.warn("Metrics of another ORAM service are already registered as {}", OBJECT_NAME);
+		} catch (JMException e) {
+			logger.warn("Failed to register server metrics as {}", OBJECT_NAME, e);
+		}
+	}
+
+	public void recordGetPM(long latency, int nBytesSent) {
+		getPMMetrics.record(latency);
+		getPMMetrics.recordBytes(nBytesSent);
+	}
+
+	public void recordGetPS(long latency, int nBytesSent) {
+		getPSMetrics.record(latency);
+		getPSMetrics.recordBytes(nBytesSent);
+	}
+
+	public void recordEviction(long latency) {
+		evictionMetrics.record(latency);
+	}
+
+	/**
+	 * Records the bytes of an eviction request, which are received before the eviction is performed.
+	 */
+	public void recordEvictionBytes(int nBytesReceived) {
+		evictionMetrics.recordBytes(nBytesReceived);
+	}
+
+	public void recordQueueWait(String group, long queueWait) {
+		queueWaitHistograms.computeIfAbsent(group, g -> new LatencyHistogram()).record(queueWait);
+	}
+
+	public void setClients(int clients) {
+		this.clients = clients;
+	}
+
+	public void setQueueDepth(int queueDepth) {
+		this.queueDepth = queueDepth;
+	}
+
+	public void setActiveClients(int activeClients) {
+		this.activeClients = activeClients;
+	}
+
+	public void setConcurrencyLimit(int concurrencyLimit) {
+		this.concurrencyLimit = concurrencyLimit;
+	}
+
+	public void setPendingEvictions(int pendingEvictions) {
+		this.pendingEvictions = pendingEvictions;
+	}
+
+	public void setOutstandingTreeVersions(int outstandingTreeVersions) {
+		this.outstandingTreeVersions = outstandingTreeVersions;
+	}
+
+	public void setRetainedPathMaps(int retainedPathMaps, long retainedPathMapsBytes) {
+		this.retainedPathMaps = retainedPathMaps;
+		this.retainedPathMapsBytes = retainedPathMapsBytes;
+	}
+
+	/**
+	 * Collects the metrics of the interval that ends now, and starts a new one. Metrics are named as the measurements
+	 * logged by the service, i.e., without the M- prefix. Latencies are in nanoseconds and bandwidths in bytes per
+	 * second. Must not be called concurrently.
+	 * @param interval Duration of the interval in nanoseconds
+	 */
+	public Map<String, Long> report(long interval) {
+		Map<String, Long> report = new LinkedHashMap<>();
+		report.put("clients", (long) clients);
+		report.put("delta", interval);
+		getPMMetrics.addToReport(report, interval);
+		getPSMetrics.addToReport(report, interval);
+		evictionMetrics.addToReport(report, interval);
+		report.put("outstanding", (long) outstandingTreeVersions);
+		report.put("pathMaps", (long) retainedPathMaps);
+		report.put("pathMapsBytes", retainedPathMapsBytes);
+		report.put("queueDepth", (long) queueDepth);
+		report.put("activeClients", (long) activeClients);
+		report.put("concurrencyLimit", (long) concurrencyLimit);
+		report.put("pendingEvictions", (long) pendingEvictions);
+		for (Map.Entry<String, LatencyHistogram> entry : queueWaitHistograms.entrySet()) {
+			LatencyHistogram.Snapshot snapshot = entry.getValue().getIntervalSnapshot();
+			if (snapshot.getTotalCount() > 0) {
+				addPercentiles(report, "queueWait-" + entry.getKey() + "-", snapshot);
+			}
+		}
+		lastInterval = Collections.unmodifiableMap(report);
+		if (metricsDumper != null) {
+			metricsDumper.dump(report);
+		}
+		return report;
+	}
+
+	private static void addPercentiles(Map<String, Long> report, String prefix, LatencyHistogram.Snapshot snapshot) {
+		report.put(prefix + "p50", snapshot.getValueAtPercentile(50));
+		report.put(prefix + "p90", snapshot.getValueAtPercentile(90));
+		report.put(prefix + "p99", snapshot.getValueAtPercentile(99));
+		report.put(prefix + "p999", snapshot.getValueAtPercentile(99.9));
+		report.put(prefix + "max", snapshot.getMax());
+	}
+
+	@Override
+	public long getGetPMRequests() {
+		return getPMMetrics.totalRequests.sum();
+	}
+
+	@Override
+	public long getGetPSRequests() {
+		return getPSMetrics.totalRequests.sum();
+	}
+
+	@Override
+	public long getEvictionRequests() {
+		return evictionMetrics.totalRequests.sum();
+	}
+
+	@Override
+	public long getGetPMBytesSent() {
+		return getPMMetrics.totalBytes.sum();
+	}
+
+	@Override
+	public long getGetPSBytesSent() {
+		return getPSMetrics.totalBytes.sum();
+	}
+
+	@Override
+	public long getEvictionBytesReceived() {
+		return evictionMetrics.totalBytes.sum();
+	}
+
+	@Override
+	public int getQueueDepth() {
+		return queueDepth;
+	}
+
+	@Override
+	public int getActiveClients() {
+		return activeClients;
+	}
+
+	@Override
+	public int getConcurrencyLimit() {
+		return concurrencyLimit;
+	}
+
+	@Override
+	public int getPendingEvictions() {
+		return pendingEvictions;
+	}
+
+	@Override
+	public int getOutstandingTreeVersions() {
+		return outstandingTreeVersions;
+	}
+
+	@Override
+	public int getRetainedPathMaps() {
+		return retainedPathMaps;
+	}
+
+	@Override
+	public long getRetainedPathMapsBytes() {
+		return retainedPathMapsBytes;
+	}
+
+	@Override
+	public Map<String, Long> getLastInterval() {
+		return lastInterval;
+	}
+}
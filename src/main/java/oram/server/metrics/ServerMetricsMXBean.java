@@ -0,0 +1,37 @@
+package oram.server.metrics;
+
+import java.util.Map;
+
+/**
+ * Server metrics exposed through JMX. Request and byte counts are totals since the server started, while the last
+ * interval holds the metrics reported at the end of the latest report interval.
+ */
+public interface ServerMetricsMXBean {
+	long getGetPMRequests();
+
+	long getGetPSRequests();
+
+	long getEvictionRequests();
+
+	long getGetPMBytesSent();
+
+	long getGetPSBytesSent();
+
+	long getEvictionBytesReceived();
+
+	int getQueueDepth();
+
+	int getActiveClients();
+
+	int getConcurrencyLimit();
+
+	int getPendingEvictions();
+
+	int getOutstandingTreeVersions();
+
+	int getRetainedPathMaps();
+
+	long getRetainedPathMapsBytes();
+
+	Map<String, Long> getLastInterval();
+}
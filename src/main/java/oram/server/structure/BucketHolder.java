@@ -2,6 +2,9 @@ package oram.server.structure;
 
 import java.util.*;
 
+/**
+ * Bucket versions of a tree location, as sent in debug snapshots.
+ */
 public class BucketHolder {
 	private final ArrayList<BucketSnapshot> outstandingBuckets;
 
@@ -13,17 +16,6 @@ public class BucketHolder {
 		this.outstandingBuckets = new ArrayList<>(outstandingBucketsVersions);
 	}
 
-	public void update(ArrayList<BucketSnapshot> outstandingLocation) {
-		outstandingBuckets.clear();
-		outstandingBuckets.addAll(outstandingLocation);
-	}
-
-	public void addSnapshot(BucketSnapshot snapshot, Set<BucketSnapshot> outstandingVersions) {
-		outstandingBuckets.removeIf(outstandingVersions::contains);
-
-		outstandingBuckets.add(snapshot);
-	}
-
 	public ArrayList<BucketSnapshot> getOutstandingBucketsVersions() {
 		return outstandingBuckets;
 	}
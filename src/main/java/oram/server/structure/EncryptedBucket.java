@@ -1,5 +1,7 @@
 package oram.server.structure;
 
+import io.netty.buffer.ByteBuf;
+import oram.utils.CompositeByteBufWriter;
 import oram.utils.ORAMUtils;
 import oram.utils.RawCustomExternalizable;
 
@@ -51,6 +53,17 @@ public class EncryptedBucket implements RawCustomExternalizable {
 		return offset;
 	}
 
+	/**
+	 * Writes the same bytes as writeExternal, referencing the encrypted blocks instead of copying them.
+	 */
+	public void writeExternal(CompositeByteBufWriter output) {
+		output.writeInt(location);
+		for (byte[] block : blocks) {
+			output.writeInt(block.length);
+			output.writeBytes(block);
+		}
+	}
+
 	@Override
 	public int readExternal(byte[] input, int startOffset) {
 		int offset = startOffset;
@@ -69,6 +82,18 @@ public class EncryptedBucket implements RawCustomExternalizable {
 		return offset;
 	}
 
+	/**
+	 * Deserializes the object from the input buffer, advancing its reader index.
+	 */
+	public void readExternal(ByteBuf input) {
+		location = input.readInt();
+		for (int i = 0; i < blocks.length; i++) {
+			int len = input.readInt();
+			blocks[i] = new byte[len];
+			input.readBytes(blocks[i]);
+		}
+	}
+
 	@Override
 	public String toString() {
 		return String.valueOf(Arrays.deepHashCode(blocks));
@@ -1,5 +1,6 @@
 package oram.server.structure;
 
+import io.netty.buffer.ByteBuf;
 import oram.utils.ORAMUtils;
 import oram.utils.RawCustomExternalizable;
 
@@ -49,4 +50,15 @@ public class EncryptedPathMap implements RawCustomExternalizable {
 		}
 		return offset;
 	}
+
+	/**
+	 * Deserializes the object from the input buffer, advancing its reader index.
+	 */
+	public void readExternal(ByteBuf input) {
+		int len = input.readInt();
+		if (len != -1) {
+			encryptedPathMap = new byte[len];
+			input.readBytes(encryptedPathMap);
+		}
+	}
 }
@@ -9,12 +9,33 @@ import java.util.Map;
 public class EncryptedPathMaps implements RawCustomExternalizable {
 	private int newVersionId;
 	private Map<Integer, EncryptedPathMap> encryptedPathMaps;
+	private int checkpointVersion;
+	private EncryptedPositionMap positionMapCheckpoint;
 
 	public EncryptedPathMaps(){}
 
 	public EncryptedPathMaps(int newVersionId, Map<Integer, EncryptedPathMap> encryptedPathMaps) {
+		this(newVersionId, encryptedPathMaps, ORAMUtils.DUMMY_VERSION, null);
+	}
+
+	public EncryptedPathMaps(int newVersionId, Map<Integer, EncryptedPathMap> encryptedPathMaps,
+							 int checkpointVersion, EncryptedPositionMap positionMapCheckpoint) {
 		this.newVersionId = newVersionId;
 		this.encryptedPathMaps = encryptedPathMaps;
+		this.checkpointVersion = checkpointVersion;
+		this.positionMapCheckpoint = positionMapCheckpoint;
+	}
+
+	/**
+	 * Returns the position map checkpoint sent instead of older path maps.
+	 * @return Encrypted position map or null if no checkpoint was sent
+	 */
+	public EncryptedPositionMap getPositionMapCheckpoint() {
+		return positionMapCheckpoint;
+	}
+
+	public int getCheckpointVersion() {
+		return checkpointVersion;
 	}
 
 	public Map<Integer, EncryptedPathMap> getEncryptedPathMaps() {
@@ -26,7 +47,10 @@ public class EncryptedPathMaps implements RawCustomExternalizable {
 	}
 
 	public int getSerializedSize() {
-		int size = Integer.BYTES * 2;
+		int size = Integer.BYTES * 3;
+		if (positionMapCheckpoint != null) {
+			size += positionMapCheckpoint.getSerializedSize();
+		}
 		for (Map.Entry<Integer, EncryptedPathMap> entry : encryptedPathMaps.entrySet()) {
 			size += Integer.BYTES + entry.getValue().getSerializedSize();
 		}
@@ -41,6 +65,14 @@ public class EncryptedPathMaps implements RawCustomExternalizable {
 		ORAMUtils.serializeInteger(newVersionId, output, offset);
 		offset += Integer.BYTES;
 
+		//Serialize position map checkpoint
+		ORAMUtils.serializeInteger(positionMapCheckpoint == null ? ORAMUtils.DUMMY_VERSION : checkpointVersion,
+				output, offset);
+		offset += Integer.BYTES;
+		if (positionMapCheckpoint != null) {
+			offset = positionMapCheckpoint.writeExternal(output, offset);
+		}
+
 		//Serialize encrypted position maps. Entries are serialized in increasing order of their keys
 		ORAMUtils.serializeInteger(encryptedPathMaps.size(), output, offset);
 		offset += Integer.BYTES;
@@ -64,6 +96,14 @@ public class EncryptedPathMaps implements RawCustomExternalizable {
 		newVersionId = ORAMUtils.deserializeInteger(input, offset);
 		offset += Integer.BYTES;
 
+		//Deserialize position map checkpoint
+		checkpointVersion = ORAMUtils.deserializeInteger(input, offset);
+		offset += Integer.BYTES;
+		if (checkpointVersion != ORAMUtils.DUMMY_VERSION) {
+			positionMapCheckpoint = new EncryptedPositionMap();
+			offset = positionMapCheckpoint.readExternal(input, offset);
+		}
+
 		//Deserialize encrypted position maps
 		int encryptedPositionMapsSize = ORAMUtils.deserializeInteger(input, offset);
 		offset += Integer.BYTES;
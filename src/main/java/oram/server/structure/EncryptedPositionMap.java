@@ -24,8 +24,7 @@ public class EncryptedPositionMap implements RawCustomExternalizable {
 	public int writeExternal(byte[] output, int startOffset) {
 		int offset = startOffset;
 
-		byte[] lenBytes = ORAMUtils.toBytes(encryptedPositionMap == null ? -1 : encryptedPositionMap.length);
-		System.arraycopy(lenBytes, 0, output, offset, 4);
+		ORAMUtils.serializeInteger(encryptedPositionMap == null ? -1 : encryptedPositionMap.length, output, offset);
 		offset += 4;
 
 		if (encryptedPositionMap != null) {
@@ -39,10 +38,8 @@ public class EncryptedPositionMap implements RawCustomExternalizable {
 	@Override
 	public int readExternal(byte[] input, int startOffset) {
 		int offset = startOffset;
-		byte[] lenBytes = new byte[4];
-		System.arraycopy(input, offset, lenBytes, 0, 4);
+		int len = ORAMUtils.deserializeInteger(input, offset);
 		offset += 4;
-		int len = ORAMUtils.toNumber(lenBytes);
 		if (len != -1) {
 			encryptedPositionMap = new byte[len];
 			System.arraycopy(input, offset, encryptedPositionMap, 0, len);
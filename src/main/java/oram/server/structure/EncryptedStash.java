@@ -1,5 +1,7 @@
 package oram.server.structure;
 
+import io.netty.buffer.ByteBuf;
+import oram.utils.CompositeByteBufWriter;
 import oram.utils.ORAMUtils;
 import oram.utils.RawCustomExternalizable;
 
@@ -26,8 +28,7 @@ public class EncryptedStash implements RawCustomExternalizable {
 	public int writeExternal(byte[] output, int startOffset) {
 		int offset = startOffset;
 
-		byte[] lenBytes = ORAMUtils.toBytes(encryptedStash == null ? -1 : encryptedStash.length);
-		System.arraycopy(lenBytes, 0, output, offset, 4);
+		ORAMUtils.serializeInteger(encryptedStash == null ? -1 : encryptedStash.length, output, offset);
 		offset += 4;
 
 		if (encryptedStash != null) {
@@ -38,13 +39,21 @@ public class EncryptedStash implements RawCustomExternalizable {
 		return offset;
 	}
 
+	/**
+	 * Writes the same bytes as writeExternal, referencing the encrypted stash instead of copying it.
+	 */
+	public void writeExternal(CompositeByteBufWriter output) {
+		output.writeInt(encryptedStash == null ? -1 : encryptedStash.length);
+		if (encryptedStash != null) {
+			output.writeBytes(encryptedStash);
+		}
+	}
+
 	@Override
 	public int readExternal(byte[] input, int startOffset) {
 		int offset = startOffset;
-		byte[] lenBytes = new byte[4];
-		System.arraycopy(input, offset, lenBytes, 0, 4);
+		int len = ORAMUtils.deserializeInteger(input, offset);
 		offset += 4;
-		int len = ORAMUtils.toNumber(lenBytes);
 		if (len != -1) {
 			encryptedStash = new byte[len];
 			System.arraycopy(input, offset, encryptedStash, 0, len);
@@ -53,6 +62,17 @@ public class EncryptedStash implements RawCustomExternalizable {
 		return offset;
 	}
 
+	/**
+	 * Deserializes the object from the input buffer, advancing its reader index.
+	 */
+	public void readExternal(ByteBuf input) {
+		int len = input.readInt();
+		if (len != -1) {
+			encryptedStash = new byte[len];
+			input.readBytes(encryptedStash);
+		}
+	}
+
 	@Override
 	public String toString() {
 		return Arrays.toString(encryptedStash);
@@ -1,5 +1,7 @@
 package oram.server.structure;
 
+import io.netty.buffer.ByteBuf;
+import oram.utils.CompositeByteBufWriter;
 import oram.utils.ORAMContext;
 import oram.utils.ORAMUtils;
 import oram.utils.RawCustomExternalizable;
@@ -50,8 +52,7 @@ public class EncryptedStashesAndPaths implements RawCustomExternalizable {
 		int offset = startOffset;
 
 		// Serialize encrypted stashes
-		byte[] encryptedStashesSizeBytes = ORAMUtils.toBytes(encryptedStashes.size());
-		System.arraycopy(encryptedStashesSizeBytes, 0, output, offset, 4);
+		ORAMUtils.serializeInteger(encryptedStashes.size(), output, offset);
 		offset += 4;
 
 		int[] keys = new int[encryptedStashes.size()];
@@ -62,16 +63,14 @@ public class EncryptedStashesAndPaths implements RawCustomExternalizable {
 		Arrays.sort(keys);
 
 		for (int key : keys) {
-			byte[] keyBytes = ORAMUtils.toBytes(key);
-			System.arraycopy(keyBytes, 0, output, offset, 4);
+			ORAMUtils.serializeInteger(key, output, offset);
 			offset += 4;
 
 			offset = encryptedStashes.get(key).writeExternal(output, offset);
 		}
 
 		// Serialize encrypted paths
-		byte[] pathsSizeBytes = ORAMUtils.toBytes(paths.length);
-		System.arraycopy(pathsSizeBytes, 0, output, offset, 4);
+		ORAMUtils.serializeInteger(paths.length, output, offset);
 		offset += 4;
 		for (EncryptedBucket encryptedBucket : paths) {
 			if (encryptedBucket == null) {
@@ -85,41 +84,83 @@ public class EncryptedStashesAndPaths implements RawCustomExternalizable {
 		return offset;
 	}
 
+	/**
+	 * Serializes the stashes and paths as writeExternal does, into a buffer that references the encrypted stashes
+	 * and blocks instead of copying them.
+	 */
+	public ByteBuf writeExternal() {
+		CompositeByteBufWriter output = new CompositeByteBufWriter();
+
+		// Serialize encrypted stashes
+		output.writeInt(encryptedStashes.size());
+		int[] keys = new int[encryptedStashes.size()];
+		int k = 0;
+		for (Integer key : encryptedStashes.keySet()) {
+			keys[k++] = key;
+		}
+		Arrays.sort(keys);
+		for (int key : keys) {
+			output.writeInt(key);
+			encryptedStashes.get(key).writeExternal(output);
+		}
+
+		// Serialize encrypted paths
+		output.writeInt(paths.length);
+		for (EncryptedBucket encryptedBucket : paths) {
+			if (encryptedBucket == null) {
+				output.writeByte(0);
+			} else {
+				output.writeByte(1);
+				encryptedBucket.writeExternal(output);
+			}
+		}
+
+		return output.toByteBuf();
+	}
+
 	@Override
 	public int readExternal(byte[] input, int startOffset) {
+		return readExternal(input, startOffset, null);
+	}
+
+	/**
+	 * Deserializes the stashes and paths, passing each stash and non-null bucket to the listener, if any, as soon
+	 * as it is deserialized.
+	 */
+	public int readExternal(byte[] input, int startOffset, EncryptedStashesAndPathsListener listener) {
 		int offset = startOffset;
 
 		// Deserialize encrypted stashes
-		byte[] nEncryptedStashesBytes = new byte[4];
-		System.arraycopy(input, offset, nEncryptedStashesBytes, 0, 4);
+		int encryptedStashesSize = ORAMUtils.deserializeInteger(input, offset);
 		offset += 4;
-		int encryptedStashesSize = ORAMUtils.toNumber(nEncryptedStashesBytes);
 		encryptedStashes = new HashMap<>(encryptedStashesSize);
 		for (int i = 0; i < encryptedStashesSize; i++) {
-			byte[] keyBytes = new byte[4];
-			System.arraycopy(input, offset, keyBytes, 0, 4);
+			int key = ORAMUtils.deserializeInteger(input, offset);
 			offset += 4;
-			int key = ORAMUtils.toNumber(keyBytes);
 
 			EncryptedStash entry = new EncryptedStash();
 			offset = entry.readExternal(input, offset);
 			encryptedStashes.put(key, entry);
+			if (listener != null) {
+				listener.onStash(key, entry);
+			}
 		}
 
 		// Deserialize encrypted paths
-		byte[] nPathsBytes = new byte[4];
-		System.arraycopy(input, offset, nPathsBytes, 0, 4);
+		int pathsSize = ORAMUtils.deserializeInteger(input, offset);
 		offset += 4;
-		int pathsSize = ORAMUtils.toNumber(nPathsBytes);
 		paths = new EncryptedBucket[pathsSize];
 		for (int i = 0; i < pathsSize; i++) {
 			byte isNull = input[offset++];
 			if (isNull == 0) {
 				paths[i] = null;
 			} else {
-				EncryptedBucket encryptedBucket = new EncryptedBucket(oramContext.getBucketSize());
+				EncryptedBucket encryptedBucket = new EncryptedBucket(oramContext.getNEncryptedBlocksPerBucket());
 				offset = encryptedBucket.readExternal(input, offset);
 				paths[i] = encryptedBucket;
+				if (listener != null) {
+					listener.onBucket(i, encryptedBucket);
+				}
 			}
 		}
 
@@ -0,0 +1,11 @@
+package oram.server.structure;
+
+/**
+ * Receives the stashes and buckets of an EncryptedStashesAndPaths as soon as each one is deserialized, allowing them
+ * to be processed while the remaining ones are still being deserialized.
+ */
+public interface EncryptedStashesAndPathsListener {
+	void onStash(int versionId, EncryptedStash encryptedStash);
+
+	void onBucket(int index, EncryptedBucket encryptedBucket);
+}
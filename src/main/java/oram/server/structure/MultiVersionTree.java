@@ -0,0 +1,118 @@
+package oram.server.structure;
+
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Single tree holding, for each location, the bucket versions it had at each epoch still being read. Each location
+ * keeps a list of immutable arrays of snapshots, from the newest to the oldest, stamped with the epoch at which they
+ * were written. Reading a location at some epoch returns the newest array written at or before that epoch. Arrays
+ * older than the oldest epoch being read are removed when the location is written again.
+ */
+public class MultiVersionTree {
+	private static final BucketSnapshot[] EMPTY_LOCATION = new BucketSnapshot[0];
+	private final LocationVersion[] tree;
+	private final int nLevels;
+	private int nLocationVersions;
+
+	private static class LocationVersion {
+		private final long epoch;
+		private final BucketSnapshot[] snapshots;
+		private LocationVersion previous;
+
+		private LocationVersion(long epoch, BucketSnapshot[] snapshots, LocationVersion previous) {
+			this.epoch = epoch;
+			this.snapshots = snapshots;
+			this.previous = previous;
+		}
+	}
+
+	public MultiVersionTree(int nBuckets, int nLevels) {
+		this.tree = new LocationVersion[nBuckets];
+		this.nLevels = nLevels;
+	}
+
+	public int getNBuckets() {
+		return tree.length;
+	}
+
+	/**
+	 * Returns the number of bucket arrays kept for all locations and epochs.
+	 */
+	public int getNLocationVersions() {
+		return nLocationVersions;
+	}
+
+	/**
+	 * Returns the bucket versions of a location at the epoch. The returned array must not be modified.
+	 */
+	public BucketSnapshot[] getLocation(int location, long epoch) {
+		LocationVersion locationVersion = tree[location];
+		while (locationVersion != null && locationVersion.epoch > epoch) {
+			locationVersion = locationVersion.previous;
+		}
+		return locationVersion == null ? EMPTY_LOCATION : locationVersion.snapshots;
+	}
+
+	/**
+	 * Writes the bucket versions of a location at the epoch, which must be newer than all epochs written before.
+	 * They are the current ones without those in outstandingBuckets, plus the new bucket version.
+	 * @param oldestReadEpoch Oldest epoch at which the tree might still be read
+	 */
+	public void updateLocation(int location, long epoch, BucketSnapshot newBucketSnapshot,
+							   Set<BucketSnapshot> outstandingBuckets, long oldestReadEpoch) {
+		LocationVersion currentVersion = tree[location];
+		BucketSnapshot[] currentLocation = currentVersion == null ? EMPTY_LOCATION : currentVersion.snapshots;
+		BucketSnapshot[] newLocation = new BucketSnapshot[currentLocation.length + 1];
+		int nSnapshots = 0;
+		for (BucketSnapshot bucketSnapshot : currentLocation) {
+			if (!outstandingBuckets.contains(bucketSnapshot)) {
+				newLocation[nSnapshots++] = bucketSnapshot;
+			}
+		}
+		newLocation[nSnapshots++] = newBucketSnapshot;
+		if (nSnapshots < newLocation.length) {
+			newLocation = Arrays.copyOf(newLocation, nSnapshots);
+		}
+		LocationVersion newVersion = new LocationVersion(epoch, newLocation, currentVersion);
+		tree[location] = newVersion;
+		nLocationVersions++;
+		removeUnreadVersions(newVersion, oldestReadEpoch);
+	}
+
+	/**
+	 * Removes the versions older than the newest one written at or before the oldest read epoch.
+	 */
+	private void removeUnreadVersions(LocationVersion locationVersion, long oldestReadEpoch) {
+		while (locationVersion.epoch > oldestReadEpoch && locationVersion.previous != null) {
+			locationVersion = locationVersion.previous;
+		}
+		LocationVersion removedVersion = locationVersion.previous;
+		locationVersion.previous = null;
+		while (removedVersion != null) {
+			nLocationVersions--;
+			removedVersion = removedVersion.previous;
+		}
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("Tree:\n");
+		//Write the number of versions of each location in the tree
+		for (int level = 0; level < nLevels; level++) {
+			int nNodesPerLevel = (1 << level);
+			sb.append(level);
+			sb.append(": ");
+			for (int node = 0; node < nNodesPerLevel; node++) {
+				int nVersions = 0;
+				for (LocationVersion v = tree[nNodesPerLevel - 1 + node]; v != null; v = v.previous) {
+					nVersions++;
+				}
+				sb.append(nVersions);
+				sb.append(" ");
+			}
+			sb.append('\n');
+		}
+		return sb.toString();
+	}
+}
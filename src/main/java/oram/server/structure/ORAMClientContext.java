@@ -4,7 +4,7 @@ public class ORAMClientContext {
 	private final int[] outstandingVersion;
 	private final int operationSequence;
 	private final OutstandingTree outstandingTree;
-	private int pathId;
+	private int[] pathIds;
 	private OutstandingPath outstandingPath;
 
 	public ORAMClientContext(int[] outstandingVersions, int operationSequence,
@@ -26,12 +26,12 @@ public class ORAMClientContext {
 		return operationSequence;
 	}
 
-	public void setPathId(int pathId) {
-		this.pathId = pathId;
+	public void setPathIds(int[] pathIds) {
+		this.pathIds = pathIds;
 	}
 
-	public int getPathId() {
-		return pathId;
+	public int[] getPathIds() {
+		return pathIds;
 	}
 
 	public void storeOutstandingPath(OutstandingPath outstandingPath) {
@@ -2,59 +2,55 @@ package oram.server.structure;
 
 import java.util.*;
 
+/**
+ * Version of the tree that a client reads, i.e., the tree at some epoch of the multi-version tree together with the
+ * stashes and outstanding versions of that epoch. The buckets of each location are resolved from the multi-version
+ * tree when read, so a version does not hold any location.
+ */
 public class OutstandingTree {
-	private final BucketHolder[] tree;
+	private final MultiVersionTree multiVersionTree;
+	private final long epoch;
 	private final Map<Integer, EncryptedStash> stashes;
 	private final Set<Integer> outstandingVersions;
-	private final int nLevels;
-	private final Set<Integer> dirtyLocations;
 	private int nPointers;
 
-	public OutstandingTree(int nBuckets, int nLevels, int versionId, EncryptedStash encryptedStash) {
-		this.tree = new BucketHolder[nBuckets];
-		this.nLevels = nLevels;
-		this.dirtyLocations = new HashSet<>();
-		for (int i = 0; i < nBuckets; i++) {
-			tree[i] = new BucketHolder();
-		}
-		this.stashes = new HashMap<>();
-		this.outstandingVersions = new HashSet<>();
-		stashes.put(versionId, encryptedStash);
-		outstandingVersions.add(versionId);
+	public OutstandingTree(MultiVersionTree multiVersionTree, long epoch, Map<Integer, EncryptedStash> stashes,
+						   Set<Integer> outstandingVersions) {
+		this.multiVersionTree = multiVersionTree;
+		this.epoch = epoch;
+		this.stashes = stashes;
+		this.outstandingVersions = outstandingVersions;
 	}
 
-	public OutstandingTree(OutstandingTree outstandingTree) {
-		this.tree = new BucketHolder[outstandingTree.tree.length];
-		for (int i = 0; i < outstandingTree.tree.length; i++) {
-			this.tree[i] = new BucketHolder(outstandingTree.tree[i].getOutstandingBucketsVersions());
-		}
-		this.nLevels = outstandingTree.nLevels;
-		this.dirtyLocations = new HashSet<>(outstandingTree.dirtyLocations);
-		this.nPointers = 0;
-		this.stashes = new HashMap<>(outstandingTree.stashes.size());
-		this.outstandingVersions = new HashSet<>(outstandingTree.outstandingVersions.size());
+	public long getEpoch() {
+		return epoch;
 	}
 
+	/**
+	 * Returns the stashes of this version. The returned map must not be modified.
+	 */
 	public Map<Integer, EncryptedStash> getStashes() {
 		return stashes;
 	}
 
+	/**
+	 * Builds a copy of the tree for debugging.
+	 */
 	public BucketHolder[] getTree() {
-		return tree;
+		BucketHolder[] bucketHolders = new BucketHolder[multiVersionTree.getNBuckets()];
+		for (int i = 0; i < bucketHolders.length; i++) {
+			bucketHolders[i] = new BucketHolder(new ArrayList<>(Arrays.asList(getLocation(i))));
+		}
+		return bucketHolders;
 	}
 
+	/**
+	 * Returns the outstanding versions of this version. The returned set must not be modified.
+	 */
 	public Set<Integer> getOutstandingVersions() {
 		return outstandingVersions;
 	}
 
-	public void markDirtyLocation(Integer dirtyLocation) {
-		dirtyLocations.add(dirtyLocation);
-	}
-
-	public Set<Integer> getDirtyLocations() {
-		return dirtyLocations;
-	}
-
 	public int getNPointers() {
 		return nPointers;
 	}
@@ -73,37 +69,15 @@ public class OutstandingTree {
 		nPointers--;
 	}
 
-	public ArrayList<BucketSnapshot> getLocation(int pathLocation) {
-		return tree[pathLocation].getOutstandingBucketsVersions();
-	}
-
-	public void updateLocation(Integer location, ArrayList<BucketSnapshot> outstandingLocation) {
-		tree[location].update(outstandingLocation);
-	}
-
-	public void updateLocation(Integer location, BucketSnapshot newBucketSnapshot,
-							   Set<BucketSnapshot> outstandingBuckets) {
-		tree[location].addSnapshot(newBucketSnapshot, outstandingBuckets);
-	}
-
-	public void clearDirtyLocations() {
-		dirtyLocations.clear();
+	/**
+	 * Returns the bucket versions of a location. The returned array must not be modified.
+	 */
+	public BucketSnapshot[] getLocation(int pathLocation) {
+		return multiVersionTree.getLocation(pathLocation, epoch);
 	}
 
 	@Override
 	public String toString() {
-		StringBuilder sb = new StringBuilder("Tree:\n");
-		//Write the size of each linked list in the tree
-		for (int level = 0; level < nLevels; level++) {
-			int nNodesPerLevel = (1 << level);
-			sb.append(level);
-			sb.append(": ");
-			for (int node = 0; node < nNodesPerLevel; node++) {
-				sb.append(getLocation(nNodesPerLevel - 1 + node).size());
-				sb.append(" ");
-			}
-			sb.append('\n');
-		}
-		return sb.toString();
+		return "{epoch " + epoch + ", outstanding versions " + outstandingVersions + "}";
 	}
 }
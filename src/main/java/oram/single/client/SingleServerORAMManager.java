@@ -5,19 +5,35 @@ import oram.client.manager.ORAMManager;
 import oram.single.comunication.Message;
 import oram.utils.Status;
 
+import java.util.concurrent.CompletableFuture;
+
 public class SingleServerORAMManager extends ORAMManager {
 	private static final String DEFAULT_PASSWORD = "ORAM";
 	private final SingleServiceProxy singleServiceProxy;
+	private final int clientId;
+	private final boolean sharedProxy;
 	public final static int MESSAGE_TYPE = 1;
 
 	public SingleServerORAMManager(int clientId, String serverIP, int serverPort) {
 		//Connecting to the server
 		this.singleServiceProxy = new SingleServiceProxy(clientId, MESSAGE_TYPE, serverIP, serverPort);
+		this.clientId = clientId;
+		this.sharedProxy = false;
+	}
+
+	/**
+	 * Creates a manager that sends its requests through a connection shared with other clients. The connection is
+	 * not closed when this manager is closed.
+	 */
+	public SingleServerORAMManager(int clientId, SingleServiceProxy singleServiceProxy) {
+		this.singleServiceProxy = singleServiceProxy;
+		this.clientId = clientId;
+		this.sharedProxy = true;
 	}
 
 	@Override
 	protected Status createORAM(byte[] serializedRequest, String password) {
-		Message response = singleServiceProxy.sendMessage(serializedRequest);
+		Message response = singleServiceProxy.sendMessage(clientId, serializedRequest);
 		if (response == null || response.getSerializedMessage() == null) {
 			return Status.FAILED;
 		}
@@ -31,7 +47,7 @@ public class SingleServerORAMManager extends ORAMManager {
 
 	@Override
 	protected Response getORAMContext(byte[] serializedRequest) {
-		Message response = singleServiceProxy.sendMessage(serializedRequest);
+		Message response = singleServiceProxy.sendMessage(clientId, serializedRequest);
 		if (response == null || response.getSerializedMessage() == null) {
 			return null;
 		}
@@ -40,12 +56,14 @@ public class SingleServerORAMManager extends ORAMManager {
 
 	@Override
 	public void close() {
-		singleServiceProxy.close();
+		if (!sharedProxy) {
+			singleServiceProxy.close();
+		}
 	}
 
 	@Override
 	public int getProcessId() {
-		return singleServiceProxy.getProcessId();
+		return clientId;
 	}
 
 	@Override
@@ -73,8 +91,51 @@ public class SingleServerORAMManager extends ORAMManager {
 		return invoke(request);
 	}
 
+	@Override
+	public byte[] uploadPositionMapCheckpoint(byte[] request) {
+		return invoke(request);
+	}
+
+	/**
+	 * The single server executes requests in the order it receives them, so the eviction payload is sent with the
+	 * eviction request, saving a round trip.
+	 */
+	@Override
+	public boolean isSingleMessageEvictionSupported() {
+		return true;
+	}
+
+	@Override
+	public CompletableFuture<byte[]> getPathMapsAsync(byte[] request) {
+		return invokeAsync(request);
+	}
+
+	@Override
+	public CompletableFuture<byte[]> getStashesAndPathsAsync(byte[] request) {
+		return invokeAsync(request);
+	}
+
+	@Override
+	public CompletableFuture<byte[]> sendEvictionPayloadAsync(byte[] request) {
+		return invokeAsync(request);
+	}
+
+	@Override
+	public CompletableFuture<byte[]> evictAsync(byte[] request) {
+		return invokeAsync(request);
+	}
+
+	@Override
+	public CompletableFuture<byte[]> uploadPositionMapCheckpointAsync(byte[] request) {
+		return invokeAsync(request);
+	}
+
+	private CompletableFuture<byte[]> invokeAsync(byte[] request) {
+		return singleServiceProxy.sendAsync(clientId, request).thenApply(Message::getSerializedMessage);
+	}
+
 	private byte[] invoke(byte[] request) {
-		Message response = singleServiceProxy.sendMessage(request);
+		Message response = singleServiceProxy.sendMessage(clientId, request);
 		if (response == null || response.getSerializedMessage() == null) {
 			return null;
 		}
@@ -1,39 +1,45 @@
 package oram.single.client;
 
 import oram.single.comunication.Message;
-import oram.single.comunication.MessageProcessor;
+import oram.single.comunication.MessageListener;
 import oram.single.comunication.client.ClientCommunicationSystem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
 import java.security.UnrecoverableKeyException;
 import java.security.cert.CertificateException;
-import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
-public class SingleServiceProxy extends MessageProcessor {
+/**
+ * Connection to the server that can have many requests in flight. Each request carries an identifier, which the
+ * server echoes in its response, so responses are matched with requests regardless of their order. Requests can be
+ * sent on behalf of several clients, allowing them to share the connection.
+ */
+public class SingleServiceProxy implements MessageListener {
+	private final Logger logger = LoggerFactory.getLogger("communication");
 	private final int id;
 	private final int messageType;
 	private final ClientCommunicationSystem serviceProxy;
-	private final Lock responseLock;
-	private final Condition responseCondition;
-	private Message response;
+	private final AtomicInteger requestIdCounter;
+	private final Map<Integer, CompletableFuture<Message>> pendingRequests;
 
 	public SingleServiceProxy(int id, int messageType, String serverIP, int serverPort) {
-		super(messageType);
 		this.id = id;
 		this.messageType = messageType;
-		this.responseLock = new ReentrantLock();
-		this.responseCondition = responseLock.newCondition();
+		this.requestIdCounter = new AtomicInteger();
+		this.pendingRequests = new ConcurrentHashMap<>();
 		try {
 			this.serviceProxy = new ClientCommunicationSystem(
 					id,
-					1,
 					100_000_000
 			);
-			start();
 			serviceProxy.registerMessageListener(messageType, this);
 			this.serviceProxy.connectTo(0, serverIP, serverPort);
 		} catch (InterruptedException | IOException | NoSuchAlgorithmException | KeyStoreException |
@@ -43,33 +49,90 @@ public class SingleServiceProxy extends MessageProcessor {
 	}
 
 	public Message sendMessage(byte[] serializedMessage) {
+		return sendMessage(id, serializedMessage);
+	}
+
+	/**
+	 * Sends the request on behalf of the client and waits for its response.
+	 * @return The response, or null if the request failed
+	 */
+	public Message sendMessage(int clientId, byte[] serializedMessage) {
 		try {
-			responseLock.lock();
-			Message m = new Message(id, messageType, serializedMessage);
-			serviceProxy.sendMessage(0, m);
-			responseCondition.await();
-			return response;
+			return sendAsync(clientId, serializedMessage).get();
 		} catch (InterruptedException e) {
 			return null;
-		} finally {
-			responseLock.unlock();
+		} catch (ExecutionException e) {
+			logger.error("Request from client {} failed", clientId, e.getCause());
+			return null;
 		}
 	}
 
+	public CompletableFuture<Message> sendAsync(byte[] serializedMessage) {
+		return sendAsync(id, serializedMessage);
+	}
+
+	/**
+	 * Sends the request on behalf of the client without waiting for its response. The returned future is completed
+	 * by an event loop thread, so callbacks on it must not block. It fails if the request cannot be sent or the
+	 * connection closes before the response arrives.
+	 */
+	public CompletableFuture<Message> sendAsync(int clientId, byte[] serializedMessage) {
+		int requestId = requestIdCounter.getAndIncrement();
+		CompletableFuture<Message> response = new CompletableFuture<>();
+		pendingRequests.put(requestId, response);
+		serviceProxy.sendMessage(0, new Message(clientId, messageType, requestId, serializedMessage))
+				.addListener(future -> {
+					if (!future.isSuccess()) {
+						failPendingRequest(requestId, future.cause());
+					}
+				});
+		return response;
+	}
+
+	public int getNPendingRequests() {
+		return pendingRequests.size();
+	}
+
+	/**
+	 * Completes the future of the request the response belongs to.
+	 */
 	@Override
-	public void deliverMessage(Message message) {
-		try {
-			responseLock.lock();
-			response = message;
-			responseCondition.signal();
-		} finally {
-			responseLock.unlock();
+	public void messageReceived(Message message) {
+		CompletableFuture<Message> response = pendingRequests.remove(message.getRequestId());
+		Message arrayMessage = message.toArrayMessage();
+		if (response == null) {
+			logger.warn("Received response to unknown request {}", message.getRequestId());
+			return;
 		}
+		response.complete(arrayMessage);
+	}
+
+	/**
+	 * Fails the requests waiting for a response, as the connection carrying them was closed.
+	 */
+	@Override
+	public void sessionClosed(int clientId) {
+		logger.warn("Connection to the server was closed with {} pending requests", pendingRequests.size());
+		failPendingRequests();
 	}
 
 	public void close() {
 		serviceProxy.shutdown();
-		interrupt();
+		failPendingRequests();
+	}
+
+	private void failPendingRequests() {
+		IllegalStateException closed = new IllegalStateException("Connection to the server was closed");
+		for (Integer requestId : pendingRequests.keySet()) {
+			failPendingRequest(requestId, closed);
+		}
+	}
+
+	private void failPendingRequest(int requestId, Throwable cause) {
+		CompletableFuture<Message> response = pendingRequests.remove(requestId);
+		if (response != null) {
+			response.completeExceptionally(cause);
+		}
 	}
 
 	public int getProcessId() {
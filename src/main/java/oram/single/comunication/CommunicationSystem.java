@@ -6,13 +6,15 @@ import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandler.Sharable;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.ImmediateEventExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.net.SocketAddress;
 import java.nio.channels.ClosedChannelException;
-import java.util.Map;
+import java.util.Iterator;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -20,11 +22,10 @@ import java.util.concurrent.ConcurrentMap;
 public abstract class CommunicationSystem extends SimpleChannelInboundHandler<Message> implements NewSessionListener {
 	protected final Logger logger = LoggerFactory.getLogger("communication");
 	protected static final String SECRET = "MySeCreT_2hMOygBwY";
-	protected static final int tcpSendBufferSize = 8 * 1024 * 1024;
 	protected static final int connectionTimeoutMsec = 40000;
 	protected final int myId;
 	private final ConcurrentMap<Integer, ChannelSession> sessions;
-	private final ConcurrentMap<Integer, MessageProcessor> messageListeners;
+	private final ConcurrentMap<Integer, MessageListener> messageListeners;
 
 	public CommunicationSystem(int myId) {
 		this.myId = myId;
@@ -32,7 +33,7 @@ public abstract class CommunicationSystem extends SimpleChannelInboundHandler<Me
 		this.messageListeners = new ConcurrentHashMap<>();
 	}
 
-	public void registerMessageListener(int messageType, MessageProcessor messageListener) {
+	public void registerMessageListener(int messageType, MessageListener messageListener) {
 		messageListeners.put(messageType, messageListener);
 	}
 
@@ -40,7 +41,6 @@ public abstract class CommunicationSystem extends SimpleChannelInboundHandler<Me
 		channel.flush();
 		channel.deregister();
 		channel.close();
-		channel.eventLoop().shutdownGracefully();
 	}
 
 	public void shutdown() {
@@ -61,40 +61,73 @@ public abstract class CommunicationSystem extends SimpleChannelInboundHandler<Me
 		logger.info("Active communication channels: {}", sessions.size());
 	}
 
-	public void sendMessage(int target, Message message) {
+	/**
+	 * Sends the message without waiting for it to be written.
+	 * @return Future completed when the message is written, which fails if there is no connection to the target or
+	 * the write fails
+	 */
+	public Future<Void> sendMessage(int target, Message message) {
 		ChannelSession channelSession = sessions.get(target);
 		if (channelSession == null) {
 			logger.warn("No connect found for target {}", target);
-			return;
+			message.getSerializedBuffer().release();
+			return ImmediateEventExecutor.INSTANCE.newFailedFuture(
+					new IllegalStateException("No connection to " + target));
+		}
+		return channelSession.getChannel().writeAndFlush(message);
+	}
+
+	/**
+	 * Returns whether the bytes queued in the connection to the target are below its high water mark, or, once they
+	 * went above it, below its low water mark again.
+	 */
+	public boolean isWritable(int target) {
+		ChannelSession channelSession = sessions.get(target);
+		return channelSession != null && channelSession.getChannel().isWritable();
+	}
+
+	/**
+	 * Notifies the listeners that the connection of their clients on the channel became writable again.
+	 */
+	protected void notifySessionsWritable(Channel channel) {
+		for (ChannelSession session : sessions.values()) {
+			if (session.getChannel().equals(channel)) {
+				for (MessageListener messageListener : messageListeners.values()) {
+					messageListener.sessionWritable(session.getClientId());
+				}
+			}
 		}
-		Channel channel = channelSession.getChannel();
-		channel.writeAndFlush(message);
 	}
 
 	@Override
 	protected void channelRead0(ChannelHandlerContext channelHandlerContext, Message message) {
-		MessageProcessor messageProcessor = messageListeners.get(message.getType());
-		if (messageProcessor == null) {
+		MessageListener messageListener = messageListeners.get(message.getType());
+		if (messageListener == null) {
 			logger.warn("There is no message processor for message type {}", message.getType());
+			message.getSerializedBuffer().release();
 			return;
 		}
-		messageProcessor.messageReceived(message);
+		messageListener.messageReceived(message);
 	}
 
 	@Override
 	public void channelInactive(ChannelHandlerContext ctx) {
 		SocketAddress socketAddress = ctx.channel().remoteAddress();
 		logger.debug("Client disconnected {}", socketAddress);
-		//remove the session
-		int sessionToRemove = -1;
-		for (Map.Entry<Integer, ChannelSession> entry : sessions.entrySet()) {
-			if (entry.getValue().getChannel().equals(ctx.channel())) {
-				sessionToRemove = entry.getKey();
-				break;
+		//remove the sessions, as several clients might share the channel
+		boolean removed = false;
+		Iterator<ChannelSession> iterator = sessions.values().iterator();
+		while (iterator.hasNext()) {
+			ChannelSession session = iterator.next();
+			if (session.getChannel().equals(ctx.channel())) {
+				iterator.remove();
+				removed = true;
+				for (MessageListener messageListener : messageListeners.values()) {
+					messageListener.sessionClosed(session.getClientId());
+				}
 			}
 		}
-		if (sessionToRemove != -1) {
-			sessions.remove(sessionToRemove);
+		if (removed) {
 			logger.info("Active communication channels: {}", sessions.size());
 		}
 	}
@@ -29,7 +29,7 @@ public class Main {
 		MessageProcessor messageProcessor = new MessageProcessor(messageType) {
 			@Override
 			public void deliverMessage(Message message) {
-				System.out.println("Delivering message from " + message.getSender() + ": " + Arrays.toString(message.getSerializedMessage()));
+				System.out.println("Delivering message from " + message.getSender() + ": " + Arrays.toString(message.toArrayMessage().getSerializedMessage()));
 			}
 		};
 		serverCommunicationSystem.registerMessageListener(messageType, messageProcessor);
@@ -38,7 +38,6 @@ public class Main {
 		Thread.sleep(5000);
 		ClientCommunicationSystem clientCommunicationSystem = new ClientCommunicationSystem(
 				myId,
-				workerNThreads,
 				maxMessageSize
 		);
 		clientCommunicationSystem.connectTo(0, "localhost", listeningPort);
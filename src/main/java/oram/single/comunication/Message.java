@@ -1,14 +1,45 @@
 package oram.single.comunication;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+
 public class Message {
 	private final int sender;
 	private final int type;
+	private final int requestId;
 	private final byte[] serializedMessage;
+	private final ByteBuf serializedBuffer;
 
 	public Message(int sender, int type, byte[] serializedMessage) {
+		this(sender, type, 0, serializedMessage);
+	}
+
+	/**
+	 * Creates a message identified by the request id, which responses carry back to match them with their request.
+	 */
+	public Message(int sender, int type, int requestId, byte[] serializedMessage) {
 		this.sender = sender;
 		this.type = type;
+		this.requestId = requestId;
 		this.serializedMessage = serializedMessage;
+		this.serializedBuffer = null;
+	}
+
+	/**
+	 * Creates a message with the serialized data in a buffer. Sent messages have their buffer released once sent,
+	 * and received messages must have it released by whoever consumes them.
+	 */
+	public Message(int sender, int type, ByteBuf serializedBuffer) {
+		this(sender, type, 0, serializedBuffer);
+	}
+
+	public Message(int sender, int type, int requestId, ByteBuf serializedBuffer) {
+		this.sender = sender;
+		this.type = type;
+		this.requestId = requestId;
+		this.serializedMessage = null;
+		this.serializedBuffer = serializedBuffer;
 	}
 
 	public int getSender() {
@@ -19,7 +50,34 @@ public class Message {
 		return type;
 	}
 
+	public int getRequestId() {
+		return requestId;
+	}
+
+	/**
+	 * Returns the serialized data, or null if the message was created with a buffer.
+	 */
 	public byte[] getSerializedMessage() {
 		return serializedMessage;
 	}
+
+	/**
+	 * Returns the serialized data as a buffer, wrapping the serialized array if the message was created with one.
+	 */
+	public ByteBuf getSerializedBuffer() {
+		return serializedBuffer == null ? Unpooled.wrappedBuffer(serializedMessage) : serializedBuffer;
+	}
+
+	/**
+	 * Returns a message with the serialized data in an array. If this message holds a buffer, it is copied and
+	 * released.
+	 */
+	public Message toArrayMessage() {
+		if (serializedBuffer == null) {
+			return this;
+		}
+		byte[] serializedArray = ByteBufUtil.getBytes(serializedBuffer);
+		serializedBuffer.release();
+		return new Message(sender, type, requestId, serializedArray);
+	}
 }
@@ -0,0 +1,20 @@
+package oram.single.comunication;
+
+/**
+ * Receives the messages of a type from the communication system. It is called by the event loop threads handling
+ * the connections, so it must not block.
+ */
+public interface MessageListener {
+	void messageReceived(Message message);
+
+	/**
+	 * Notifies that the session with the client was closed.
+	 */
+	void sessionClosed(int clientId);
+
+	/**
+	 * Notifies that the connection of the client drained below its low water mark after being unwritable.
+	 */
+	default void sessionWritable(int clientId) {
+	}
+}
@@ -6,7 +6,12 @@ import org.slf4j.LoggerFactory;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 
-public abstract class MessageProcessor extends Thread {
+/**
+ * Listener that delivers the received messages, in order, from a thread of its own.
+ */
+public abstract class MessageProcessor extends Thread implements MessageListener {
+	private static final int SESSION_CLOSED = -1;
+	private static final int SESSION_WRITABLE = -2;
 	private final Logger logger = LoggerFactory.getLogger("communication");
 	private final BlockingQueue<Message> messages;
 	private final int messageType;
@@ -21,17 +26,56 @@ public abstract class MessageProcessor extends Thread {
 		return messageType;
 	}
 
+	@Override
 	public void messageReceived(Message message) {
 		messages.add(message);
 	}
 
+	/**
+	 * Notifies that the session with the client was closed. The notification is delivered after the messages
+	 * already received from the client.
+	 */
+	@Override
+	public void sessionClosed(int clientId) {
+		messages.add(new Message(clientId, SESSION_CLOSED, (byte[]) null));
+	}
+
+	/**
+	 * Notifies that the connection of the client became writable. The notification is delivered after the messages
+	 * already received.
+	 */
+	@Override
+	public void sessionWritable(int clientId) {
+		messages.add(new Message(clientId, SESSION_WRITABLE, (byte[]) null));
+	}
+
 	public abstract void deliverMessage(Message message);
 
+	/**
+	 * Called when the session with the client was closed, after delivering the messages received from it.
+	 */
+	public void deliverSessionClosed(int clientId) {
+	}
+
+	/**
+	 * Called when the connection of the client became writable, after delivering the messages received before.
+	 */
+	public void deliverSessionWritable(int clientId) {
+	}
+
 	@Override
 	public void run() {
 		while (true) {
 			try {
 				Message m = messages.take();
+				if (m.getType() == SESSION_CLOSED) {
+					deliverSessionClosed(m.getSender());
+					continue;
+				}
+				if (m.getType() == SESSION_WRITABLE) {
+					deliverSessionWritable(m.getSender());
+					continue;
+				}
 				logger.debug("I have message with tag {} to deliver", m.getType());
 				deliverMessage(m);
 			} catch (InterruptedException e) {
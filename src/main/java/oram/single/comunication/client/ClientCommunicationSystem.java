@@ -4,12 +4,13 @@ import oram.single.comunication.CommunicationSystem;
 import oram.single.comunication.util.BasicChannelInitializer;
 import oram.single.comunication.util.ChannelSession;
 import oram.single.comunication.util.SSLChannelInitializer;
+import oram.single.comunication.util.SharedEventLoopGroup;
+import oram.single.comunication.util.TransportConfiguration;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.*;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.util.concurrent.EventExecutor;
 import io.netty.util.concurrent.Future;
 
 import javax.net.ssl.KeyManagerFactory;
@@ -24,21 +25,24 @@ public class ClientCommunicationSystem extends CommunicationSystem {
 	private final Bootstrap bootstrap;
 	private final EventLoopGroup workerGroup;
 
-	public ClientCommunicationSystem(int myId, int nWorkerThreads, int maxMessageSize) throws IOException,
+	/**
+	 * Creates the communication system, whose connections are handled by the event loops shared by the process.
+	 */
+	public ClientCommunicationSystem(int myId, int maxMessageSize) throws IOException,
 			NoSuchAlgorithmException, KeyStoreException, CertificateException, UnrecoverableKeyException {
 		super(myId);
-		workerGroup = new NioEventLoopGroup(nWorkerThreads);
+		workerGroup = SharedEventLoopGroup.acquire();
 
 		ChannelInitializer<Channel> channelInitializer = new BasicChannelInitializer(this,
 				maxMessageSize, this);
 		bootstrap = new Bootstrap();
 		bootstrap.group(workerGroup)
-				.channel(NioSocketChannel.class)
+				.channel(TransportConfiguration.getInstance().getSocketChannelClass())
 				.option(ChannelOption.SO_KEEPALIVE, true)
 				.option(ChannelOption.TCP_NODELAY, true)
-				.option(ChannelOption.SO_SNDBUF, tcpSendBufferSize)
 				.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectionTimeoutMsec)
 				.handler(channelInitializer);
+		TransportConfiguration.getInstance().configure(bootstrap);
 	}
 
 	private ChannelInitializer<Channel> createChannelInitializer(int maxMessageSize) throws NoSuchAlgorithmException,
@@ -86,10 +90,27 @@ public class ClientCommunicationSystem extends CommunicationSystem {
 		}
 	}
 
+	/**
+	 * Closes the connections and releases the shared event loops, waiting for them to shut down unless called from
+	 * one of them, e.g., by a callback of a response future, as the event loop would then wait for itself.
+	 */
 	@Override
 	public void shutdown() {
 		super.shutdown();
-		Future<?> future = workerGroup.shutdownGracefully();
+		Future<?> future = SharedEventLoopGroup.release();
+		if (isInEventLoop()) {
+			logger.debug("Not waiting for the event loops to shut down from one of them");
+			return;
+		}
 		future.syncUninterruptibly();
 	}
+
+	private boolean isInEventLoop() {
+		for (EventExecutor eventExecutor : workerGroup) {
+			if (eventExecutor.inEventLoop()) {
+				return true;
+			}
+		}
+		return false;
+	}
 }
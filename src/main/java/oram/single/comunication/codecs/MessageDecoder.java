@@ -12,6 +12,7 @@ import org.slf4j.LoggerFactory;
 import java.util.List;
 
 public class MessageDecoder extends ByteToMessageDecoder {
+	private static final int HEADER_SIZE = Integer.BYTES * 4;
 	private final Logger logger = LoggerFactory.getLogger("communication");
 	private int bytesToSkip;
 	private final NewSessionListener sessionListener;
@@ -42,16 +43,17 @@ public class MessageDecoder extends ByteToMessageDecoder {
 			}
 		}
 
-		int sender, dataLength, messageType;
+		int sender, dataLength, messageType, requestId;
 		do {
-			//wait until sender, message type and data length are available
-			if (in.readableBytes() < Integer.BYTES * 3) {
+			//wait until sender, message type, request id and data length are available
+			if (in.readableBytes() < HEADER_SIZE) {
 				return;
 			}
 
 			sender = in.getInt(in.readerIndex());
 			messageType = in.getInt(in.readerIndex() + Integer.BYTES);
-			dataLength = in.getInt(in.readerIndex() + Integer.BYTES * 2);
+			requestId = in.getInt(in.readerIndex() + Integer.BYTES * 2);
+			dataLength = in.getInt(in.readerIndex() + Integer.BYTES * 3);
 
 			logger.debug("Decoding message from {} of type {} with length {} ({} remaining bytes)", sender, messageType,
 					dataLength, in.readableBytes());
@@ -59,7 +61,7 @@ public class MessageDecoder extends ByteToMessageDecoder {
 			//skip if message is too big
 			if (dataLength > maxMessageSize) {
 				logger.warn("Discarding request from {} because it is too big: {} bytes", sender, dataLength);
-				in.skipBytes(Integer.BYTES * 3);
+				in.skipBytes(HEADER_SIZE);
 				int remainingBytes = in.readableBytes();
 				if (dataLength >= remainingBytes) {
 					in.skipBytes(remainingBytes);
@@ -75,15 +77,15 @@ public class MessageDecoder extends ByteToMessageDecoder {
 		} while (true);
 
 		//check if all data has arrived
-		if (in.readableBytes() < dataLength + Integer.BYTES * 3) {
+		if (in.readableBytes() < dataLength + HEADER_SIZE) {
 			return;
 		}
-		in.skipBytes(Integer.BYTES * 3);
+		in.skipBytes(HEADER_SIZE);
 
-		byte[] serializedMessage = new byte[dataLength];
-		in.readBytes(serializedMessage);
+		//The message references the received bytes, which are released once the message is consumed
+		ByteBuf serializedMessage = in.readRetainedSlice(dataLength);
 
-		Message message = new Message(sender, messageType, serializedMessage);
+		Message message = new Message(sender, messageType, requestId, serializedMessage);
 
 		if (!sessionListener.sessionExists(sender)) {
 			ChannelSession newSession = new ChannelSession(sender, channelHandlerContext.channel());
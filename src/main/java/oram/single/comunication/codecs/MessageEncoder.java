@@ -2,32 +2,43 @@ package oram.single.comunication.codecs;
 
 import oram.single.comunication.Message;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.MessageToByteEncoder;
+import io.netty.handler.codec.MessageToMessageEncoder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class MessageEncoder extends MessageToByteEncoder<Message> {
+import java.util.List;
+
+/**
+ * Prefixes the serialized message with its header. The serialized message is not copied, as the header and the
+ * serialized message are written as a single composite buffer.
+ */
+public class MessageEncoder extends MessageToMessageEncoder<Message> {
 	private final Logger logger = LoggerFactory.getLogger("communication");
 
 	@Override
-	protected void encode(ChannelHandlerContext channelHandlerContext, Message message, ByteBuf out) {
+	protected void encode(ChannelHandlerContext channelHandlerContext, Message message, List<Object> out) {
 		int sender = message.getSender();
 		int messageType = message.getType();
-		byte[] serializedMessage = message.getSerializedMessage();
-		int dataLength = Integer.BYTES * 3 + serializedMessage.length;
+		int requestId = message.getRequestId();
+		ByteBuf serializedMessage = message.getSerializedBuffer();
+		int dataLength = Integer.BYTES * 4 + serializedMessage.readableBytes();
 		logger.debug("Encoding message of type {} from {} ({} bytes)", messageType, sender, dataLength);
 
+		ByteBuf header = channelHandlerContext.alloc().buffer(Integer.BYTES * 4);
 		//sender id
-		out.writeInt(sender);
+		header.writeInt(sender);
 
 		//message type
-		out.writeInt(messageType);
+		header.writeInt(messageType);
+
+		//request id
+		header.writeInt(requestId);
 
-		//serialized message
-		out.writeInt(serializedMessage.length);
-		out.writeBytes(serializedMessage);
+		//serialized message length
+		header.writeInt(serializedMessage.readableBytes());
 
-		channelHandlerContext.flush();
+		out.add(Unpooled.wrappedBuffer(header, serializedMessage));
 	}
 }
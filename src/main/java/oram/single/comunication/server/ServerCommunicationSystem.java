@@ -3,10 +3,9 @@ package oram.single.comunication.server;
 import oram.single.comunication.client.ClientCommunicationSystem;
 import oram.single.comunication.util.BasicChannelInitializer;
 import oram.single.comunication.util.SSLChannelInitializer;
+import oram.single.comunication.util.TransportConfiguration;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.*;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.SslContextBuilder;
 import io.netty.util.concurrent.Future;
@@ -30,31 +29,32 @@ public class ServerCommunicationSystem extends ClientCommunicationSystem {
 	public ServerCommunicationSystem(int myId, String myIpAddress, int listeningPort,
 									 int workerNThreads, int maxMessageSize) throws InterruptedException, IOException,
 			CertificateException, UnrecoverableKeyException, NoSuchAlgorithmException, KeyStoreException {
-		super(myId, workerNThreads, maxMessageSize);
+		super(myId, maxMessageSize);
 		startServer(myIpAddress, listeningPort, workerNThreads, maxMessageSize);
 	}
 
 	private void startServer(String myIpAddress, int listeningPort, int workerNThreads,
 							 int maxMessageSize) throws InterruptedException, CertificateException, IOException, UnrecoverableKeyException, NoSuchAlgorithmException, KeyStoreException {
-		bossGroup = new NioEventLoopGroup(bossThreads);
+		TransportConfiguration transportConfiguration = TransportConfiguration.getInstance();
+		bossGroup = transportConfiguration.createEventLoopGroup(bossThreads);
 		//Runtime.getRuntime().availableProcessors()
-		workerGroup = new NioEventLoopGroup(workerNThreads);
+		workerGroup = transportConfiguration.createEventLoopGroup(workerNThreads);
 
 		ChannelInitializer<Channel> channelInitializer = new BasicChannelInitializer(this,
 				maxMessageSize, this);
 
 		ServerBootstrap serverBootstrap = new ServerBootstrap();
 		serverBootstrap.group(bossGroup, workerGroup)
-				.channel(NioServerSocketChannel.class)
+				.channel(transportConfiguration.getServerSocketChannelClass())
 				.option(ChannelOption.SO_REUSEADDR, true)
 				//.option(ChannelOption.SO_KEEPALIVE, true)
 				//.option(ChannelOption.TCP_NODELAY, true)
-				//.option(ChannelOption.SO_SNDBUF, tcpSendBufferSize)
 				.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectionTimeoutMsec)
 				.option(ChannelOption.SO_BACKLOG, connectionBacklog)
 				.childHandler(channelInitializer)
 				.childOption(ChannelOption.SO_KEEPALIVE, true)
 				.childOption(ChannelOption.TCP_NODELAY, true);
+		transportConfiguration.configure(serverBootstrap);
 		ChannelFuture f = serverBootstrap.bind(new InetSocketAddress(myIpAddress, listeningPort)).sync();
 		f.addListener(future -> {
 			if (future.isSuccess()) {
@@ -92,6 +92,20 @@ public class ServerCommunicationSystem extends ClientCommunicationSystem {
 		return new SSLChannelInitializer(sslContext, this, maxMessageSize, this);
 	}
 
+	/**
+	 * Notifies the listeners when a client connection drains, so that they resume the requests they deferred while it
+	 * was unwritable. Reads are never suspended, as the eviction payloads of admitted accesses must still arrive.
+	 */
+	@Override
+	public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+		boolean writable = ctx.channel().isWritable();
+		logger.debug("Channel {} writable: {}", ctx.channel().remoteAddress(), writable);
+		if (writable) {
+			notifySessionsWritable(ctx.channel());
+		}
+		super.channelWritabilityChanged(ctx);
+	}
+
 	@Override
 	public void shutdown() {
 		super.shutdown();
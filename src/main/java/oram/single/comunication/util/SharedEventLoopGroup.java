@@ -0,0 +1,45 @@
+package oram.single.comunication.util;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.ImmediateEventExecutor;
+import io.netty.util.concurrent.SucceededFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Event loops shared by all client connections of the process, so that the number of threads does not grow with the
+ * number of connections. The transport and number of event loops are set in the transport configuration. The event
+ * loops are created when first acquired and shut down when the last connection using them releases them.
+ */
+public class SharedEventLoopGroup {
+	private static final Logger logger = LoggerFactory.getLogger("communication");
+	private static EventLoopGroup eventLoopGroup;
+	private static int nReferences;
+
+	private SharedEventLoopGroup() {}
+
+	public static synchronized EventLoopGroup acquire() {
+		if (eventLoopGroup == null) {
+			int nThreads = TransportConfiguration.getInstance().getClientThreads();
+			eventLoopGroup = TransportConfiguration.getInstance().createEventLoopGroup(nThreads);
+			logger.info("Created {} shared client event loops", nThreads);
+		}
+		nReferences++;
+		return eventLoopGroup;
+	}
+
+	/**
+	 * Releases the event loops acquired before, shutting them down if they are no longer used.
+	 * @return Future completed when the event loops are shut down, or immediately if they are still used
+	 */
+	public static synchronized Future<?> release() {
+		nReferences--;
+		if (nReferences > 0) {
+			return new SucceededFuture<>(ImmediateEventExecutor.INSTANCE, null);
+		}
+		Future<?> future = eventLoopGroup.shutdownGracefully();
+		eventLoopGroup = null;
+		return future;
+	}
+}
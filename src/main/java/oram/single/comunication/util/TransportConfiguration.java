@@ -0,0 +1,148 @@
+package oram.single.comunication.util;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Properties;
+
+/**
+ * Transport settings of the single-server communication, read from config/transport.config. Settings missing from
+ * the file, or the whole file, take their default values.
+ */
+public class TransportConfiguration {
+	private static final Logger logger = LoggerFactory.getLogger("communication");
+	private static final String CONFIGURATION_FILE = "config/transport.config";
+	private static TransportConfiguration instance;
+	private final boolean epoll;
+	private final int clientThreads;
+	private final int serverThreads;
+	private final int sendBufferSize;
+	private final int receiveBufferSize;
+	private final WriteBufferWaterMark writeBufferWaterMark;
+	private final int busyPoll;
+	private final ByteBufAllocator allocator;
+
+	private TransportConfiguration(Properties properties) {
+		boolean useEpoll = Boolean.parseBoolean(properties.getProperty("transport.epoll", "true"));
+		if (useEpoll && !Epoll.isAvailable()) {
+			logger.info("Epoll transport is not available ({}). Using NIO", Epoll.unavailabilityCause().getMessage());
+		}
+		this.epoll = useEpoll && Epoll.isAvailable();
+		int configuredClientThreads = getInt(properties, "transport.client.threads", 0);
+		this.clientThreads = configuredClientThreads > 0 ? configuredClientThreads
+				: Runtime.getRuntime().availableProcessors();
+		this.serverThreads = getInt(properties, "transport.server.threads", 16);
+		this.sendBufferSize = getInt(properties, "transport.sendBuffer", 8 * 1024 * 1024);
+		this.receiveBufferSize = getInt(properties, "transport.receiveBuffer", 0);
+		this.writeBufferWaterMark = new WriteBufferWaterMark(
+				getInt(properties, "transport.writeBuffer.lowWaterMark", 8 * 1024 * 1024),
+				getInt(properties, "transport.writeBuffer.highWaterMark", 16 * 1024 * 1024)
+		);
+		this.busyPoll = getInt(properties, "transport.busyPoll", 0);
+		boolean pooledAllocator = Boolean.parseBoolean(properties.getProperty("transport.pooledAllocator", "true"));
+		this.allocator = pooledAllocator ? PooledByteBufAllocator.DEFAULT : UnpooledByteBufAllocator.DEFAULT;
+	}
+
+	public static synchronized TransportConfiguration getInstance() {
+		if (instance == null) {
+			Properties properties = new Properties();
+			try (FileInputStream fis = new FileInputStream(CONFIGURATION_FILE)) {
+				properties.load(fis);
+			} catch (IOException e) {
+				logger.warn("Failed to read {}. Using the default transport configuration", CONFIGURATION_FILE);
+			}
+			instance = new TransportConfiguration(properties);
+			logger.info("Transport configuration: {}", instance);
+		}
+		return instance;
+	}
+
+	private static int getInt(Properties properties, String key, int defaultValue) {
+		String value = properties.getProperty(key);
+		return value == null ? defaultValue : Integer.parseInt(value.trim());
+	}
+
+	public int getClientThreads() {
+		return clientThreads;
+	}
+
+	public int getServerThreads() {
+		return serverThreads;
+	}
+
+	public EventLoopGroup createEventLoopGroup(int nThreads) {
+		return epoll ? new EpollEventLoopGroup(nThreads) : new NioEventLoopGroup(nThreads);
+	}
+
+	public Class<? extends SocketChannel> getSocketChannelClass() {
+		return epoll ? EpollSocketChannel.class : NioSocketChannel.class;
+	}
+
+	public Class<? extends ServerChannel> getServerSocketChannelClass() {
+		return epoll ? EpollServerSocketChannel.class : NioServerSocketChannel.class;
+	}
+
+	/**
+	 * Sets the socket options of the connections created by the bootstrap.
+	 */
+	public void configure(Bootstrap bootstrap) {
+		bootstrap.option(ChannelOption.ALLOCATOR, allocator)
+				.option(ChannelOption.WRITE_BUFFER_WATER_MARK, writeBufferWaterMark);
+		if (sendBufferSize > 0) {
+			bootstrap.option(ChannelOption.SO_SNDBUF, sendBufferSize);
+		}
+		if (receiveBufferSize > 0) {
+			bootstrap.option(ChannelOption.SO_RCVBUF, receiveBufferSize);
+		}
+		if (epoll && busyPoll > 0) {
+			bootstrap.option(EpollChannelOption.SO_BUSY_POLL, busyPoll);
+		}
+	}
+
+	/**
+	 * Sets the socket options of the connections accepted by the server bootstrap.
+	 */
+	public void configure(ServerBootstrap serverBootstrap) {
+		serverBootstrap.option(ChannelOption.ALLOCATOR, allocator)
+				.childOption(ChannelOption.ALLOCATOR, allocator)
+				.childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, writeBufferWaterMark);
+		if (sendBufferSize > 0) {
+			serverBootstrap.childOption(ChannelOption.SO_SNDBUF, sendBufferSize);
+		}
+		if (receiveBufferSize > 0) {
+			//Set on the listening socket so that it applies to the TCP window negotiated by accepted connections
+			serverBootstrap.option(ChannelOption.SO_RCVBUF, receiveBufferSize);
+		}
+		if (epoll && busyPoll > 0) {
+			serverBootstrap.childOption(EpollChannelOption.SO_BUSY_POLL, busyPoll);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "{transport " + (epoll ? "epoll" : "nio") + ", client threads " + clientThreads + ", server threads "
+				+ serverThreads + ", send buffer " + sendBufferSize + ", receive buffer " + receiveBufferSize
+				+ ", write buffer " + writeBufferWaterMark + ", busy poll " + busyPoll + ", allocator "
+				+ allocator.getClass().getSimpleName() + "}";
+	}
+}
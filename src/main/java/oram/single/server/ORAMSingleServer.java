@@ -2,18 +2,44 @@ package oram.single.server;
 
 import bftsmart.tom.MessageContext;
 import bftsmart.tom.core.messages.TOMMessageType;
+import io.netty.buffer.ByteBuf;
 import oram.server.ClientMessageSender;
+import oram.server.admission.AdmissionConfiguration;
 import oram.server.ORAMService;
+import oram.single.comunication.Message;
+import oram.utils.ServerOperationType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class ORAMSingleServer extends ServerExecutable implements ClientMessageSender {
 	private final Logger logger = LoggerFactory.getLogger("oram");
 	private final ORAMService oramService;
+	private final ExecutorService readExecutor;
+	private final Map<Integer, Queue<Message>> deferredGetPMRequests;
 
 	public ORAMSingleServer(int maxClients, int processId, String ip, int port) throws InterruptedException {
 		super(processId, ip, port);
+		deferredGetPMRequests = new HashMap<>();
 		oramService = new ORAMService(maxClients, this);
+		//Responses are sent through netty channels, which can be written from any thread
+		AtomicInteger nReadThreads = new AtomicInteger();
+		readExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+			Thread thread = new Thread(runnable, "Path reader " + nReadThreads.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		oramService.setReadExecutor(readExecutor);
+		AdmissionConfiguration admissionConfiguration = AdmissionConfiguration.load();
+		oramService.setConcurrencyLimiter(admissionConfiguration.createConcurrencyLimiter(maxClients));
+		oramService.setAdmissionScheduler(admissionConfiguration.createAdmissionScheduler());
 		logger.info("Ready to process operations");
 	}
 
@@ -26,15 +52,71 @@ public class ORAMSingleServer extends ServerExecutable implements ClientMessageS
 	}
 
 	@Override
-	public byte[] execute(int sender, byte[] requestData) {
+	public void shutdown() {
+		super.shutdown();
+		readExecutor.shutdown();
+		oramService.shutdown();
+	}
+
+	@Override
+	public byte[] execute(int sender, int requestId, ByteBuf requestData) {
+		//The request id is kept as the operation id to send responses that are not returned from here
 		MessageContext messageContext = new MessageContext(sender, -1, TOMMessageType.ORDERED_REQUEST, -1,
-				-1, -1, -1, null, -1, -1, -1, -1,
+				-1, requestId, -1, null, -1, -1, -1, -1,
 				-1, -1, null, null, false, false, (byte) -1);
 		return oramService.executeOrdered(requestData, messageContext);
 	}
 
+	/**
+	 * Defers the getPM requests of clients whose connection is unwritable until it drains, so that clients that do
+	 * not read their responses fast enough start no new accesses, while their admitted accesses still complete.
+	 */
+	@Override
+	public void deliverMessage(Message message) {
+		int sender = message.getSender();
+		if (isGetPositionMapRequest(message) && !serverCommunicationSystem.isWritable(sender)) {
+			logger.debug("Deferring getPM request from {} until its connection drains", sender);
+			deferredGetPMRequests.computeIfAbsent(sender, clientId -> new ArrayDeque<>()).add(message);
+			return;
+		}
+		super.deliverMessage(message);
+	}
+
+	@Override
+	public void deliverSessionWritable(int clientId) {
+		Queue<Message> deferredRequests = deferredGetPMRequests.remove(clientId);
+		if (deferredRequests == null) {
+			return;
+		}
+		for (Message deferredRequest : deferredRequests) {
+			deliverMessage(deferredRequest);
+		}
+	}
+
+	@Override
+	public void deliverSessionClosed(int clientId) {
+		Queue<Message> deferredRequests = deferredGetPMRequests.remove(clientId);
+		if (deferredRequests != null) {
+			for (Message deferredRequest : deferredRequests) {
+				deferredRequest.getSerializedBuffer().release();
+			}
+		}
+		oramService.clientDisconnected(clientId);
+	}
+
+	private static boolean isGetPositionMapRequest(Message message) {
+		ByteBuf requestData = message.getSerializedBuffer();
+		return requestData.isReadable() && ServerOperationType.getOperation(requestData.getByte(
+				requestData.readerIndex())) == ServerOperationType.GET_POSITION_MAP;
+	}
+
 	@Override
 	public void sendMessageToClient(MessageContext clientMsgCtx, byte[] serializedMessage) {
-		sendResponse(clientMsgCtx.getSender(), serializedMessage);
+		sendResponse(clientMsgCtx.getSender(), clientMsgCtx.getOperationId(), serializedMessage);
+	}
+
+	@Override
+	public void sendMessageToClient(MessageContext clientMsgCtx, ByteBuf serializedMessage) {
+		sendResponse(clientMsgCtx.getSender(), clientMsgCtx.getOperationId(), serializedMessage);
 	}
 }
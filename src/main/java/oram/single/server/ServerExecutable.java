@@ -1,8 +1,10 @@
 package oram.single.server;
 
+import io.netty.buffer.ByteBuf;
 import oram.single.comunication.Message;
 import oram.single.comunication.MessageProcessor;
 import oram.single.comunication.server.ServerCommunicationSystem;
+import oram.single.comunication.util.TransportConfiguration;
 
 import java.io.IOException;
 import java.security.KeyStoreException;
@@ -18,7 +20,7 @@ public abstract class ServerExecutable extends MessageProcessor {
 	public ServerExecutable(int id, String listeningIp, int listeningPort) throws InterruptedException {
 		super(id);
 		this.id = id;
-		int workerNThreads = 16;
+		int workerNThreads = TransportConfiguration.getInstance().getServerThreads();
 		int maxMessageSize = 100_000_000;
 		try {
 			serverCommunicationSystem = new ServerCommunicationSystem(
@@ -36,18 +38,44 @@ public abstract class ServerExecutable extends MessageProcessor {
 		}
 	}
 
-	public abstract byte[] execute(int sender, byte[] data);
+	/**
+	 * Stops delivering requests and closes the connections with the clients.
+	 */
+	public void shutdown() {
+		interrupt();
+		serverCommunicationSystem.shutdown();
+	}
+
+	/**
+	 * Executes a request. The request buffer is released after this method returns, so it must not be referenced
+	 * afterward.
+	 */
+	public abstract byte[] execute(int sender, int requestId, ByteBuf data);
 
 	@Override
 	public void deliverMessage(Message message) {
-		byte[] response = execute(message.getSender(), message.getSerializedMessage());
+		ByteBuf data = message.getSerializedBuffer();
+		byte[] response;
+		try {
+			response = execute(message.getSender(), message.getRequestId(), data);
+		} finally {
+			data.release();
+		}
 		if (response != null) {
-			sendResponse(message.getSender(), response);
+			sendResponse(message.getSender(), message.getRequestId(), response);
 		}
 	}
 
-	public void sendResponse(int target, byte[] response) {
-		Message responseMessage = new Message(id, MESSAGE_TYPE, response);
+	public void sendResponse(int target, int requestId, byte[] response) {
+		Message responseMessage = new Message(id, MESSAGE_TYPE, requestId, response);
+		serverCommunicationSystem.sendMessage(target, responseMessage);
+	}
+
+	/**
+	 * Sends the response without copying it. The buffer is released once sent.
+	 */
+	public void sendResponse(int target, int requestId, ByteBuf response) {
+		Message responseMessage = new Message(id, MESSAGE_TYPE, requestId, response);
 		serverCommunicationSystem.sendMessage(target, responseMessage);
 	}
 }
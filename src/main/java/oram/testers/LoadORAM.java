@@ -8,6 +8,7 @@ import oram.security.EncryptionManager;
 import oram.server.structure.EncryptedBucket;
 import oram.server.structure.EncryptedPathMap;
 import oram.server.structure.EncryptedStash;
+import oram.utils.EncryptionGranularity;
 import oram.utils.ORAMContext;
 import oram.utils.ORAMUtils;
 import oram.utils.ServerOperationType;
@@ -184,9 +185,11 @@ public class LoadORAM {
 	}
 
 	private void consolidatePathMaps(PathMaps recentPathMaps) {
+		latestAccess = recentPathMaps.mergePositionMapCheckpoint(positionMap, missingTriples, latestAccess);
+
 		Map<Integer, PathMap> pathMaps = recentPathMaps.getPathMaps();
 
-		int maxReceivedSequenceNumber = ORAMUtils.DUMMY_VERSION;
+		int maxReceivedSequenceNumber = latestAccess;
 
 		for (Map.Entry<Integer, PathMap> entry : pathMaps.entrySet()) {
 			int updateVersion = entry.getKey();
@@ -194,20 +197,13 @@ public class LoadORAM {
 			missingTriples.remove(updateVersion);
 
 			PathMap currentPathMap = entry.getValue();
-			for (int updatedAddress : currentPathMap.getStoredAddresses()) {
-				int pathMapLocation = currentPathMap.getLocation(updatedAddress);
-				int pathMapVersion = currentPathMap.getVersion(updatedAddress);
-				int pathMapAccess = currentPathMap.getAccess(updatedAddress);
-				int positionMapVersion = positionMap.getVersion(updatedAddress);
-				int positionMapAccess = positionMap.getAccess(updatedAddress);
-				int positionMapLocationUpdateAccess = positionMap.getLocationUpdateAccess(updatedAddress);
-				if (pathMapVersion > positionMapVersion ||
-						(pathMapVersion == positionMapVersion && pathMapAccess > positionMapAccess)
-						|| (pathMapVersion == positionMapVersion && pathMapAccess == positionMapAccess
-						&& updateVersion > positionMapLocationUpdateAccess)) {
-					positionMap.update(updatedAddress, pathMapLocation, pathMapVersion,
-							pathMapAccess, updateVersion);
-				}
+			for (int i = 0; i < currentPathMap.size(); i++) {
+				int updatedAddress = currentPathMap.getAddressAt(i);
+				int pathMapLocation = currentPathMap.getLocationAt(i);
+				int pathMapVersion = currentPathMap.getVersionAt(i);
+				int pathMapAccess = currentPathMap.getAccessAt(i);
+				positionMap.updateIfMoreRecent(updatedAddress, pathMapLocation, pathMapVersion, pathMapAccess,
+						updateVersion);
 			}
 		}
 
@@ -480,7 +476,8 @@ public class LoadORAM {
 				}
 				int bucketSize = in.readInt();
 				int blockSize = in.readInt();
-				ORAMContext oramContext = new ORAMContext(treeHeight, bucketSize, blockSize);
+				EncryptionGranularity encryptionGranularity = EncryptionGranularity.getEncryptionGranularity(in.readInt());
+				ORAMContext oramContext = new ORAMContext(treeHeight, bucketSize, blockSize, encryptionGranularity);
 				String password = new String(response.getConfidentialData()[0]);
 				encryptionManager.createSecretKey(password);
 
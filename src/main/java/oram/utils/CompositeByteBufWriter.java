@@ -0,0 +1,74 @@
+package oram.utils;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Serializes data into a composite buffer without copying large arrays. Arrays of at least WRAP_THRESHOLD bytes are
+ * referenced by the buffer, so they must not be modified until it is released. Integers and smaller arrays are
+ * copied into chunks, as referencing each of them would cost more than copying it.
+ */
+public class CompositeByteBufWriter {
+	private static final int WRAP_THRESHOLD = 1024;
+	private static final int CHUNK_SIZE = 16 * 1024;
+	private final CompositeByteBuf buffer;
+	private byte[] chunk;
+	private int chunkStart;
+	private int chunkOffset;
+
+	public CompositeByteBufWriter() {
+		this.buffer = Unpooled.compositeBuffer(Integer.MAX_VALUE);
+	}
+
+	public void writeInt(int value) {
+		ensureChunkCapacity(4);
+		ORAMUtils.serializeInteger(value, chunk, chunkOffset);
+		chunkOffset += 4;
+	}
+
+	public void writeByte(int value) {
+		ensureChunkCapacity(1);
+		chunk[chunkOffset++] = (byte) value;
+	}
+
+	public void writeBytes(byte[] bytes) {
+		if (bytes.length >= WRAP_THRESHOLD) {
+			addChunkComponent();
+			buffer.addComponent(true, Unpooled.wrappedBuffer(bytes));
+			return;
+		}
+		ensureChunkCapacity(bytes.length);
+		System.arraycopy(bytes, 0, chunk, chunkOffset, bytes.length);
+		chunkOffset += bytes.length;
+	}
+
+	/**
+	 * Returns the buffer with everything written so far. The writer must not be used afterward.
+	 */
+	public ByteBuf toByteBuf() {
+		addChunkComponent();
+		return buffer;
+	}
+
+	private void ensureChunkCapacity(int length) {
+		if (chunk != null && chunk.length - chunkOffset >= length) {
+			return;
+		}
+		addChunkComponent();
+		chunk = new byte[Math.max(CHUNK_SIZE, length)];
+		chunkStart = 0;
+		chunkOffset = 0;
+	}
+
+	/**
+	 * Adds the bytes written to the current chunk since it was last added. The rest of the chunk is still used by
+	 * the following writes.
+	 */
+	private void addChunkComponent() {
+		if (chunkOffset > chunkStart) {
+			buffer.addComponent(true, Unpooled.wrappedBuffer(chunk, chunkStart, chunkOffset - chunkStart));
+			chunkStart = chunkOffset;
+		}
+	}
+}
@@ -0,0 +1,21 @@
+package oram.utils;
+
+/**
+ * Unit of encryption of the buckets stored in the servers.
+ */
+public enum EncryptionGranularity {
+	/**
+	 * Each block of a bucket is encrypted separately.
+	 */
+	BLOCK,
+	/**
+	 * All blocks of a bucket are encrypted together as a single ciphertext.
+	 */
+	BUCKET;
+
+	public final static EncryptionGranularity[] values = values();
+
+	public static EncryptionGranularity getEncryptionGranularity(int ordinal) {
+		return values[ordinal];
+	}
+}
@@ -0,0 +1,134 @@
+package oram.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of non-negative values, usually latencies in nanoseconds, with buckets whose width grows with the value.
+ * Each power of two is split into SUB_BUCKETS buckets, so values are recorded with a relative error below
+ * 1 / SUB_BUCKETS while a fixed number of buckets covers the whole range of long values. Values can be recorded
+ * from any thread without locking, and are read in intervals, each snapshot holding the values recorded since the
+ * previous one.
+ */
+public class LatencyHistogram {
+	private static final int SUB_BUCKET_BITS = 5;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int N_BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+	private final AtomicLongArray counts;
+	private final LongAdder sum;
+	private final AtomicLong max;
+
+	public LatencyHistogram() {
+		this.counts = new AtomicLongArray(N_BUCKETS);
+		this.sum = new LongAdder();
+		this.max = new AtomicLong();
+	}
+
+	public void record(long value) {
+		if (value < 0) {
+			value = 0;
+		}
+		counts.incrementAndGet(getBucket(value));
+		sum.add(value);
+		long currentMax;
+		while (value > (currentMax = max.get()) && !max.compareAndSet(currentMax, value)) {
+			//retry until the maximum is at least the value
+		}
+	}
+
+	/**
+	 * Returns the values recorded since the previous snapshot. Values recorded concurrently with this method are
+	 * counted in either this snapshot or the next one.
+	 */
+	public Snapshot getIntervalSnapshot() {
+		long[] intervalCounts = new long[N_BUCKETS];
+		long totalCount = 0;
+		for (int bucket = 0; bucket < N_BUCKETS; bucket++) {
+			intervalCounts[bucket] = counts.getAndSet(bucket, 0);
+			totalCount += intervalCounts[bucket];
+		}
+		return new Snapshot(intervalCounts, totalCount, sum.sumThenReset(), max.getAndSet(0));
+	}
+
+	private static int getBucket(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+	}
+
+	private static long getBucketUpperBound(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		long subBucket = bucket % SUB_BUCKETS;
+		long width = 1L << (exponent - SUB_BUCKET_BITS);
+		return ((SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS)) + width - 1;
+	}
+
+	/**
+	 * Values recorded during an interval.
+	 */
+	public static class Snapshot {
+		private final long[] counts;
+		private final long totalCount;
+		private final long sum;
+		private final long max;
+
+		private Snapshot(long[] counts, long totalCount, long sum, long max) {
+			this.counts = counts;
+			this.totalCount = totalCount;
+			this.sum = sum;
+			this.max = max;
+		}
+
+		public long getTotalCount() {
+			return totalCount;
+		}
+
+		/**
+		 * Returns the highest recorded value, or -1 if no value was recorded.
+		 */
+		public long getMax() {
+			return totalCount == 0 ? -1 : max;
+		}
+
+		/**
+		 * Returns the average of the recorded values, or -1 if no value was recorded.
+		 */
+		public long getMean() {
+			return totalCount == 0 ? -1 : sum / totalCount;
+		}
+
+		/**
+		 * Returns the highest value of the bucket holding the given percentile of the recorded values, or -1 if no
+		 * value was recorded.
+		 * @param percentile Percentile between 0 and 100
+		 */
+		public long getValueAtPercentile(double percentile) {
+			if (totalCount == 0) {
+				return -1;
+			}
+			long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * totalCount));
+			long count = 0;
+			for (int bucket = 0; bucket < N_BUCKETS; bucket++) {
+				count += counts[bucket];
+				if (count >= rank) {
+					return Math.min(getBucketUpperBound(bucket), max);
+				}
+			}
+			return max;
+		}
+
+		@Override
+		public String toString() {
+			return "{count " + totalCount + ", mean " + getMean() + ", p50 " + getValueAtPercentile(50) + ", p90 "
+					+ getValueAtPercentile(90) + ", p99 " + getValueAtPercentile(99) + ", p999 "
+					+ getValueAtPercentile(99.9) + ", max " + getMax() + "}";
+		}
+	}
+}
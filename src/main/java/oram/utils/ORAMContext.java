@@ -6,13 +6,19 @@ public class ORAMContext {
 	private final int BUCKET_SIZE;
 	private final int BLOCK_SIZE;
 	private final int K;
+	private final EncryptionGranularity ENCRYPTION_GRANULARITY;
 
 	public ORAMContext(int treeHeight, int bucketSize, int blockSize) {
+		this(treeHeight, bucketSize, blockSize, EncryptionGranularity.BLOCK);
+	}
+
+	public ORAMContext(int treeHeight, int bucketSize, int blockSize, EncryptionGranularity encryptionGranularity) {
 		this.TREE_HEIGHT = treeHeight;
 		this.TREE_SIZE = ORAMUtils.computeNumberOfNodes(treeHeight);
 		this.BUCKET_SIZE = bucketSize;
 		this.BLOCK_SIZE = blockSize;
 		this.K = bucketSize;
+		this.ENCRYPTION_GRANULARITY = encryptionGranularity;
 	}
 
 	public int getTreeHeight() {
@@ -38,4 +44,15 @@ public class ORAMContext {
 	public int getK() {
 		return K;
 	}
+
+	public EncryptionGranularity getEncryptionGranularity() {
+		return ENCRYPTION_GRANULARITY;
+	}
+
+	/**
+	 * Returns the number of ciphertexts stored per bucket.
+	 */
+	public int getNEncryptedBlocksPerBucket() {
+		return ENCRYPTION_GRANULARITY == EncryptionGranularity.BUCKET ? 1 : BUCKET_SIZE;
+	}
 }
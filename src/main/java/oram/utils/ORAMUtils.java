@@ -1,5 +1,6 @@
 package oram.utils;
 
+import io.netty.buffer.ByteBuf;
 import oram.messages.ORAMMessage;
 
 import java.security.SecureRandom;
@@ -31,6 +32,16 @@ public class ORAMUtils {
 		return (1 << treeHeight + 1) - 1;
 	}
 
+	/**
+	 * Computes the default number of accesses between position map checkpoints of a client, i.e., the number of path
+	 * maps that together hold about as many entries as the position map. Uploading a checkpoint then costs about as
+	 * much as the path maps it replaces, and servers retain about a position map worth of path maps.
+	 */
+	public static int computeDefaultPositionMapCheckpointPeriod(ORAMContext oramContext) {
+		int pathCapacity = oramContext.getTreeLevels() * oramContext.getBucketSize();
+		return Math.max(1, oramContext.getTreeSize() / pathCapacity);
+	}
+
 	public static int[] computePathLocations(int pathId, int treeHeight) {
 		int offset = pathId;
 		int[] locations = new int[treeHeight + 1];
@@ -43,6 +54,22 @@ public class ORAMUtils {
 		return locations;
 	}
 
+	/**
+	 * Computes the locations of the union of the paths, in ascending order.
+	 */
+	public static int[] computePathLocations(int[] pathIds, int treeHeight) {
+		if (pathIds.length == 1) {
+			return computePathLocations(pathIds[0], treeHeight);
+		}
+		Set<Integer> locations = new HashSet<>(pathIds.length * (treeHeight + 1));
+		for (int pathId : pathIds) {
+			for (int location : computePathLocations(pathId, treeHeight)) {
+				locations.add(location);
+			}
+		}
+		return convertSetIntoOrderedArray(locations);
+	}
+
 	public static List<Integer> computePathLocationsList(int pathId, int treeHeight) {
 		int offset = pathId;
 		List<Integer> locations = new ArrayList<>(treeHeight+1);
@@ -115,15 +142,24 @@ public class ORAMUtils {
 		return (long) computeNumberOfNodes(treeHeight) * blockSize;
 	}
 
+	/**
+	 * Writes the value in big-endian order directly into the output, using the same encoding as toBytes.
+	 */
 	public static void serializeInteger(int value, byte[] output, int startOffset) {
-		byte[] valueBytes = toBytes(value);
-		System.arraycopy(valueBytes, 0, output, startOffset, 4);
+		output[startOffset + 3] = (byte) value;
+		output[startOffset + 2] = (byte) (value >>> 8);
+		output[startOffset + 1] = (byte) (value >>> 16);
+		output[startOffset] = (byte) (value >>> 24);
 	}
 
+	/**
+	 * Reads a big-endian value directly from the input, using the same encoding as toNumber.
+	 */
 	public static int deserializeInteger(byte[] input, int startOffset) {
-		byte[] valueBytes = new byte[4];
-		System.arraycopy(input, startOffset, valueBytes, 0, 4);
-		return toNumber(valueBytes);
+		return (input[startOffset] & 0xFF) << 24
+				| (input[startOffset + 1] & 0xFF) << 16
+				| (input[startOffset + 2] & 0xFF) << 8
+				| (input[startOffset + 3] & 0xFF);
 	}
 
 	public static int[] convertSetIntoOrderedArray(Set<Integer> values) {
@@ -151,4 +187,16 @@ public class ORAMUtils {
 		}
 		return hash;
 	}
+
+	/**
+	 * Computes the same hash code as computeHashCode(byte[]) over the readable bytes of the buffer.
+	 */
+	public static int computeHashCode(ByteBuf values) {
+		int end = values.writerIndex();
+		int hash = values.readableBytes() * 7;
+		for (int i = values.readerIndex(); i < end; i++) {
+			hash = hash * 31 + values.getByte(i);
+		}
+		return hash;
+	}
 }
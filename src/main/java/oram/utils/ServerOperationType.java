@@ -8,7 +8,9 @@ public enum ServerOperationType {
 	GET_STASH_AND_PATH,
 	EVICTION_PAYLOAD,
 	EVICTION,
-	UPDATE_CONCURRENT_CLIENTS;
+	UPDATE_CONCURRENT_CLIENTS,
+	POSITION_MAP_CHECKPOINT,
+	EVICTION_WITH_PAYLOAD;
 
 	public final static ServerOperationType[] values = values();
 
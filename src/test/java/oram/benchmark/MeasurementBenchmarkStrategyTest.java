@@ -0,0 +1,91 @@
+package oram.benchmark;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class MeasurementBenchmarkStrategyTest {
+	private static final String[] EARLIER_SERVER_KEYS = {"clients", "delta", "getPMRequests", "getPMAvgLatency",
+			"getPMBandwidth", "getPSRequests", "getPSAvgLatency", "getPSBandwidth", "evictionRequests",
+			"evictionAvgLatency", "evictionBandwidth", "outstanding", "pathMaps", "pathMapsBytes"};
+	private static final int N_INTERVALS = 3;
+	private Path path;
+
+	@Before
+	public void setUp() throws IOException {
+		path = Files.createTempFile("server_global", ".csv");
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(path);
+	}
+
+	@Test
+	public void savesServerMeasurementsWithPercentilesAndAdmissionState() throws IOException {
+		Map<String, long[]> measurements = new HashMap<>();
+		for (String key : EARLIER_SERVER_KEYS) {
+			measurements.put(key, intervals(1));
+		}
+		for (String operation : new String[]{"getPM", "getPS", "eviction"}) {
+			for (String percentile : new String[]{"p50", "p90", "p99", "p999", "max"}) {
+				measurements.put(operation + "Latency-" + percentile, intervals(2));
+			}
+		}
+		measurements.put("queueDepth", intervals(3));
+		measurements.put("activeClients", intervals(4));
+		measurements.put("concurrencyLimit", intervals(5));
+		measurements.put("pendingEvictions", intervals(6));
+		//Not reported every interval
+		measurements.put("queueWait-default-p50", new long[]{7});
+
+		new MeasurementBenchmarkStrategy().saveServerMeasurements(path, measurements);
+
+		List<String> lines = Files.readAllLines(path);
+		assertEquals(N_INTERVALS + 1, lines.size());
+		String[] header = lines.get(0).split(",");
+		assertEquals(EARLIER_SERVER_KEYS.length + 19, header.length);
+		assertEquals("clients[#]", header[0]);
+		assertEquals("pathMapsBytes[Bytes]", header[EARLIER_SERVER_KEYS.length - 1]);
+		assertEquals("getPMLatency-p50[ns]", header[EARLIER_SERVER_KEYS.length]);
+		assertEquals("pendingEvictions[#]", header[header.length - 1]);
+		for (int interval = 0; interval < N_INTERVALS; interval++) {
+			String[] row = lines.get(interval + 1).split(",");
+			assertEquals(header.length, row.length);
+			assertEquals(String.valueOf(100 + interval), row[0]);
+			assertEquals(String.valueOf(200 + interval), row[EARLIER_SERVER_KEYS.length]);
+			assertEquals(String.valueOf(600 + interval), row[row.length - 1]);
+		}
+	}
+
+	@Test
+	public void savesServerMeasurementsOfEarlierServers() throws IOException {
+		Map<String, long[]> measurements = new HashMap<>();
+		for (String key : EARLIER_SERVER_KEYS) {
+			measurements.put(key, intervals(1));
+		}
+
+		new MeasurementBenchmarkStrategy().saveServerMeasurements(path, measurements);
+
+		List<String> lines = Files.readAllLines(path);
+		assertEquals(N_INTERVALS + 1, lines.size());
+		assertEquals(EARLIER_SERVER_KEYS.length, lines.get(0).split(",").length);
+	}
+
+	private static long[] intervals(int base) {
+		long[] values = new long[N_INTERVALS];
+		for (int interval = 0; interval < N_INTERVALS; interval++) {
+			values[interval] = base * 100L + interval;
+		}
+		return values;
+	}
+}
@@ -0,0 +1,47 @@
+package oram.client.structure;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class PathMapsTest {
+
+	@Test
+	public void checkpointVersionStopsBeforeOldestMissingTriple() {
+		assertEquals(10, PathMaps.computeCheckpointVersion(10, Collections.emptySet()));
+		Set<Integer> missingTriples = new HashSet<>();
+		missingTriples.add(8);
+		missingTriples.add(5);
+		assertEquals(4, PathMaps.computeCheckpointVersion(10, missingTriples));
+	}
+
+	@Test
+	public void mergingCheckpointRemovesCoveredMissingTriples() {
+		PositionMap checkpoint = new PositionMap(2);
+		checkpoint.update(1, 3, 6, 6, 6);
+		PathMaps pathMaps = new PathMaps(0, Collections.emptyMap(), 7, checkpoint);
+		PositionMap positionMap = new PositionMap(2);
+		positionMap.update(0, 2, 4, 4, 4);
+		Set<Integer> missingTriples = new HashSet<>();
+		missingTriples.add(5);
+		missingTriples.add(9);
+
+		assertEquals(10, pathMaps.mergePositionMapCheckpoint(positionMap, missingTriples, 10));
+		assertEquals(Collections.singleton(9), missingTriples);
+		assertEquals(2, positionMap.getLocation(0));
+		assertEquals(3, positionMap.getLocation(1));
+		assertEquals(7, pathMaps.mergePositionMapCheckpoint(new PositionMap(2), new HashSet<>(), 2));
+	}
+
+	@Test
+	public void mergingWithoutCheckpointKeepsLatestAccess() {
+		PathMaps pathMaps = new PathMaps(0, Collections.emptyMap());
+		Set<Integer> missingTriples = new HashSet<>(Collections.singleton(3));
+		assertEquals(5, pathMaps.mergePositionMapCheckpoint(new PositionMap(1), missingTriples, 5));
+		assertEquals(Collections.singleton(3), missingTriples);
+	}
+}
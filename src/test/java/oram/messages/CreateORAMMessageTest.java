@@ -0,0 +1,29 @@
+package oram.messages;
+
+import oram.server.structure.EncryptedPathMap;
+import oram.server.structure.EncryptedStash;
+import oram.utils.EncryptionGranularity;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CreateORAMMessageTest {
+
+	@Test
+	public void readsGranularityOfMessageEmbeddedInLargerBuffer() {
+		for (EncryptionGranularity encryptionGranularity : EncryptionGranularity.values) {
+			CreateORAMMessage message = new CreateORAMMessage(1, 10, 4, 8, new EncryptedPathMap(new byte[16]),
+					new EncryptedStash(new byte[16]), encryptionGranularity);
+			int startOffset = 3;
+			byte[] buffer = new byte[startOffset + message.getSerializedSize() + 16];
+			int endOffset = message.writeExternal(buffer, startOffset);
+			assertEquals(startOffset + message.getSerializedSize(), endOffset);
+
+			CreateORAMMessage deserializedMessage = new CreateORAMMessage();
+			assertEquals(endOffset, deserializedMessage.readExternal(buffer, startOffset));
+			assertEquals(encryptionGranularity, deserializedMessage.getEncryptionGranularity());
+			assertEquals(10, deserializedMessage.getTreeHeight());
+			assertEquals(8, deserializedMessage.getBlockSize());
+		}
+	}
+}
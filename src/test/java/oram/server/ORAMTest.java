@@ -0,0 +1,96 @@
+package oram.server;
+
+import oram.messages.GetPathMaps;
+import oram.server.structure.EncryptedBucket;
+import oram.server.structure.EncryptedPathMap;
+import oram.server.structure.EncryptedStash;
+import oram.utils.ORAMUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class ORAMTest {
+	private static final int ORAM_ID = 1;
+	private static final int TREE_HEIGHT = 3;
+	private static final int BUCKET_SIZE = 2;
+	private static final int BLOCK_SIZE = 8;
+	private static final int N_PATHS = 1 << TREE_HEIGHT;
+	private static final int N_BUCKETS = ORAMUtils.computeNumberOfNodes(TREE_HEIGHT);
+	private ORAM oram;
+
+	@Before
+	public void setUp() {
+		oram = new ORAM(ORAM_ID, TREE_HEIGHT, BUCKET_SIZE, BLOCK_SIZE, new EncryptedPathMap(new byte[16]),
+				new EncryptedStash(new byte[16]));
+	}
+
+	@Test
+	public void clientThatNeverReadsItsPathKeepsTreeVersionsUntilItsContextIsRemoved() {
+		int idleClientId = 1;
+		int clientId = 2;
+		oram.getPositionMaps(idleClientId, new GetPathMaps(ORAM_ID, 0, Collections.emptySet()));
+
+		for (int round = 0; round < 3; round++) {
+			accessAllPaths(clientId);
+		}
+		//Every bucket array written since the idle client requested its path maps is kept
+		assertEquals(2, oram.getNOutstandingTreeVersions());
+		assertEquals(3 * N_PATHS * (TREE_HEIGHT + 1), oram.getNLocationVersions());
+
+		assertTrue(oram.removeClientContext(idleClientId));
+		accessAllPaths(clientId);
+		assertEquals(1, oram.getNOutstandingTreeVersions());
+		//Only the current bucket array of each location is kept
+		assertEquals(N_BUCKETS, oram.getNLocationVersions());
+	}
+
+	@Test
+	public void memoryStaysBoundedWhenIdleClientsAreRemoved() {
+		int clientId = 0;
+		for (int idleClientId = 1; idleClientId <= 10; idleClientId++) {
+			oram.getPositionMaps(idleClientId, new GetPathMaps(ORAM_ID, 0, Collections.emptySet()));
+			accessAllPaths(clientId);
+			assertTrue(oram.removeClientContext(idleClientId));
+		}
+		accessAllPaths(clientId);
+		assertEquals(1, oram.getNOutstandingTreeVersions());
+		assertEquals(N_BUCKETS, oram.getNLocationVersions());
+	}
+
+	@Test
+	public void removingContextAfterReadingPathKeepsTreeVersionOfOtherReaders() {
+		oram.getPositionMaps(1, new GetPathMaps(ORAM_ID, 0, Collections.emptySet()));
+		assertNotNull(oram.getStashesAndPaths(0, 1));
+		assertTrue(oram.removeClientContext(1));
+		oram.getPositionMaps(3, new GetPathMaps(ORAM_ID, 0, Collections.emptySet()));
+
+		accessAllPaths(2);
+		assertEquals(2, oram.getNOutstandingTreeVersions());
+	}
+
+	@Test
+	public void removingUnknownClientContextDoesNothing() {
+		assertFalse(oram.removeClientContext(1));
+	}
+
+	/**
+	 * Reads and evicts every path, one access at a time, so that every location is written.
+	 */
+	private void accessAllPaths(int clientId) {
+		for (int pathId = 0; pathId < N_PATHS; pathId++) {
+			oram.getPositionMaps(clientId, new GetPathMaps(ORAM_ID, 0, Collections.emptySet()));
+			assertNotNull(oram.getStashesAndPaths(pathId, clientId));
+			Map<Integer, EncryptedBucket> encryptedPath = new HashMap<>();
+			for (int location : ORAMUtils.computePathLocations(pathId, TREE_HEIGHT)) {
+				encryptedPath.put(location, new EncryptedBucket(new byte[BUCKET_SIZE][BLOCK_SIZE], location));
+			}
+			assertTrue(oram.performEviction(new EncryptedStash(new byte[16]), new EncryptedPathMap(new byte[16]),
+					encryptedPath, clientId));
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package oram.server.structure;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class EncryptedStashesAndPathsTest {
+	private static final int N_RESPONSES = 200;
+
+	@Test
+	public void bufferSerializationMatchesArraySerialization() {
+		Random random = new Random(42);
+		for (int response = 0; response < N_RESPONSES; response++) {
+			EncryptedStashesAndPaths stashesAndPaths = randomStashesAndPaths(random);
+			byte[] expected = new byte[stashesAndPaths.getSerializedSize()];
+			assertEquals(expected.length, stashesAndPaths.writeExternal(expected, 0));
+
+			ByteBuf buffer = stashesAndPaths.writeExternal();
+			try {
+				assertArrayEquals(expected, ByteBufUtil.getBytes(buffer));
+			} finally {
+				buffer.release();
+			}
+		}
+	}
+
+	/**
+	 * Creates stashes and blocks ranging from a few bytes to more than a chunk of the buffer writer, so that some are
+	 * copied into chunks and others are referenced.
+	 */
+	private static EncryptedStashesAndPaths randomStashesAndPaths(Random random) {
+		Map<Integer, EncryptedStash> encryptedStashes = new HashMap<>();
+		int nStashes = random.nextInt(6);
+		for (int i = 0; i < nStashes; i++) {
+			encryptedStashes.put(random.nextInt(1000), new EncryptedStash(randomBytes(random, 20_000)));
+		}
+		EncryptedBucket[] paths = new EncryptedBucket[random.nextInt(40)];
+		int bucketSize = 1 + random.nextInt(4);
+		int blockSize = 1 + random.nextInt(random.nextBoolean() ? 64 : 4096);
+		for (int i = 0; i < paths.length; i++) {
+			if (random.nextInt(5) == 0) {
+				continue;
+			}
+			byte[][] blocks = new byte[bucketSize][];
+			for (int j = 0; j < bucketSize; j++) {
+				blocks[j] = new byte[blockSize];
+				random.nextBytes(blocks[j]);
+			}
+			paths[i] = new EncryptedBucket(blocks, random.nextInt(1000));
+		}
+		return new EncryptedStashesAndPaths(encryptedStashes, paths);
+	}
+
+	private static byte[] randomBytes(Random random, int maxLength) {
+		byte[] bytes = new byte[random.nextInt(maxLength)];
+		random.nextBytes(bytes);
+		return bytes;
+	}
+}
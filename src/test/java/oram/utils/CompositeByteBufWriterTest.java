@@ -0,0 +1,61 @@
+package oram.utils;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CompositeByteBufWriterTest {
+
+	@Test
+	public void writesAcrossChunksAndWrappedArraysInOrder() throws IOException {
+		Random random = new Random(7);
+		CompositeByteBufWriter writer = new CompositeByteBufWriter();
+		ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		DataOutputStream expectedOutput = new DataOutputStream(expected);
+		//Array lengths around the wrap threshold and the chunk size
+		int[] lengths = {0, 1, 1023, 1024, 1025, 16 * 1024 - 1, 16 * 1024, 16 * 1024 + 1, 40_000};
+		for (int i = 0; i < 500; i++) {
+			switch (random.nextInt(3)) {
+				case 0:
+					int value = random.nextInt();
+					writer.writeInt(value);
+					expectedOutput.writeInt(value);
+					break;
+				case 1:
+					int b = random.nextInt(256);
+					writer.writeByte(b);
+					expectedOutput.writeByte(b);
+					break;
+				default:
+					byte[] bytes = new byte[lengths[random.nextInt(lengths.length)]];
+					random.nextBytes(bytes);
+					writer.writeBytes(bytes);
+					expectedOutput.write(bytes);
+			}
+		}
+
+		ByteBuf buffer = writer.toByteBuf();
+		try {
+			assertArrayEquals(expected.toByteArray(), ByteBufUtil.getBytes(buffer));
+		} finally {
+			buffer.release();
+		}
+	}
+
+	@Test
+	public void emptyWriterProducesEmptyBuffer() {
+		ByteBuf buffer = new CompositeByteBufWriter().toByteBuf();
+		try {
+			assertEquals(0, buffer.readableBytes());
+		} finally {
+			buffer.release();
+		}
+	}
+}